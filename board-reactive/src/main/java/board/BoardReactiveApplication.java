@@ -0,0 +1,15 @@
+package board;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+// board 프로젝트와 같은 DB(T_BOARD, T_FILE)를 사용하는 논블로킹 게시판 API (/rx/api/board)
+// WebFlux(Netty)와 R2DBC를 사용하므로 DB 응답을 기다리는 동안 스레드를 잡고 있지 않는다.
+@SpringBootApplication
+public class BoardReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(BoardReactiveApplication.class, args);
+	}
+
+}
@@ -0,0 +1,26 @@
+package board.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.data.r2dbc.connectionfactory.init.ConnectionFactoryInitializer;
+import org.springframework.data.r2dbc.connectionfactory.init.ResourceDatabasePopulator;
+
+import io.r2dbc.spi.ConnectionFactory;
+
+@Configuration
+public class DatabaseConfiguration {
+	
+	// 테이블은 board 프로젝트와 함께 사용하므로 내장 DB(h2 프로필)에서만 스키마를 만든다.
+	@Bean
+	@ConditionalOnProperty("board.rx.schema")
+	public ConnectionFactoryInitializer connectionFactoryInitializer(ConnectionFactory connectionFactory,
+			@Value("${board.rx.schema}") Resource schema) {
+		ConnectionFactoryInitializer initializer = new ConnectionFactoryInitializer();
+		initializer.setConnectionFactory(connectionFactory);
+		initializer.setDatabasePopulator(new ResourceDatabasePopulator(schema));
+		return initializer;
+	}
+}
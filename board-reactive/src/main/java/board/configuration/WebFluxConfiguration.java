@@ -0,0 +1,33 @@
+package board.configuration;
+
+import java.util.Arrays;
+
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@Configuration
+public class WebFluxConfiguration {
+	
+	public static final String NDJSON_VALUE = "application/x-ndjson";
+	
+	// board 프로젝트의 내보내기(/api/board/export)와 같이 application/x-ndjson 으로도 한건씩 보낸다.
+	// 스트리밍 형식이 아니면 Flux를 모두 모은 후에 JSON 배열로 보낸다.
+	// 부트의 Jackson 설정(Order 0) 다음에 적용해야 인코더가 바뀌지 않는다.
+	@Bean
+	@Order(1)
+	public CodecCustomizer ndjsonCodecCustomizer(ObjectMapper objectMapper) {
+		MediaType ndjson = MediaType.valueOf(NDJSON_VALUE);
+		return configurer -> {
+			Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(objectMapper, 
+					MediaType.APPLICATION_JSON, MediaType.APPLICATION_STREAM_JSON, ndjson);
+			encoder.setStreamingMediaTypes(Arrays.asList(MediaType.APPLICATION_STREAM_JSON, ndjson));
+			configurer.defaultCodecs().jackson2JsonEncoder(encoder);
+		};
+	}
+}
@@ -0,0 +1,70 @@
+package board.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import board.configuration.WebFluxConfiguration;
+import board.entity.BoardEntity;
+import board.service.ReactiveBoardService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// board 프로젝트의 /api/board 와 같은 API를 논블로킹으로 제공한다.
+// 요청을 처리하는 동안 스레드를 잡고 있지 않으므로 느린 클라이언트가 많아도 적은 수의 이벤트루프 스레드로 처리한다.
+@RestController
+@RequestMapping("/rx/api/board")
+public class ReactiveBoardApiController {
+	
+	@Autowired
+	private ReactiveBoardService boardService;
+	
+	// 마지막 글번호를 다음 요청의 afterIdx로 넘겨주면 다음 페이지를 조회한다.
+	// Accept가 application/x-ndjson 이면 한건씩 보낸다.
+	@GetMapping
+	public Flux<BoardEntity> openBoardList(@RequestParam(required = false) Integer afterIdx,
+			@RequestParam(defaultValue = "20") int pageSize) {
+		return boardService.selectBoardList(afterIdx, pageSize);
+	}
+	
+	// 전체 목록을 한건씩 보낸다. 클라이언트가 읽는 속도에 맞춰서 DB에서 읽는다.
+	@GetMapping(value = "/stream", produces = {WebFluxConfiguration.NDJSON_VALUE, MediaType.APPLICATION_STREAM_JSON_VALUE})
+	public Flux<BoardEntity> streamBoardList(@RequestParam(required = false) Integer afterIdx) {
+		return boardService.streamBoardList(afterIdx);
+	}
+	
+	@PostMapping
+	public Mono<BoardEntity> insertBoard(@RequestBody BoardEntity board) {
+		return boardService.insertBoard(board);
+	}
+	
+	@GetMapping("/{boardIdx}")
+	public Mono<BoardEntity> openBoardDetail(@PathVariable("boardIdx") int boardIdx) {
+		return boardService.selectBoardDetail(boardIdx)
+				.switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)));
+	}
+	
+	@PutMapping("/{boardIdx}")
+	public Mono<Void> updateBoard(@PathVariable("boardIdx") int boardIdx, @RequestBody BoardEntity board) {
+		return boardService.updateBoard(boardIdx, board).flatMap(this::notFoundIfFalse);
+	}
+	
+	@DeleteMapping("/{boardIdx}")
+	public Mono<Void> deleteBoard(@PathVariable("boardIdx") int boardIdx) {
+		return boardService.deleteBoard(boardIdx).flatMap(this::notFoundIfFalse);
+	}
+	
+	private Mono<Void> notFoundIfFalse(boolean found) {
+		return found ? Mono.empty() : Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND));
+	}
+}
@@ -0,0 +1,59 @@
+package board.entity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// board 프로젝트의 BoardDto와 같은 JSON으로 응답한다.
+@Table("T_BOARD")
+@NoArgsConstructor
+@Data
+public class BoardEntity {
+	
+	@Id
+	@Column("BOARD_IDX")
+	private Integer boardIdx;
+	
+	@Column("TITLE")
+	private String title;
+	
+	@Column("CONTENTS")
+	private String contents;
+	
+	@Column("HIT_CNT")
+	private int hitCnt;
+	
+	@Column("CREATOR_ID")
+	private String creatorId;
+	
+	@Column("CREATED_DATETIME")
+	@JsonFormat(pattern = "yyyy.MM.dd HH:mm:ss")
+	private LocalDateTime createdDatetime;
+	
+	@Column("UPDATOR_ID")
+	private String updaterId;
+	
+	@Column("UPDATED_DATETIME")
+	@JsonFormat(pattern = "yyyy.MM.dd HH:mm:ss")
+	private LocalDateTime updatedDatetime;
+	
+	@Column("DELETE_YN")
+	@JsonIgnore
+	private String deleteYn = "N";
+	
+	// 상세 조회에서만 채운다.
+	@Transient
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private List<BoardFileEntity> fileList;
+}
@@ -0,0 +1,31 @@
+package board.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 첨부파일은 board 프로젝트에서 등록한다. 여기서는 조회만 한다.
+@Table("T_FILE")
+@NoArgsConstructor
+@Data
+public class BoardFileEntity {
+	
+	@Id
+	@Column("IDX")
+	private Integer idx;
+	
+	@Column("BOARD_IDX")
+	private int boardIdx;
+	
+	@Column("ORIGINAL_FILE_NAME")
+	private String originalFileName;
+	
+	@Column("STORED_FILE_PATH")
+	private String storedFilePath;
+	
+	@Column("FILE_SIZE")
+	private long fileSize;
+}
@@ -0,0 +1,14 @@
+package board.repository;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import board.entity.BoardFileEntity;
+import reactor.core.publisher.Flux;
+
+public interface ReactiveBoardFileRepository extends ReactiveCrudRepository<BoardFileEntity, Integer> {
+	
+	@Query("SELECT * FROM T_FILE WHERE BOARD_IDX = :boardIdx AND DELETED_YN = 'N'")
+	Flux<BoardFileEntity> findByBoardIdx(@Param("boardIdx") int boardIdx);
+}
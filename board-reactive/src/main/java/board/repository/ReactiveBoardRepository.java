@@ -0,0 +1,46 @@
+package board.repository;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import board.entity.BoardEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveBoardRepository extends ReactiveCrudRepository<BoardEntity, Integer> {
+	
+	// 키셋(커서) 페이징, OFFSET 없이 afterIdx 다음부터 조회한다.
+	@Query("SELECT * FROM T_BOARD WHERE DELETE_YN = 'N' ORDER BY BOARD_IDX DESC LIMIT :limit")
+	Flux<BoardEntity> findFirstPage(@Param("limit") int limit);
+	
+	@Query("SELECT * FROM T_BOARD WHERE DELETE_YN = 'N' AND BOARD_IDX < :afterIdx ORDER BY BOARD_IDX DESC LIMIT :limit")
+	Flux<BoardEntity> findPageAfter(@Param("afterIdx") int afterIdx, @Param("limit") int limit);
+	
+	@Query("SELECT * FROM T_BOARD WHERE BOARD_IDX = :boardIdx AND DELETE_YN = 'N'")
+	Mono<BoardEntity> findActive(@Param("boardIdx") int boardIdx);
+	
+	// 조회수는 메모리에 모으지 않고 바로 반영한다. board 프로젝트와 프로세스가 다르므로 같은 카운터를 사용할수 없다.
+	@Modifying
+	@Query("UPDATE T_BOARD SET HIT_CNT = HIT_CNT + 1 WHERE BOARD_IDX = :boardIdx")
+	Mono<Integer> increaseHitCount(@Param("boardIdx") int boardIdx);
+	
+	@Modifying
+	@Query("UPDATE T_BOARD SET TITLE = :title, CONTENTS = :contents, UPDATED_DATETIME = NOW(), UPDATOR_ID = 'admin' "
+			+ "WHERE BOARD_IDX = :boardIdx AND DELETE_YN = 'N'")
+	Mono<Integer> updateBoard(@Param("boardIdx") int boardIdx, @Param("title") String title, @Param("contents") String contents);
+	
+	@Modifying
+	@Query("UPDATE T_BOARD SET DELETE_YN = 'Y', UPDATED_DATETIME = NOW(), UPDATOR_ID = 'admin' WHERE BOARD_IDX = :boardIdx")
+	Mono<Integer> deleteBoard(@Param("boardIdx") int boardIdx);
+	
+	// board 프로젝트의 목록 버전(sql-board.xml updateBoardListVersion)과 같은 행을 올린다. 목록 ETag가 이 값으로 만들어진다.
+	// 등록/수정/삭제와 같은 트랜잭션에서 실행한다. 조회수는 포함하지 않는다.
+	@Modifying
+	@Query("UPDATE T_BOARD_VERSION SET VERSION = VERSION + 1, UPDATED_DATETIME = NOW() WHERE NAME = 'board'")
+	Mono<Integer> increaseListVersion();
+	
+	@Query("SELECT VERSION FROM T_BOARD_VERSION WHERE NAME = 'board'")
+	Mono<Long> findListVersion();
+}
@@ -0,0 +1,22 @@
+package board.service;
+
+import board.entity.BoardEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveBoardService {
+	
+	int MAX_PAGE_SIZE = 100;
+	
+	Flux<BoardEntity> selectBoardList(Integer afterIdx, int pageSize);
+	
+	Flux<BoardEntity> streamBoardList(Integer afterIdx);
+	
+	Mono<BoardEntity> selectBoardDetail(int boardIdx);
+	
+	Mono<BoardEntity> insertBoard(BoardEntity board);
+	
+	Mono<Boolean> updateBoard(int boardIdx, BoardEntity board);
+	
+	Mono<Boolean> deleteBoard(int boardIdx);
+}
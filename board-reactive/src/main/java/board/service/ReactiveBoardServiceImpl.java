@@ -0,0 +1,100 @@
+package board.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import board.entity.BoardEntity;
+import board.repository.ReactiveBoardFileRepository;
+import board.repository.ReactiveBoardRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveBoardServiceImpl implements ReactiveBoardService {
+	
+	@Autowired
+	private ReactiveBoardRepository boardRepository;
+	
+	@Autowired
+	private ReactiveBoardFileRepository boardFileRepository;
+	
+	// 전체 목록을 보낼때 한번에 읽는 건수. 클라이언트가 느려도 보내는 중인 페이지와 다음 페이지까지만 메모리에 쌓는다.
+	@Value("${board.rx.stream.page-size:256}")
+	private int streamPageSize;
+	
+	@Override
+	public Flux<BoardEntity> selectBoardList(Integer afterIdx, int pageSize) {
+		int size = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+		if(afterIdx == null) {
+			return boardRepository.findFirstPage(size);
+		}
+		return boardRepository.findPageAfter(afterIdx, size);
+	}
+	
+	@Override
+	public Flux<BoardEntity> streamBoardList(Integer afterIdx) {
+		// 하나의 쿼리로 읽으면 클라이언트가 다 받을때까지 풀의 커넥션을 잡고 있으므로 키셋 페이지로 나눠서 읽는다.
+		// 페이지를 다 읽으면 커넥션을 반납하고, 마지막 글번호 다음 페이지는 새 커넥션으로 읽는다.
+		return findStreamPage(afterIdx == null ? Integer.MAX_VALUE : afterIdx)
+				.expand(page -> page.size() < streamPageSize ? Mono.empty()
+						: findStreamPage(page.get(page.size() - 1).getBoardIdx()))
+				.concatMapIterable(page -> page, 1);
+	}
+	
+	private Mono<List<BoardEntity>> findStreamPage(int afterIdx) {
+		return boardRepository.findPageAfter(afterIdx, streamPageSize).collectList();
+	}
+	
+	// 조회수를 올린 다음 게시글과 첨부파일 목록을 함께 조회한다.
+	@Override
+	public Mono<BoardEntity> selectBoardDetail(int boardIdx) {
+		return boardRepository.increaseHitCount(boardIdx)
+				.then(boardRepository.findActive(boardIdx))
+				.flatMap(board -> boardFileRepository.findByBoardIdx(boardIdx)
+						.collectList()
+						.map(fileList -> {
+							board.setFileList(fileList);
+							return board;
+						}));
+	}
+	
+	// 글을 바꾸는 메서드는 목록 버전을 같은 트랜잭션에서 올려서 board 프로젝트의 목록 ETag가 바뀌게 한다.
+	@Override
+	@Transactional
+	public Mono<BoardEntity> insertBoard(BoardEntity board) {
+		board.setBoardIdx(null);
+		board.setHitCnt(0);
+		board.setCreatorId("admin");
+		board.setCreatedDatetime(LocalDateTime.now());
+		board.setDeleteYn("N");
+		return boardRepository.save(board)
+				.flatMap(saved -> boardRepository.increaseListVersion().thenReturn(saved));
+	}
+	
+	@Override
+	@Transactional
+	public Mono<Boolean> updateBoard(int boardIdx, BoardEntity board) {
+		return boardRepository.updateBoard(boardIdx, board.getTitle(), board.getContents())
+				.flatMap(this::increaseListVersion);
+	}
+	
+	@Override
+	@Transactional
+	public Mono<Boolean> deleteBoard(int boardIdx) {
+		return boardRepository.deleteBoard(boardIdx)
+				.flatMap(this::increaseListVersion);
+	}
+	
+	// 바뀐 글이 없으면 버전을 올리지 않는다.
+	private Mono<Boolean> increaseListVersion(int count) {
+		if(count == 0) {
+			return Mono.just(false);
+		}
+		return boardRepository.increaseListVersion().thenReturn(true);
+	}
+}
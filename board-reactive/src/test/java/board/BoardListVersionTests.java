@@ -0,0 +1,72 @@
+package board;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import board.entity.BoardEntity;
+import board.repository.ReactiveBoardRepository;
+import board.service.ReactiveBoardService;
+
+// 글을 등록/수정/삭제하면 board 프로젝트의 목록 버전(T_BOARD_VERSION)이 올라가서 목록 ETag가 바뀐다.
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.r2dbc.url=r2dbc:h2:mem:///board-version;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+@ActiveProfiles("h2")
+public class BoardListVersionTests {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	@Autowired
+	private ReactiveBoardService boardService;
+
+	@Autowired
+	private ReactiveBoardRepository boardRepository;
+
+	@Test
+	public void writesIncreaseListVersion() {
+		long version = listVersion();
+
+		BoardEntity board = new BoardEntity();
+		board.setTitle("version");
+		board.setContents("version");
+		int boardIdx = boardService.insertBoard(board).block(TIMEOUT).getBoardIdx();
+		assertEquals(version + 1, listVersion());
+
+		board.setTitle("version updated");
+		assertTrue(boardService.updateBoard(boardIdx, board).block(TIMEOUT));
+		assertEquals(version + 2, listVersion());
+
+		assertTrue(boardService.deleteBoard(boardIdx).block(TIMEOUT));
+		assertEquals(version + 3, listVersion());
+
+		// 바뀐 글이 없으면 그대로다.
+		assertFalse(boardService.updateBoard(boardIdx, board).block(TIMEOUT));
+		assertEquals(version + 3, listVersion());
+	}
+
+	// 조회수는 목록 버전에 포함하지 않는다.
+	@Test
+	public void hitCountDoesNotIncreaseListVersion() {
+		BoardEntity board = new BoardEntity();
+		board.setTitle("hit");
+		board.setContents("hit");
+		int boardIdx = boardService.insertBoard(board).block(TIMEOUT).getBoardIdx();
+		long version = listVersion();
+
+		boardService.selectBoardDetail(boardIdx).block(TIMEOUT);
+		assertEquals(version, listVersion());
+	}
+
+	private long listVersion() {
+		return boardRepository.findListVersion().block(TIMEOUT);
+	}
+}
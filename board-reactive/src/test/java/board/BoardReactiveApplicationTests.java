@@ -0,0 +1,59 @@
+package board;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.time.Duration;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import board.entity.BoardEntity;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+public class BoardReactiveApplicationTests {
+	
+	@Autowired
+	private WebTestClient webTestClient;
+	
+	@Test
+	public void contextLoads() {
+	}
+	
+	@Test
+	public void testStreamBoardList() {
+		for(int i = 0; i < 5; i++) {
+			BoardEntity board = new BoardEntity();
+			board.setTitle("title " + i);
+			board.setContents("contents " + i);
+			BoardEntity saved = webTestClient.post().uri("/rx/api/board").bodyValue(board)
+					.exchange()
+					.expectStatus().isOk()
+					.returnResult(BoardEntity.class).getResponseBody().blockFirst();
+			assertNotNull(saved.getBoardIdx());
+		}
+		
+		Flux<BoardEntity> stream = webTestClient.get().uri("/rx/api/board/stream")
+				.accept(MediaType.APPLICATION_STREAM_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.returnResult(BoardEntity.class).getResponseBody();
+		// 한건씩 요청해도 순서대로 받는다.
+		StepVerifier.create(stream, 1)
+				.assertNext(board -> assertEquals("title 4", board.getTitle()))
+				.thenRequest(4)
+				.expectNextCount(4)
+				.expectComplete()
+				.verify(Duration.ofSeconds(10));
+	}
+}
@@ -0,0 +1,123 @@
+package board;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import board.entity.BoardEntity;
+import board.service.ReactiveBoardService;
+import reactor.core.publisher.BaseSubscriber;
+
+// 전체 목록을 천천히 받는 구독자가 커넥션 풀보다 많아도 다른 조회가 커넥션을 기다리지 않는지 확인한다.
+// 다른 테스트의 게시글과 섞이지 않도록 내장 DB를 따로 사용한다.
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"spring.r2dbc.url=r2dbc:h2:mem:///board-stream;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+		"spring.r2dbc.pool.initial-size=1", "spring.r2dbc.pool.max-size=2", "board.rx.stream.page-size=3"})
+@ActiveProfiles("h2")
+public class BoardStreamTests {
+
+	private static final int SUBSCRIBERS = 6;
+
+	@Autowired
+	private ReactiveBoardService boardService;
+
+	@Test
+	public void slowSubscribersDoNotHoldConnections() throws Exception {
+		for(int i = 0; i < 10; i++) {
+			BoardEntity board = new BoardEntity();
+			board.setTitle("stream " + i);
+			board.setContents("stream " + i);
+			boardService.insertBoard(board).block(Duration.ofSeconds(5));
+		}
+		List<Integer> expected = boardService.streamBoardList(null).map(BoardEntity::getBoardIdx)
+				.collectList().block(Duration.ofSeconds(5));
+
+		// 첫번째 글만 받고 더 요청하지 않는다.
+		CountDownLatch firstReceived = new CountDownLatch(SUBSCRIBERS);
+		List<SlowSubscriber> subscribers = new ArrayList<>();
+		for(int i = 0; i < SUBSCRIBERS; i++) {
+			SlowSubscriber subscriber = new SlowSubscriber(firstReceived);
+			boardService.streamBoardList(null).subscribe(subscriber);
+			subscribers.add(subscriber);
+		}
+		assertEquals(true, firstReceived.await(5, TimeUnit.SECONDS));
+
+		// 구독자가 커넥션을 잡고 있으면 풀(2개)이 비지 않아서 시간 안에 끝나지 않는다.
+		List<BoardEntity> page = boardService.selectBoardList(null, 5).collectList().block(Duration.ofSeconds(5));
+		assertEquals(5, page.size());
+
+		for(SlowSubscriber subscriber : subscribers) {
+			subscriber.request(Long.MAX_VALUE);
+		}
+		for(SlowSubscriber subscriber : subscribers) {
+			subscriber.done.get(5, TimeUnit.SECONDS);
+			assertEquals(expected, subscriber.received.stream().map(BoardEntity::getBoardIdx).collect(Collectors.toList()));
+		}
+	}
+
+	@Test
+	public void streamAfterIdxReadsAcrossPages() {
+		for(int i = 0; i < 7; i++) {
+			BoardEntity board = new BoardEntity();
+			board.setTitle("after " + i);
+			board.setContents("after " + i);
+			boardService.insertBoard(board).block(Duration.ofSeconds(5));
+		}
+		List<Integer> all = boardService.streamBoardList(null).map(BoardEntity::getBoardIdx)
+				.collectList().block(Duration.ofSeconds(5));
+		// 페이지 크기(3)의 배수에서 끝나도 빈 페이지를 한번 더 읽고 끝난다.
+		int afterIdx = all.get(all.size() - 7);
+		List<Integer> after = boardService.streamBoardList(afterIdx).map(BoardEntity::getBoardIdx)
+				.collectList().block(Duration.ofSeconds(5));
+		assertEquals(all.subList(all.size() - 6, all.size()), after);
+	}
+
+	private static class SlowSubscriber extends BaseSubscriber<BoardEntity> {
+
+		private final List<BoardEntity> received = new CopyOnWriteArrayList<>();
+
+		private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+		private final CountDownLatch firstReceived;
+
+		SlowSubscriber(CountDownLatch firstReceived) {
+			this.firstReceived = firstReceived;
+		}
+
+		@Override
+		protected void hookOnSubscribe(Subscription subscription) {
+			request(1);
+		}
+
+		@Override
+		protected void hookOnNext(BoardEntity board) {
+			received.add(board);
+			firstReceived.countDown();
+		}
+
+		@Override
+		protected void hookOnComplete() {
+			done.complete(null);
+		}
+
+		@Override
+		protected void hookOnError(Throwable throwable) {
+			done.completeExceptionally(throwable);
+		}
+	}
+}
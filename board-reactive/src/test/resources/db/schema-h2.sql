@@ -0,0 +1,38 @@
+-- MySQL의 T_BOARD, T_FILE 과 같은 구조
+-- r2dbc-h2는 TEXT(CLOB)를 String으로 읽지 못하므로 CONTENTS는 VARCHAR로 만든다. MySQL의 TEXT는 String으로 읽는다.
+CREATE TABLE IF NOT EXISTS T_BOARD (
+	BOARD_IDX INT NOT NULL AUTO_INCREMENT,
+	TITLE VARCHAR(300) NOT NULL,
+	CONTENTS VARCHAR(65535) NOT NULL,
+	HIT_CNT SMALLINT NOT NULL DEFAULT 0,
+	CREATED_DATETIME DATETIME NOT NULL,
+	CREATOR_ID VARCHAR(50) NOT NULL,
+	UPDATED_DATETIME DATETIME,
+	UPDATOR_ID VARCHAR(50),
+	DELETE_YN CHAR(1) DEFAULT 'N',
+	PRIMARY KEY (BOARD_IDX)
+);
+
+CREATE TABLE IF NOT EXISTS T_FILE (
+	IDX INT NOT NULL AUTO_INCREMENT,
+	BOARD_IDX INT NOT NULL,
+	ORIGINAL_FILE_NAME VARCHAR(255) NOT NULL,
+	STORED_FILE_PATH VARCHAR(500) NOT NULL,
+	FILE_SIZE INT NOT NULL,
+	CREATOR_ID VARCHAR(50) NOT NULL,
+	CREATED_DATETIME DATETIME NOT NULL,
+	UPDATOR_ID VARCHAR(50),
+	UPDATED_DATETIME DATETIME,
+	DELETED_YN CHAR(1) NOT NULL DEFAULT 'N',
+	PRIMARY KEY (IDX)
+);
+
+-- board 프로젝트의 목록 버전 (board/src/main/resources/db/schema-version-mysql.sql)
+CREATE TABLE IF NOT EXISTS T_BOARD_VERSION (
+	NAME VARCHAR(50) NOT NULL,
+	VERSION BIGINT NOT NULL DEFAULT 0,
+	UPDATED_DATETIME DATETIME NOT NULL,
+	PRIMARY KEY (NAME)
+);
+
+MERGE INTO T_BOARD_VERSION (NAME, VERSION, UPDATED_DATETIME) KEY (NAME) VALUES ('board', 0, NOW());
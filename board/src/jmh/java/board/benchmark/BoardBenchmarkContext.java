@@ -0,0 +1,32 @@
+package board.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import board.BoardApplication;
+
+// 벤치마크용 애플리케이션을 내장 H2(MySQL 모드) 프로필로 실행한다.
+public class BoardBenchmarkContext {
+	
+	private BoardBenchmarkContext() {
+	}
+	
+	public static ConfigurableApplicationContext start(String... properties) {
+		return builder().run(args(properties));
+	}
+	
+	public static SpringApplicationBuilder builder() {
+		return new SpringApplicationBuilder(BoardApplication.class)
+				.profiles("h2")
+				.properties("server.port=0", "logging.level.root=WARN", "spring.cloud.config.enabled=false");
+	}
+	
+	// 벤치마크 파라미터는 application.yml보다 우선하도록 명령행 인자(--name=value)로 넘긴다.
+	public static String[] args(String... properties) {
+		String[] args = new String[properties.length];
+		for(int i = 0; i < properties.length; i++) {
+			args[i] = "--" + properties[i];
+		}
+		return args;
+	}
+}
@@ -0,0 +1,74 @@
+package board.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import board.dto.BoardDto;
+import board.dto.BulkInsertResultDto;
+import board.service.BoardService;
+
+// 게시글 1건씩 등록(insertBoard)과 배치 등록(insertBoardBulk)의 초당 등록 건수 비교
+// 한번 호출할때 BOARDS건을 등록하므로 결과는 게시글 한건 기준이다.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+public class BoardBulkInsertBenchmark {
+	
+	private static final int BOARDS = 1000;
+	
+	@Param({"100", "1000"})
+	private int chunkSize;
+	
+	private ConfigurableApplicationContext context;
+	private BoardService boardService;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BoardBenchmarkContext.start("board.bulk.chunk-size=" + chunkSize);
+		boardService = context.getBean(BoardService.class);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(BOARDS)
+	public int singleInsert() throws Exception {
+		int last = 0;
+		for(BoardDto board : newBoards()) {
+			boardService.insertBoard(board, null);
+			last = board.getBoardIdx();
+		}
+		return last;
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(BOARDS)
+	public BulkInsertResultDto bulkInsert() throws Exception {
+		return boardService.insertBoardBulk(newBoards().iterator());
+	}
+	
+	private List<BoardDto> newBoards() {
+		List<BoardDto> boards = new ArrayList<>(BOARDS);
+		for(int i = 0; i < BOARDS; i++) {
+			BoardDto board = new BoardDto();
+			board.setTitle("벤치마크 게시글 " + i);
+			board.setContents("벤치마크 게시글 내용입니다. " + i);
+			boards.add(board);
+		}
+		return boards;
+	}
+}
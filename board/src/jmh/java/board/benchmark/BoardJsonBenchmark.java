@@ -0,0 +1,62 @@
+package board.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import board.dto.BoardDto;
+import board.dto.CursorPageDto;
+
+// /api/board 응답(BoardDto 목록)의 JSON 직렬화 비용
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+public class BoardJsonBenchmark {
+	
+	@Param({"20", "100", "1000"})
+	private int size;
+	
+	private ObjectMapper objectMapper;
+	private List<BoardDto> list;
+	private CursorPageDto<BoardDto> page;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		// 스프링 MVC가 사용하는 것과 같은 설정의 ObjectMapper
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		
+		list = new ArrayList<>();
+		for(int i = size; i > 0; i--) {
+			BoardDto board = new BoardDto();
+			board.setBoardIdx(i);
+			board.setTitle("벤치마크 게시글 " + i);
+			board.setHitCnt(i * 7);
+			board.setCreatedDatetime("2019.07.08 12:34:56");
+			list.add(board);
+		}
+		
+		page = new CursorPageDto<>();
+		page.setList(list);
+		page.setNextAfterIdx(1);
+	}
+	
+	@Benchmark
+	public byte[] serializeList() throws Exception {
+		return objectMapper.writeValueAsBytes(list);
+	}
+	
+	@Benchmark
+	public byte[] serializeCursorPage() throws Exception {
+		return objectMapper.writeValueAsBytes(page);
+	}
+}
@@ -0,0 +1,127 @@
+package board.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import board.dto.BoardDto;
+import board.dto.CursorPageDto;
+import board.entity.BoardEntity;
+import board.repository.BoardSummary;
+import board.service.BoardService;
+import board.service.JpaBoardService;
+
+// BoardServiceImpl(MyBatis)와 JpaBoardServiceImpl(JPA)의 목록/상세/등록 비교
+// detailCacheSize가 0이면 상세 캐시를 사용하지 않고 매번 DB에서 조회한다.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+public class BoardServiceBenchmark {
+	
+	@Param({"1000"})
+	private int rows;
+	
+	@Param({"0", "10000"})
+	private long detailCacheSize;
+	
+	private ConfigurableApplicationContext context;
+	private BoardService boardService;
+	private JpaBoardService jpaBoardService;
+	
+	private int[] boardIdxs;
+	private int[] jpaBoardIdxs;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		context = BoardBenchmarkContext.start("board.cache.detail.maximum-size=" + detailCacheSize);
+		boardService = context.getBean(BoardService.class);
+		jpaBoardService = context.getBean(JpaBoardService.class);
+		
+		boardIdxs = new int[rows];
+		jpaBoardIdxs = new int[rows];
+		for(int i = 0; i < rows; i++) {
+			BoardDto board = newBoard(i);
+			boardService.insertBoard(board, null);
+			boardIdxs[i] = board.getBoardIdx();
+			
+			BoardEntity entity = newEntity(i);
+			jpaBoardService.saveBoard(entity, null);
+			jpaBoardIdxs[i] = entity.getBoardIdx();
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+	
+	@Benchmark
+	public CursorPageDto<BoardDto> mybatisList() throws Exception {
+		return boardService.selectBoardList(null, 20);
+	}
+	
+	@Benchmark
+	public CursorPageDto<BoardDto> mybatisListAfterCursor() throws Exception {
+		return boardService.selectBoardList(randomIdx(boardIdxs), 20);
+	}
+	
+	@Benchmark
+	public CursorPageDto<BoardSummary> jpaList() throws Exception {
+		return jpaBoardService.selectBoardList(null, 20);
+	}
+	
+	@Benchmark
+	public CursorPageDto<BoardSummary> jpaListAfterCursor() throws Exception {
+		return jpaBoardService.selectBoardList(randomIdx(jpaBoardIdxs), 20);
+	}
+	
+	@Benchmark
+	public BoardDto mybatisDetail() throws Exception {
+		return boardService.selectBoardDetail(randomIdx(boardIdxs));
+	}
+	
+	@Benchmark
+	public BoardEntity jpaDetail() throws Exception {
+		return jpaBoardService.selectBoardDetail(randomIdx(jpaBoardIdxs));
+	}
+	
+	@Benchmark
+	public BoardDto mybatisInsert() throws Exception {
+		BoardDto board = newBoard(ThreadLocalRandom.current().nextInt());
+		boardService.insertBoard(board, null);
+		return board;
+	}
+	
+	@Benchmark
+	public BoardEntity jpaInsert() throws Exception {
+		BoardEntity board = newEntity(ThreadLocalRandom.current().nextInt());
+		jpaBoardService.saveBoard(board, null);
+		return board;
+	}
+	
+	private int randomIdx(int[] idxs) {
+		return idxs[ThreadLocalRandom.current().nextInt(idxs.length)];
+	}
+	
+	private BoardDto newBoard(int i) {
+		BoardDto board = new BoardDto();
+		board.setTitle("벤치마크 게시글 " + i);
+		board.setContents("벤치마크 게시글 내용입니다. " + i);
+		return board;
+	}
+	
+	private BoardEntity newEntity(int i) {
+		BoardEntity board = new BoardEntity();
+		board.setTitle("벤치마크 게시글 " + i);
+		board.setContents("벤치마크 게시글 내용입니다. " + i);
+		return board;
+	}
+}
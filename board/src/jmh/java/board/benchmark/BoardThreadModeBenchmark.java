@@ -0,0 +1,145 @@
+package board.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import board.dto.BoardDto;
+import board.service.BoardService;
+
+// 톰캣 스레드 풀(platform)과 가상 스레드(virtual)로 실행할때 /api/board 목록, 상세 요청의 처리량과 응답시간 비교
+// 클라이언트 수(@Threads)를 톰캣 스레드 수(server.tomcat.max-threads)보다 많게 하고, 
+// 내장 H2는 바로 응답하므로 SQL마다 dbLatencyMillis 만큼 기다려서 MySQL 왕복시간을 흉내낸다.
+// 커넥션 풀 크기는 두 방식 모두 같게 한다.
+// virtual=true는 Java 21 이상에서 실행해야 한다. (Java 21 미만이면 platform과 같다)
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(400)
+public class BoardThreadModeBenchmark {
+	
+	private static final int ROWS = 1000;
+	
+	@Param({"false", "true"})
+	private boolean virtual;
+	
+	@Param({"5"})
+	private long dbLatencyMillis;
+	
+	@Param({"200"})
+	private int tomcatMaxThreads;
+	
+	@Param({"50"})
+	private int poolSize;
+	
+	private ConfigurableApplicationContext context;
+	private String baseUrl;
+	private int[] boardIdxs;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		// 클라이언트 스레드마다 keep-alive 커넥션을 재사용한다.
+		System.setProperty("http.maxConnections", "1000");
+		context = BoardBenchmarkContext.builder()
+				.initializers(applicationContext -> applicationContext.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+					@Override
+					public Object postProcessAfterInitialization(Object bean, String beanName) {
+						return "dataSource".equals(beanName) ? new LatencyDataSource((DataSource) bean, dbLatencyMillis) : bean;
+					}
+				}))
+				.run(BoardBenchmarkContext.args(
+						"board.threads.virtual.enabled=" + virtual,
+						"server.tomcat.max-threads=" + tomcatMaxThreads,
+						"spring.datasource.hikari.maximum-pool-size=" + poolSize));
+		baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+		
+		BoardService boardService = context.getBean(BoardService.class);
+		boardIdxs = new int[ROWS];
+		for(int i = 0; i < ROWS; i++) {
+			BoardDto board = new BoardDto();
+			board.setTitle("벤치마크 게시글 " + i);
+			board.setContents("벤치마크 게시글 내용입니다. " + i);
+			boardService.insertBoard(board, null);
+			boardIdxs[i] = board.getBoardIdx();
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+	
+	@Benchmark
+	public int boardList() throws IOException {
+		return get("/api/board?pageSize=20");
+	}
+	
+	@Benchmark
+	public int boardDetail() throws IOException {
+		return get("/api/board/" + boardIdxs[ThreadLocalRandom.current().nextInt(ROWS)]);
+	}
+	
+	private int get(String path) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+		int read = 0;
+		try (InputStream in = connection.getInputStream()) {
+			byte[] buffer = new byte[8192];
+			int n;
+			while((n = in.read(buffer)) > 0) {
+				read += n;
+			}
+		}
+		return read;
+	}
+	
+	// 커넥션에서 SQL을 준비할때마다 DB 왕복시간만큼 기다린다.
+	private static class LatencyDataSource extends DelegatingDataSource {
+		private final long latencyMillis;
+		
+		LatencyDataSource(DataSource target, long latencyMillis) {
+			super(target);
+			this.latencyMillis = latencyMillis;
+		}
+		
+		@Override
+		public Connection getConnection() throws SQLException {
+			Connection target = super.getConnection();
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+					(proxy, method, args) -> {
+						if(method.getName().startsWith("prepare") || method.getName().equals("createStatement")) {
+							Thread.sleep(latencyMillis);
+						}
+						try {
+							return method.invoke(target, args);
+						} catch (InvocationTargetException e) {
+							throw e.getTargetException();
+						}
+					});
+		}
+	}
+}
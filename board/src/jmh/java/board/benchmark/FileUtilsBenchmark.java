@@ -0,0 +1,120 @@
+package board.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.mock.web.MockMultipartHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+
+import board.common.FileUtils;
+import board.common.LocalAttachmentStore;
+import board.common.StagedFile;
+import board.common.StreamingMultipartResolver;
+
+// FileUtils.stageFiles 업로드 경로 비교
+// streamingUpload : StreamingMultipartResolver가 요청을 읽으면서 저장한 파일을 등록 
+// mockMultipartUpload : 메모리에 있는 MultipartFile을 transferTo로 저장한후 등록(해시를 다시 계산)
+// 매번 내용을 바꿔 중복제거가 되지 않게 하고, 디스크가 차지 않도록 저장한 파일은 바로 반납한다.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+public class FileUtilsBenchmark {
+	
+	private static final String BOUNDARY = "----BoardBenchmarkBoundary";
+	private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+	
+	@Param({"16384", "1048576"})
+	private int fileSize;
+	
+	private Path root;
+	private LocalAttachmentStore attachmentStore;
+	private FileUtils fileUtils;
+	private StreamingMultipartResolver multipartResolver;
+	
+	private byte[] content;
+	private byte[] body;
+	private int contentOffset;
+	private final AtomicLong sequence = new AtomicLong();
+	
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("board-benchmark");
+		attachmentStore = new LocalAttachmentStore(root.toString());
+		fileUtils = new FileUtils();
+		ReflectionTestUtils.setField(fileUtils, "attachmentStore", attachmentStore);
+		ReflectionTestUtils.setField(fileUtils, "stagingPoolSize", 4);
+		ReflectionTestUtils.setField(fileUtils, "stagingQueueCapacity", 100);
+		fileUtils.init();
+		multipartResolver = new StreamingMultipartResolver(attachmentStore);
+		
+		content = new byte[fileSize];
+		System.arraycopy(PNG_SIGNATURE, 0, content, 0, PNG_SIGNATURE.length);
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"title\"\r\n\r\n제목\r\n").getBytes(StandardCharsets.UTF_8));
+		out.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"files\"; filename=\"image.png\"\r\n"
+				+ "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+		contentOffset = out.size();
+		out.write(content);
+		out.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+		body = out.toByteArray();
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		fileUtils.destroy();
+		try (Stream<Path> paths = Files.walk(root)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+	
+	@Benchmark
+	public List<StagedFile> streamingUpload() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/board/write");
+		request.setContentType("multipart/form-data; boundary=" + BOUNDARY);
+		request.setContent(unique(body.clone(), contentOffset));
+		
+		MultipartHttpServletRequest multipartRequest = multipartResolver.resolveMultipart(request);
+		List<StagedFile> list = fileUtils.stageFiles(multipartRequest);
+		multipartResolver.cleanupMultipart(multipartRequest);
+		fileUtils.releaseFiles(list);
+		return list;
+	}
+	
+	@Benchmark
+	public List<StagedFile> mockMultipartUpload() throws Exception {
+		MockMultipartHttpServletRequest request = new MockMultipartHttpServletRequest();
+		request.addFile(new MockMultipartFile("files", "image.png", "image/png", unique(content.clone(), 0)));
+		
+		List<StagedFile> list = fileUtils.stageFiles(request);
+		fileUtils.releaseFiles(list);
+		return list;
+	}
+	
+	// PNG 시그니처 뒤에 일련번호를 넣어서 파일마다 해시가 다르게 한다.
+	private byte[] unique(byte[] bytes, int offset) {
+		long value = sequence.incrementAndGet();
+		for(int i = 0; i < 8; i++) {
+			bytes[offset + PNG_SIGNATURE.length + i] = (byte) (value >>> (i * 8));
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,101 @@
+package board.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+// 게시판 HTTP 클라이언트. 응답 본문은 끝까지 읽어서 keep-alive 커넥션을 재사용하게 한다.
+// 글쓰기 후의 redirect는 따라가지 않는다. (글쓰기 응답시간만 잰다)
+public class BoardClient {
+
+	private static final String CRLF = "\r\n";
+
+	private final String baseUrl;
+
+	public BoardClient(String baseUrl) {
+		this.baseUrl = baseUrl;
+	}
+
+	public int get(String path) throws IOException {
+		return send(open("GET", path), null);
+	}
+
+	public int postJson(String path, String json) throws IOException {
+		HttpURLConnection connection = open("POST", path);
+		connection.setRequestProperty("Content-Type", "application/json;charset=UTF-8");
+		return send(connection, json.getBytes(StandardCharsets.UTF_8));
+	}
+
+	// 글쓰기 화면의 form과 같은 multipart 요청, file(PNG 이미지)을 files개 첨부한다. null이면 첨부파일 없이 보낸다.
+	public int postMultipart(String path, String title, String contents, byte[] file, int files) throws IOException {
+		String boundary = "----board" + UUID.randomUUID().toString().replace("-", "");
+		ByteArrayBody body = new ByteArrayBody();
+		body.field(boundary, "title", title);
+		body.field(boundary, "contents", contents);
+		if(file != null) {
+			for(int i = 0; i < files; i++) {
+				body.file(boundary, "files", "loadtest-" + i + ".png", file);
+			}
+		}
+		body.write("--" + boundary + "--" + CRLF);
+
+		HttpURLConnection connection = open("POST", path);
+		connection.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
+		return send(connection, body.toByteArray());
+	}
+
+	private HttpURLConnection open(String method, String path) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+		connection.setRequestMethod(method);
+		connection.setInstanceFollowRedirects(false);
+		connection.setConnectTimeout(10000);
+		connection.setReadTimeout(60000);
+		return connection;
+	}
+
+	private int send(HttpURLConnection connection, byte[] body) throws IOException {
+		if(body != null) {
+			connection.setDoOutput(true);
+			connection.setFixedLengthStreamingMode(body.length);
+			try (OutputStream out = connection.getOutputStream()) {
+				out.write(body);
+			}
+		}
+		int status = connection.getResponseCode();
+		InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+		if(in != null) {
+			try (InputStream response = in) {
+				byte[] buffer = new byte[8192];
+				while(response.read(buffer) > 0) {
+					// 버린다.
+				}
+			}
+		}
+		return status;
+	}
+
+	private static class ByteArrayBody extends java.io.ByteArrayOutputStream {
+		void write(String value) {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			write(bytes, 0, bytes.length);
+		}
+
+		void field(String boundary, String name, String value) {
+			write("--" + boundary + CRLF);
+			write("Content-Disposition: form-data; name=\"" + name + "\"" + CRLF + CRLF);
+			write(value + CRLF);
+		}
+
+		void file(String boundary, String name, String fileName, byte[] content) {
+			write("--" + boundary + CRLF);
+			write("Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + fileName + "\"" + CRLF);
+			write("Content-Type: image/png" + CRLF + CRLF);
+			write(content, 0, content.length);
+			write(CRLF);
+		}
+	}
+}
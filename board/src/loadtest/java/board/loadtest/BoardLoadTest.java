@@ -0,0 +1,277 @@
+package board.loadtest;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.imageio.ImageIO;
+import javax.sql.DataSource;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import board.BoardApplication;
+
+// 게시판 부하테스트. 애플리케이션을 내장 H2(MySQL 모드) 프로필로 실행하고 첨부파일이 있는 게시글을 등록한 후
+// 정한 비율(mix)로 목록/상세/글쓰기/업로드/다운로드 요청을 보내서 요청별 처리량과 응답시간(p50/p95/p99/p999)을 출력한다.
+// 기준값(loadtest-thresholds.properties)을 넘으면 종료코드 1로 끝나서 빌드가 실패한다.
+// ./gradlew loadTest (설정은 loadtest.properties 참고)
+public class BoardLoadTest {
+
+	private final LoadTestSettings settings;
+	private final ConfigurableApplicationContext context;
+	private final BoardClient client;
+	private final byte[] file;
+
+	// 요청 종류
+	private interface Request {
+		int send(ThreadLocalRandom random) throws IOException;
+	}
+
+	private static class Operation {
+		private final String name;
+		private final Request request;
+
+		Operation(String name, Request request) {
+			this.name = name;
+			this.request = request;
+		}
+	}
+
+	public BoardLoadTest(LoadTestSettings settings, ConfigurableApplicationContext context) throws IOException {
+		this.settings = settings;
+		this.context = context;
+		this.client = new BoardClient("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+		this.file = image(settings.getFileSize());
+	}
+
+	public static void main(String[] args) throws Exception {
+		LoadTestSettings settings = LoadTestSettings.load();
+		// 클라이언트마다 keep-alive 커넥션을 재사용한다.
+		System.setProperty("http.maxConnections", String.valueOf(Math.max(5, settings.getClients())));
+
+		Path attachments = Files.createTempDirectory("board-loadtest");
+		int exitCode;
+		try (ConfigurableApplicationContext context = start(settings, attachments)) {
+			exitCode = new BoardLoadTest(settings, context).run();
+		} finally {
+			FileSystemUtils.deleteRecursively(attachments);
+		}
+		System.exit(exitCode);
+	}
+
+	private static ConfigurableApplicationContext start(LoadTestSettings settings, Path attachments) {
+		List<String> args = new ArrayList<>();
+		args.add("--board.attachment.root=" + attachments);
+		for(String property : settings.getAppProperties()) {
+			args.add("--" + property);
+		}
+		return new SpringApplicationBuilder(BoardApplication.class)
+				.profiles("h2")
+				.properties("server.port=0", "logging.level.root=WARN", "spring.cloud.config.enabled=false")
+				.run(args.toArray(new String[args.size()]));
+	}
+
+	public int run() throws Exception {
+		long seedStart = System.nanoTime();
+		if(settings.getEndpoints().contains("board") || settings.getEndpoints().contains("api")) {
+			seed("/board/write");
+		}
+		if(settings.getEndpoints().contains("jpa")) {
+			seed("/jpa/board/write");
+		}
+		System.out.println(String.format("seeded %d posts x %d files in %d ms", settings.getPosts(), settings.getFilesPerPost(),
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart)));
+
+		List<Operation> operations = new ArrayList<>();
+		List<Integer> weights = new ArrayList<>();
+		for(String endpoint : settings.getEndpoints()) {
+			for(Map.Entry<String, Integer> entry : settings.getMix().entrySet()) {
+				Request request = request(endpoint, entry.getKey());
+				if(request != null && entry.getValue() > 0) {
+					operations.add(new Operation(endpoint + "." + entry.getKey(), request));
+					weights.add(entry.getValue());
+				}
+			}
+		}
+		if(operations.isEmpty()) {
+			throw new IllegalArgumentException("no requests for endpoints " + settings.getEndpoints() + " and mix " + settings.getMix());
+		}
+		System.out.println(String.format("clients %d, rate %s, warmup %ds, duration %ds, mix %s",
+				settings.getClients(), settings.getRate() > 0 ? settings.getRate() + "/s" : "unlimited",
+				settings.getWarmupSeconds(), settings.getDurationSeconds(), describe(operations, weights)));
+
+		LatencyReport report = drive(operations, weights);
+		Map<String, Map<String, Double>> summary = report.summarize(settings.getDurationSeconds());
+		report.print(summary, System.out);
+		if(settings.getReport() != null && settings.getReport().isEmpty() == false) {
+			report.write(summary, new File(settings.getReport()));
+		}
+
+		Properties thresholds = settings.loadThresholds();
+		List<String> violations = report.check(summary, thresholds);
+		for(String violation : violations) {
+			System.out.println("THRESHOLD EXCEEDED " + violation);
+		}
+		return violations.isEmpty() || settings.isFailOnThreshold() == false ? 0 : 1;
+	}
+
+	// 첨부파일이 있는 게시글을 등록한다.
+	private void seed(String path) throws IOException {
+		for(int i = 0; i < settings.getPosts(); i++) {
+			int status = client.postMultipart(path, "부하테스트 게시글 " + i, "부하테스트 게시글 내용입니다. " + i,
+					settings.getFilesPerPost() > 0 ? uniqueFile(ThreadLocalRandom.current()) : null, settings.getFilesPerPost());
+			if(status >= 400) {
+				throw new IllegalStateException("seed failed : " + path + " " + status);
+			}
+		}
+	}
+
+	// 요청을 만든다. 지원하지 않는 조합(api의 첨부파일 요청, 첨부파일이 없을때 다운로드)은 null
+	private Request request(String endpoint, String type) {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean("dataSource", DataSource.class));
+		boolean jpa = "jpa".equals(endpoint);
+		String base = jpa ? "/jpa/board" : "/board";
+		int[] posts = jpa
+				? ids(jdbcTemplate.queryForList("SELECT board_idx FROM t_jpa_board", Integer.class))
+				: ids(jdbcTemplate.queryForList("SELECT BOARD_IDX FROM T_BOARD WHERE DELETE_YN = 'N'", Integer.class));
+		List<int[]> files = jpa
+				? jdbcTemplate.query("SELECT idx, board_idx FROM t_jpa_file", (rs, row) -> new int[] {rs.getInt(1), rs.getInt(2)})
+				: jdbcTemplate.query("SELECT IDX, BOARD_IDX FROM T_FILE WHERE DELETED_YN = 'N'", (rs, row) -> new int[] {rs.getInt(1), rs.getInt(2)});
+
+		switch(type) {
+		case "list":
+			return random -> client.get("api".equals(endpoint) ? "/api/board?pageSize=20" : base);
+		case "detail":
+			return posts.length == 0 ? null
+					: random -> client.get(("api".equals(endpoint) ? "/api/board/" : base + "/") + posts[random.nextInt(posts.length)]);
+		case "write":
+			if("api".equals(endpoint)) {
+				return random -> client.postJson("/api/board/write",
+						"{\"title\":\"부하테스트 글쓰기\",\"contents\":\"부하테스트 글쓰기 내용 " + random.nextLong() + "\"}");
+			}
+			return random -> client.postMultipart(base + "/write", "부하테스트 글쓰기", "부하테스트 글쓰기 내용 " + random.nextLong(), null, 0);
+		case "upload":
+			return "api".equals(endpoint) ? null
+					: random -> client.postMultipart(base + "/write", "부하테스트 업로드", "부하테스트 업로드 내용", uniqueFile(random), 1);
+		case "download":
+			if("api".equals(endpoint) || files.isEmpty()) {
+				return null;
+			}
+			return random -> {
+				int[] boardFile = files.get(random.nextInt(files.size()));
+				return client.get(base + "/file?idx=" + boardFile[0] + "&boardIdx=" + boardFile[1]);
+			};
+		default:
+			throw new IllegalArgumentException("unknown request type : " + type);
+		}
+	}
+
+	// 클라이언트마다 스레드 하나로 요청을 보낸다. 준비(warmup) 시간 동안 보낸 요청은 기록하지 않는다.
+	private LatencyReport drive(List<Operation> operations, List<Integer> weights) throws Exception {
+		int[] cumulative = new int[weights.size()];
+		int sum = 0;
+		for(int i = 0; i < cumulative.length; i++) {
+			sum += weights.get(i);
+			cumulative[i] = sum;
+		}
+		int totalWeight = sum;
+
+		long start = System.nanoTime();
+		long measureStart = start + TimeUnit.SECONDS.toNanos(settings.getWarmupSeconds());
+		long end = measureStart + TimeUnit.SECONDS.toNanos(settings.getDurationSeconds());
+		// 초당 요청수를 정하면 클라이언트마다 일정한 간격으로 보낸다.
+		long interval = settings.getRate() > 0 ? TimeUnit.SECONDS.toNanos(settings.getClients()) / settings.getRate() : 0;
+
+		ExecutorService executor = Executors.newFixedThreadPool(settings.getClients());
+		List<Future<LatencyReport>> futures = new ArrayList<>();
+		for(int c = 0; c < settings.getClients(); c++) {
+			futures.add(executor.submit(() -> {
+				LatencyReport report = new LatencyReport();
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				long next = start + (interval > 0 ? random.nextLong(interval) : 0);
+				while(true) {
+					long intended = System.nanoTime();
+					if(interval > 0) {
+						intended = next;
+						next += interval;
+						LockSupport.parkNanos(intended - System.nanoTime());
+					}
+					if(intended >= end) {
+						break;
+					}
+					int pick = Arrays.binarySearch(cumulative, random.nextInt(totalWeight) + 1);
+					Operation operation = operations.get(pick >= 0 ? pick : -pick - 1);
+					boolean success;
+					try {
+						success = operation.request.send(random) < 400;
+					} catch (IOException e) {
+						success = false;
+					}
+					// 늦게 보낸 요청도 보냈어야 할 시각부터 잰다.
+					long elapsed = System.nanoTime() - intended;
+					if(intended >= measureStart) {
+						report.record(operation.name, elapsed, success);
+					}
+				}
+				return report;
+			}));
+		}
+
+		LatencyReport report = new LatencyReport();
+		for(Future<LatencyReport> future : futures) {
+			report.merge(future.get());
+		}
+		executor.shutdown();
+		return report;
+	}
+
+	// 이미지만 첨부할수 있으므로 압축되지 않는 임의의 점으로 크기가 size 정도인 PNG를 만든다.
+	private static byte[] image(int size) throws IOException {
+		int side = Math.max(1, (int) Math.sqrt(size / 3.0));
+		BufferedImage image = new BufferedImage(side, side, BufferedImage.TYPE_INT_RGB);
+		for(int y = 0; y < side; y++) {
+			for(int x = 0; x < side; x++) {
+				image.setRGB(x, y, ThreadLocalRandom.current().nextInt(0x1000000));
+			}
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		return out.toByteArray();
+	}
+
+	// 같은 내용의 파일은 저장소에 한번만 저장되므로 업로드할때마다 이미지 끝(IEND) 뒤에 임의의 값을 붙인다.
+	private byte[] uniqueFile(ThreadLocalRandom random) {
+		return ByteBuffer.allocate(file.length + Long.BYTES).put(file).putLong(random.nextLong()).array();
+	}
+
+	private static int[] ids(List<Integer> ids) {
+		return ids.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	private static String describe(List<Operation> operations, List<Integer> weights) {
+		StringBuilder description = new StringBuilder();
+		for(int i = 0; i < operations.size(); i++) {
+			description.append(i == 0 ? "" : ", ").append(operations.get(i).name).append('=').append(weights.get(i));
+		}
+		return description.toString();
+	}
+}
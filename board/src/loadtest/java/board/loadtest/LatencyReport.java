@@ -0,0 +1,105 @@
+package board.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+// 요청 이름(board.list 등)별 응답시간 분포. 클라이언트마다 따로 기록하고 끝난후에 merge로 합친다.
+// 응답시간은 마이크로초로 기록한다.
+public class LatencyReport {
+
+	private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+	private static final String[] PERCENTILES = {"p50", "p95", "p99", "p999"};
+	private static final double[] PERCENTILE_VALUES = {50.0, 95.0, 99.0, 99.9};
+
+	private final Map<String, Histogram> histograms = new TreeMap<>();
+	private final Map<String, Long> errors = new TreeMap<>();
+
+	public void record(String name, long nanos, boolean success) {
+		histograms.computeIfAbsent(name, key -> new Histogram(HIGHEST_MICROS, 3))
+				.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_MICROS));
+		if(success == false) {
+			errors.merge(name, 1L, Long::sum);
+		}
+	}
+
+	public void merge(LatencyReport other) {
+		other.histograms.forEach((name, histogram) ->
+				histograms.computeIfAbsent(name, key -> new Histogram(HIGHEST_MICROS, 3)).add(histogram));
+		other.errors.forEach((name, count) -> errors.merge(name, count, Long::sum));
+	}
+
+	// 이름별 throughput(요청/초), error-rate(%), p50 ~ p999(ms)
+	public Map<String, Map<String, Double>> summarize(double seconds) {
+		Map<String, Map<String, Double>> summary = new LinkedHashMap<>();
+		Histogram total = new Histogram(HIGHEST_MICROS, 3);
+		histograms.forEach((name, histogram) -> {
+			summary.put(name, summarize(histogram, errors.getOrDefault(name, 0L), seconds));
+			total.add(histogram);
+		});
+		long totalErrors = errors.values().stream().mapToLong(Long::longValue).sum();
+		summary.put("total", summarize(total, totalErrors, seconds));
+		return summary;
+	}
+
+	public void print(Map<String, Map<String, Double>> summary, PrintStream out) {
+		out.println(String.format("%-16s %10s %10s %9s %9s %9s %9s %9s %9s",
+				"name", "count", "req/s", "error%", "p50(ms)", "p95(ms)", "p99(ms)", "p999(ms)", "max(ms)"));
+		summary.forEach((name, values) -> out.println(String.format("%-16s %10.0f %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f",
+				name, values.get("count"), values.get("throughput"), values.get("error-rate"),
+				values.get("p50"), values.get("p95"), values.get("p99"), values.get("p999"), values.get("max"))));
+	}
+
+	public void write(Map<String, Map<String, Double>> summary, File file) throws IOException {
+		file.getAbsoluteFile().getParentFile().mkdirs();
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, summary);
+	}
+
+	// 기준을 넘은 항목을 반환한다.
+	public List<String> check(Map<String, Map<String, Double>> summary, Properties thresholds) {
+		List<String> violations = new ArrayList<>();
+		summary.forEach((name, values) -> {
+			if("total".equals(name)) {
+				return;
+			}
+			values.forEach((metric, value) -> {
+				String threshold = thresholds.getProperty(name + "." + metric, thresholds.getProperty("*." + metric));
+				if(threshold == null) {
+					return;
+				}
+				double limit = Double.parseDouble(threshold.trim());
+				boolean violated = "throughput".equals(metric) ? value < limit : value > limit;
+				if(violated) {
+					violations.add(String.format("%s.%s = %.2f (threshold %s)", name, metric, value, threshold.trim()));
+				}
+			});
+		});
+		return violations;
+	}
+
+	private Map<String, Double> summarize(Histogram histogram, long errorCount, double seconds) {
+		Map<String, Double> values = new LinkedHashMap<>();
+		long count = histogram.getTotalCount();
+		values.put("count", (double) count);
+		values.put("throughput", count / seconds);
+		values.put("error-rate", count == 0 ? 0.0 : errorCount * 100.0 / count);
+		for(int i = 0; i < PERCENTILES.length; i++) {
+			values.put(PERCENTILES[i], histogram.getValueAtPercentile(PERCENTILE_VALUES[i]) / 1000.0);
+		}
+		values.put("max", histogram.getMaxValue() / 1000.0);
+		return values;
+	}
+}
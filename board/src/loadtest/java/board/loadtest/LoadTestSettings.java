@@ -0,0 +1,100 @@
+package board.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import lombok.Getter;
+
+// 부하테스트 설정. loadtest.properties 를 기본값으로 하고 시스템 속성(-Dloadtest.xxx, gradle -Ploadtest.xxx)으로 바꿀수 있다.
+@Getter
+public class LoadTestSettings {
+
+	private static final String PREFIX = "loadtest.";
+	private static final String APP_PREFIX = PREFIX + "app.";
+
+	private final int warmupSeconds;
+	private final int durationSeconds;
+	private final int clients;
+	// 초당 요청수. 0이면 클라이언트마다 응답을 받자마자 다음 요청을 보낸다.
+	private final int rate;
+	private final int posts;
+	private final int filesPerPost;
+	private final int fileSize;
+	private final List<String> endpoints;
+	private final Map<String, Integer> mix;
+	private final String thresholds;
+	private final String report;
+	private final boolean failOnThreshold;
+	// loadtest.app.xxx=value 는 애플리케이션에 --xxx=value 로 넘긴다.
+	private final List<String> appProperties;
+
+	private LoadTestSettings(Properties properties) {
+		this.warmupSeconds = Integer.parseInt(properties.getProperty("warmup-seconds"));
+		this.durationSeconds = Integer.parseInt(properties.getProperty("duration-seconds"));
+		this.clients = Integer.parseInt(properties.getProperty("clients"));
+		this.rate = Integer.parseInt(properties.getProperty("rate"));
+		this.posts = Integer.parseInt(properties.getProperty("seed.posts"));
+		this.filesPerPost = Integer.parseInt(properties.getProperty("seed.files-per-post"));
+		this.fileSize = Integer.parseInt(properties.getProperty("file-size"));
+		this.endpoints = split(properties.getProperty("endpoints"));
+		this.mix = new LinkedHashMap<>();
+		for(String entry : split(properties.getProperty("mix"))) {
+			String[] pair = entry.split("=");
+			mix.put(pair[0].trim(), Integer.parseInt(pair[1].trim()));
+		}
+		this.thresholds = properties.getProperty("thresholds");
+		this.report = properties.getProperty("report");
+		this.failOnThreshold = Boolean.parseBoolean(properties.getProperty("fail-on-threshold"));
+		this.appProperties = new ArrayList<>();
+		for(String name : System.getProperties().stringPropertyNames()) {
+			if(name.startsWith(APP_PREFIX)) {
+				appProperties.add(name.substring(APP_PREFIX.length()) + "=" + System.getProperty(name));
+			}
+		}
+	}
+
+	public static LoadTestSettings load() throws IOException {
+		Properties properties = new Properties();
+		try (InputStream in = LoadTestSettings.class.getResourceAsStream("/loadtest.properties")) {
+			properties.load(in);
+		}
+		for(String name : System.getProperties().stringPropertyNames()) {
+			if(name.startsWith(PREFIX) && name.startsWith(APP_PREFIX) == false) {
+				properties.setProperty(name.substring(PREFIX.length()), System.getProperty(name));
+			}
+		}
+		return new LoadTestSettings(properties);
+	}
+
+	// 기준값 파일. 경로가 파일로 없으면 클래스패스에서 찾는다.
+	public Properties loadThresholds() throws IOException {
+		Properties properties = new Properties();
+		Path path = Paths.get(thresholds);
+		try (InputStream in = Files.isRegularFile(path) ? Files.newInputStream(path)
+				: LoadTestSettings.class.getResourceAsStream("/" + thresholds)) {
+			if(in == null) {
+				throw new IOException("thresholds not found : " + thresholds);
+			}
+			properties.load(in);
+		}
+		return properties;
+	}
+
+	private static List<String> split(String value) {
+		List<String> values = new ArrayList<>();
+		for(String token : value.split(",")) {
+			if(token.trim().isEmpty() == false) {
+				values.add(token.trim());
+			}
+		}
+		return values;
+	}
+}
@@ -7,6 +7,7 @@ import org.springframework.boot.autoconfigure.web.servlet.MultipartAutoConfigura
 import org.springframework.data.convert.Jsr310Converters;
 import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
 // java8 날짜관련 클래스를 그대로 사용하기 위한 설정 
@@ -15,6 +16,7 @@ import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 		basePackageClasses = {Jsr310JpaConverters.class},
 		basePackages = {"board"}
 		)
+@EnableScheduling // 조회수 반영등 주기적인 작업을 실행한다.
 @SpringBootApplication(exclude = {MultipartAutoConfiguration.class}) // 부트 자동설정을 제외시킨다.
 public class BoardApplication {
 
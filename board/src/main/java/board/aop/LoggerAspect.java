@@ -1,32 +0,0 @@
-package board.aop;
-
-import org.springframework.stereotype.Component;
-
-import lombok.extern.slf4j.Slf4j;
-
-import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.annotation.Around;
-import org.aspectj.lang.annotation.Aspect;
-
-@Component
-@Aspect
-@Slf4j
-public class LoggerAspect {
-	
-	
-	@Around("execution(* board..controller.*Controller.*(..)) or execution(* board..service.*Impl.*(..)) or execution(* board..mapper.*Mapper.*(..))")
-	public Object logPrint(ProceedingJoinPoint joinPoint) throws Throwable {
-		String type = "";
-		String name = joinPoint.getSignature().getDeclaringTypeName();
-		if(name.indexOf("Controller") > 1) {
-			type = "Controller \t: ";
-		} else if(name.indexOf("Impl") > 1) {
-			type = "Service \t: ";
-		} else if(name.indexOf("Mapper") > 1) {
-			type = "Mapper \t: ";
-		}
-		
-		log.debug(type+name+","+joinPoint.getSignature().getName()+ "()");
-		return joinPoint.proceed();
-	}
-}
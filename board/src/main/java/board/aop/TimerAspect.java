@@ -0,0 +1,100 @@
+package board.aop;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+// Controller -> Service -> Mapper 호출 시간을 메서드별 Timer(board.method)로 기록한다.
+// Timer는 메서드마다 한번만 만들어서 재사용하므로 호출할때마다 문자열을 만들지 않는다.
+@Component
+@Aspect
+@Slf4j
+public class TimerAspect {
+	
+	private static final String TIMER_NAME = "board.method";
+	
+	@Autowired
+	private MeterRegistry meterRegistry;
+	
+	// 기록할 호출의 비율(0.0 ~ 1.0), 1.0이면 모든 호출을 기록한다.
+	@Value("${board.metrics.sample-rate:1.0}")
+	private double sampleRate;
+	
+	private final Map<Method, MethodTimer> timers = new ConcurrentHashMap<>();
+	
+	@Around("execution(* board..controller.*Controller.*(..)) or execution(* board..service.*Impl.*(..)) or execution(* board..mapper.*Mapper.*(..))")
+	public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+		if(sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+			return joinPoint.proceed();
+		}
+		
+		MethodTimer timer = timers.computeIfAbsent(((MethodSignature) joinPoint.getSignature()).getMethod(), this::createTimer);
+		if(log.isDebugEnabled()) {
+			log.debug("{} \t: {}.{}()", timer.layer, timer.className, timer.methodName);
+		}
+		
+		long start = System.nanoTime();
+		try {
+			Object result = joinPoint.proceed();
+			timer.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			return result;
+		} catch(Throwable e) {
+			// 예외는 드물기 때문에 그때그때 예외 이름으로 Timer를 찾는다.
+			timer.builder(e.getClass().getSimpleName()).register(meterRegistry)
+				.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			throw e;
+		}
+	}
+	
+	private MethodTimer createTimer(Method method) {
+		String className = method.getDeclaringClass().getSimpleName();
+		String layer = "";
+		if(className.endsWith("Controller")) {
+			layer = "Controller";
+		} else if(className.endsWith("Impl")) {
+			layer = "Service";
+		} else if(className.endsWith("Mapper")) {
+			layer = "Mapper";
+		}
+		
+		return new MethodTimer(layer, className, method.getName(), meterRegistry);
+	}
+	
+	private static class MethodTimer {
+		
+		private final String layer;
+		private final String className;
+		private final String methodName;
+		private final Timer success;
+		
+		MethodTimer(String layer, String className, String methodName, MeterRegistry meterRegistry) {
+			this.layer = layer;
+			this.className = className;
+			this.methodName = methodName;
+			this.success = builder("none").register(meterRegistry);
+		}
+		
+		Timer.Builder builder(String exception) {
+			return Timer.builder(TIMER_NAME)
+					.tag("layer", layer)
+					.tag("class", className)
+					.tag("method", methodName)
+					.tag("exception", exception)
+					.publishPercentileHistogram();
+		}
+	}
+}
@@ -1,8 +1,8 @@
 package board.aop;
 
 import java.util.Collections;
-
-import javax.transaction.TransactionManager;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.springframework.aop.Advisor;
 import org.springframework.aop.aspectj.AspectJExpressionPointcut;
@@ -10,10 +10,12 @@ import org.springframework.aop.support.DefaultPointcutAdvisor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.transaction.PlatformTransactionManager;
-import org.springframework.transaction.interceptor.MatchAlwaysTransactionAttributeSource;
+import org.springframework.transaction.interceptor.NameMatchTransactionAttributeSource;
 import org.springframework.transaction.interceptor.RollbackRuleAttribute;
 import org.springframework.transaction.interceptor.RuleBasedTransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttribute;
 import org.springframework.transaction.interceptor.TransactionInterceptor;
 
 @Configuration
@@ -21,7 +23,14 @@ public class TransactionAspect {
 	
 	// 트랜잭션에 사용되는 설정값 
 	private static final String AOP_TRANSACTION_METHOD_NAME = "*";
-	private static final String AOP_TRANSACTION_EXPRESSION = "execution(* board..service.*Impl.*(..))";
+	// 읽기 전용 트랜잭션으로 실행할 메서드 (전체 게시글 내보내기 포함)
+	private static final String[] AOP_READ_ONLY_METHOD_NAMES = {"select*", "export*"};
+	// 메서드에 @Transactional이 있으면 그 설정을 따른다. (첨부파일을 트랜잭션 밖에서 저장하는 insertBoard 등)
+	private static final String AOP_TRANSACTION_EXPRESSION = "execution(* board..service.*Impl.*(..)) && !@annotation(javax.transaction.Transactional)";
+	// 같은 순서(LOWEST_PRECEDENCE)의 어드바이스끼리는 감싸는 순서가 정해지지 않으므로 그보다 앞에(바깥에) 둔다.
+	// TimerAspect보다 바깥에서 트랜잭션을 시작하므로 서비스 실행시간(board.method)에 커밋 시간이 들어가지 않는다.
+	// 서비스 클래스에 @Transactional을 붙이더라도 이 설정이 먼저 트랜잭션을 시작해서 읽기 전용이 적용된다.
+	private static final int AOP_TRANSACTION_ORDER = Ordered.LOWEST_PRECEDENCE - 1;
 	
 	@Autowired
 	private PlatformTransactionManager transactionManager;
@@ -29,14 +38,23 @@ public class TransactionAspect {
 	
 	@Bean
 	public TransactionInterceptor transactionAdvice() {
-		MatchAlwaysTransactionAttributeSource source = new MatchAlwaysTransactionAttributeSource();
+		NameMatchTransactionAttributeSource source = new NameMatchTransactionAttributeSource();
 		RuleBasedTransactionAttribute transactionAttribute = new RuleBasedTransactionAttribute();
 		// 트랜잭션 모니터에서 트랜잭션의 이름을 확인할수 있다.
 		transactionAttribute.setName(AOP_TRANSACTION_METHOD_NAME); 
 		// 롤백 룰설정(Exception을 하면 모든 예외시 발생한다.
 		transactionAttribute.setRollbackRules(Collections.singletonList(new RollbackRuleAttribute(Exception.class)));
 		
-		source.setTransactionAttribute(transactionAttribute);
+		// 조회만 하는 메서드는 읽기 전용 트랜잭션으로 실행한다. ReplicaRoutingDataSource가 복제 DB로 보낸다.
+		RuleBasedTransactionAttribute readOnlyAttribute = new RuleBasedTransactionAttribute(transactionAttribute);
+		readOnlyAttribute.setReadOnly(true);
+		
+		Map<String, TransactionAttribute> nameMap = new HashMap<>();
+		for(String methodName : AOP_READ_ONLY_METHOD_NAMES) {
+			nameMap.put(methodName, readOnlyAttribute);
+		}
+		nameMap.put(AOP_TRANSACTION_METHOD_NAME, transactionAttribute);
+		source.setNameMap(nameMap);
 		
 		return new TransactionInterceptor(transactionManager, source); 
 	}
@@ -46,6 +64,8 @@ public class TransactionAspect {
 		// AOP 포인트것을 설정
 		AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
 		pointcut.setExpression(AOP_TRANSACTION_EXPRESSION);	
-		return new DefaultPointcutAdvisor(pointcut, transactionAdvice());
+		DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, transactionAdvice());
+		advisor.setOrder(AOP_TRANSACTION_ORDER);
+		return advisor;
 	}
 }
@@ -0,0 +1,25 @@
+package board.common;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// 첨부파일 저장소. 파일은 내용의 해시값을 키로 저장하고 같은 내용은 한번만 저장한다.
+// T_FILE.STORED_FILE_PATH 와 BoardFileEntity.storedFilePath 에는 put이 반환한 키를 저장한다.
+public interface AttachmentStore {
+	
+	// 업로드 중인 파일을 쓸 임시파일을 만든다. 다 쓴후에 put으로 저장소에 넣는다.
+	Path newStagingFile() throws IOException;
+	
+	// 임시파일을 저장소로 옮기고 키를 반환한다. 
+	// 같은 내용의 파일이 이미 있으면 임시파일은 지우고 참조수만 늘린다. checksum이 null이면 직접 계산한다.
+	String put(Path stagingFile, String checksum, String extension) throws IOException;
+	
+	// 키에 해당하는 파일의 위치
+	Path resolve(String key);
+	
+	// 원본에서 만든 파일(썸네일 등)의 위치. 원본이 삭제되면 함께 삭제된다.
+	Path resolveDerivative(String key, String name);
+	
+	// 참조수를 줄이고 더 이상 참조하는 게시글이 없으면 파일을 삭제한다.
+	void release(String key) throws IOException;
+}
@@ -0,0 +1,144 @@
+package board.common;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import board.dto.BoardDto;
+import board.dto.BoardFileDto;
+
+// 게시글 내보내기 형식. 받은 게시글을 바로 출력 스트림에 쓰고 모아두지 않는다.
+// 버퍼가 찰때만 응답으로 내보내고 close에서 남은 내용을 보낸다.
+public abstract class BoardExportWriter implements Closeable {
+	
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	public abstract void write(BoardDto board) throws IOException;
+	
+	// 형식 이름(ndjson, csv)에 맞는 Content-Type
+	public static String contentType(String format) {
+		if("ndjson".equalsIgnoreCase(format)) {
+			return "application/x-ndjson; charset=UTF-8";
+		} else if("csv".equalsIgnoreCase(format)) {
+			return "text/csv; charset=UTF-8";
+		}
+		return null;
+	}
+	
+	public static BoardExportWriter of(String format, OutputStream out, ObjectMapper objectMapper, boolean withFiles) throws IOException {
+		if("csv".equalsIgnoreCase(format)) {
+			return new CsvWriter(out, withFiles);
+		}
+		return new NdjsonWriter(out, objectMapper);
+	}
+	
+	// 한줄에 게시글 하나씩 JSON으로 쓴다. 값이 없는 항목은 쓰지 않는다.
+	private static class NdjsonWriter extends BoardExportWriter {
+		
+		private final SequenceWriter writer;
+		
+		NdjsonWriter(OutputStream out, ObjectMapper objectMapper) throws IOException {
+			// 게시글마다 응답을 flush하지 않는다.
+			writer = objectMapper.copy()
+					.setSerializationInclusion(JsonInclude.Include.NON_NULL)
+					.writer()
+					.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+					.withRootValueSeparator("\n")
+					.writeValues(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE));
+		}
+		
+		@Override
+		public void write(BoardDto board) throws IOException {
+			writer.write(board);
+		}
+		
+		@Override
+		public void close() throws IOException {
+			writer.close();
+		}
+	}
+	
+	// 엑셀에서 한글이 깨지지 않도록 BOM을 먼저 쓴다.
+	// 첨부파일은 파일 수, 파일 이름(|로 구분), 전체 크기(byte) 컬럼으로 쓴다.
+	private static class CsvWriter extends BoardExportWriter {
+		
+		private final Writer writer;
+		private final boolean withFiles;
+		
+		CsvWriter(OutputStream out, boolean withFiles) throws IOException {
+			this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+			this.withFiles = withFiles;
+			writer.write('\uFEFF');
+			writer.write("board_idx,title,contents,hit_cnt,creator_id,created_datetime,updater_id,updated_datetime");
+			if(withFiles) {
+				writer.write(",file_count,file_names,file_size");
+			}
+			writer.write("\r\n");
+		}
+		
+		@Override
+		public void write(BoardDto board) throws IOException {
+			writer.write(String.valueOf(board.getBoardIdx()));
+			writeField(board.getTitle());
+			writeField(board.getContents());
+			writer.write(',');
+			writer.write(String.valueOf(board.getHitCnt()));
+			writeField(board.getCreatorId());
+			writeField(board.getCreatedDatetime());
+			writeField(board.getUpdaterId());
+			writeField(board.getUpdatedDatetime());
+			if(withFiles) {
+				List<BoardFileDto> fileList = board.getFileList();
+				StringBuilder names = new StringBuilder();
+				long size = 0;
+				for(BoardFileDto file : fileList) {
+					if(names.length() > 0) {
+						names.append('|');
+					}
+					names.append(file.getOriginalFileName());
+					size += file.getFileSize();
+				}
+				writer.write(',');
+				writer.write(String.valueOf(fileList.size()));
+				writeField(names.toString());
+				writer.write(',');
+				writer.write(String.valueOf(size));
+			}
+			writer.write("\r\n");
+		}
+		
+		// 쉼표, 따옴표, 줄바꿈이 있으면 따옴표로 감싸고 따옴표는 두번 쓴다.
+		// 엑셀이 수식으로 실행하지 않도록 =, +, -, @, 탭, CR로 시작하는 값은 앞에 '를 붙인다.
+		private void writeField(String value) throws IOException {
+			writer.write(',');
+			if(value == null) {
+				return;
+			}
+			if(value.isEmpty() == false && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+				value = "'" + value;
+			}
+			if(value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+				writer.write(value);
+				return;
+			}
+			writer.write('"');
+			writer.write(value.replace("\"", "\"\""));
+			writer.write('"');
+		}
+		
+		@Override
+		public void close() throws IOException {
+			writer.close();
+		}
+	}
+}
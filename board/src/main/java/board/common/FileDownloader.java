@@ -0,0 +1,191 @@
+package board.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 첨부파일 다운로드. 파일을 메모리에 올리지 않고 스트리밍으로 전송한다.
+// Range(206) 요청으로 이어받기를 지원하고 ETag/Last-Modified가 같으면 304로 응답한다.
+// 이미지 첨부파일은 썸네일로도 보낼수 있다.
+@Component
+@Slf4j
+public class FileDownloader {
+	
+	@Autowired
+	private AttachmentStore attachmentStore;
+	
+	@Autowired
+	private ThumbnailGenerator thumbnailGenerator;
+	
+	// 톰캣 NIO 커넥터가 지원하면 sendfile로 커널에서 바로 소켓으로 전송한다.
+	private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+	
+	private static final String THUMBNAIL_CACHE_CONTROL = "public, max-age=31536000, immutable";
+	
+	public void download(HttpServletRequest request, HttpServletResponse response, 
+			String storedFilePath, String originalFileName) throws Exception {
+		
+		File file = attachmentStore.resolve(storedFilePath).toFile();
+		if(file.isFile() == false) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		
+		response.setHeader("Content-Disposition","attachment; fileName=\""+URLEncoder.encode(originalFileName,"UTF-8")+"\";");
+		response.setHeader("Content-Transfer-Encoding", "binary");
+		send(request, response, file, "application/octet-stream");
+	}
+	
+	// 썸네일은 원본의 해시로 만들어서 내용이 바뀌지 않으므로 브라우저가 오래 캐시하게 한다.
+	// 아직 만들어지지 않았으면 원본 이미지를 캐시하지 않게 보내고 썸네일 생성을 요청한다.
+	// 썸네일을 만들수 없는 이미지는 원본이 썸네일을 대신하므로 원본을 썸네일처럼 오래 캐시하게 한다.
+	public void thumbnail(HttpServletRequest request, HttpServletResponse response, String storedFilePath) throws Exception {
+		Path thumbnail = thumbnailGenerator.thumbnail(storedFilePath);
+		if(thumbnail != null) {
+			response.setHeader(HttpHeaders.CACHE_CONTROL, THUMBNAIL_CACHE_CONTROL);
+			send(request, response, thumbnail.toFile(), "image/jpeg");
+			return;
+		}
+		
+		File file = attachmentStore.resolve(storedFilePath).toFile();
+		if(file.isFile() == false) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		response.setHeader(HttpHeaders.CACHE_CONTROL, 
+				thumbnailGenerator.isUnavailable(storedFilePath) ? THUMBNAIL_CACHE_CONTROL : "no-cache");
+		send(request, response, file, toImageContentType(storedFilePath));
+	}
+	
+	private void send(HttpServletRequest request, HttpServletResponse response, File file, String contentType) throws Exception {
+		long length = file.length();
+		long lastModified = file.lastModified();
+		// 파일 내용을 읽지 않고 크기와 수정시간으로 ETag를 만든다.
+		String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+		
+		// If-None-Match, If-Modified-Since를 확인하고 변경이 없으면 304를 설정한다.
+		if(new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+			return;
+		}
+		
+		response.setContentType(contentType);
+		response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+		
+		long start = 0;
+		long end = length - 1;
+		String range = request.getHeader(HttpHeaders.RANGE);
+		// If-Range가 현재 ETag와 다르면 파일이 바뀐것이므로 전체를 다시 보낸다.
+		String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+		if(StringUtils.hasText(range) && (ifRange == null || ifRange.equals(etag))) {
+			long[] bytes = parseRange(range, length);
+			if(bytes == null) {
+				response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+				response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+				return;
+			}
+			if(bytes.length == 2) {
+				start = bytes[0];
+				end = bytes[1];
+				response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+				response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+			}
+		}
+		
+		long count = end - start + 1;
+		response.setContentLengthLong(count);
+		if("HEAD".equals(request.getMethod()) || count == 0) {
+			return;
+		}
+		
+		if(Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+			request.setAttribute(SENDFILE_FILENAME_ATTR, file.getCanonicalPath());
+			request.setAttribute(SENDFILE_START_ATTR, start);
+			request.setAttribute(SENDFILE_END_ATTR, end + 1);
+			return;
+		}
+		
+		transfer(file, start, count, response);
+	}
+	
+	private String toImageContentType(String storedFilePath) {
+		String path = storedFilePath.toLowerCase();
+		if(path.endsWith(".png")) {
+			return "image/png";
+		} else if(path.endsWith(".gif")) {
+			return "image/gif";
+		}
+		return "image/jpeg";
+	}
+	
+	private void transfer(File file, long start, long count, HttpServletResponse response) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+			long position = start;
+			long remaining = count;
+			while(remaining > 0) {
+				long written = channel.transferTo(position, remaining, out);
+				if(written <= 0) {
+					break;
+				}
+				position += written;
+				remaining -= written;
+			}
+		}
+		response.flushBuffer();
+	}
+	
+	// 단일 범위만 지원한다. 
+	// 반환값 : 범위를 만족할수 없으면 null, 여러 범위나 잘못된 형식이면 전체 전송(빈 배열), 그 외에는 {start, end}
+	static long[] parseRange(String range, long length) {
+		if(range.startsWith("bytes=") == false || range.indexOf(',') > 0) {
+			return new long[0];
+		}
+		String spec = range.substring("bytes=".length()).trim();
+		int dash = spec.indexOf('-');
+		if(dash < 0) {
+			return new long[0];
+		}
+		
+		try {
+			long start, end;
+			if(dash == 0) {
+				// bytes=-500 : 마지막 500바이트
+				long suffix = Long.parseLong(spec.substring(1));
+				if(suffix <= 0) {
+					return null;
+				}
+				start = Math.max(0, length - suffix);
+				end = length - 1;
+			} else {
+				start = Long.parseLong(spec.substring(0, dash));
+				end = dash == spec.length() - 1 ? length - 1 : Math.min(Long.parseLong(spec.substring(dash + 1)), length - 1);
+			}
+			if(start >= length || start > end) {
+				return null;
+			}
+			return new long[] {start, end};
+		} catch (NumberFormatException e) {
+			log.debug("invalid range header : {}", range);
+			return new long[0];
+		}
+	}
+}
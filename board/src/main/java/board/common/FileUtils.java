@@ -1,12 +1,24 @@
 package board.common;
 
-import java.io.File;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
 import org.springframework.web.multipart.MultipartFile;
@@ -14,128 +26,175 @@ import org.springframework.web.multipart.MultipartHttpServletRequest;
 
 import board.dto.BoardFileDto;
 import board.entity.BoardFileEntity;
+import lombok.extern.slf4j.Slf4j;
 
 @Component
+@Slf4j
 public class FileUtils {
 	
-	public List<BoardFileDto> parseFileInfo(int boardIdx, 
-			MultipartHttpServletRequest multipartHttpServletRequest) throws Exception {
+	@Autowired
+	private AttachmentStore attachmentStore;
+	
+	// 파일을 저장하는 스레드 수와 대기 큐 크기
+	// 큐가 가득 차면 요청 스레드에서 직접 저장해서 더 받지 않도록 한다.
+	@Value("${board.upload.staging.pool-size:4}")
+	private int stagingPoolSize;
+	
+	@Value("${board.upload.staging.queue-capacity:100}")
+	private int stagingQueueCapacity;
+	
+	private ThreadPoolExecutor stagingExecutor;
+	
+	@PostConstruct
+	public void init() {
+		stagingExecutor = new ThreadPoolExecutor(stagingPoolSize, stagingPoolSize, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(stagingQueueCapacity), new CustomizableThreadFactory("attachment-staging-"),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+	
+	@PreDestroy
+	public void destroy() {
+		stagingExecutor.shutdown();
+	}
+	
+	// 업로드된 파일을 저장소에 저장한다. DB 커넥션을 잡지 않도록 트랜잭션 밖에서 호출해야 한다.
+	// 하나라도 실패하면 이미 저장한 파일을 반납하고 예외를 던진다.
+	public List<StagedFile> stageFiles(MultipartHttpServletRequest multipartHttpServletRequest) throws Exception {
 		
 		if(ObjectUtils.isEmpty(multipartHttpServletRequest)) {
-			return null;
+			return Collections.emptyList();
 		}
 		
-		List<BoardFileDto> fileList = new ArrayList<>();
-		
-		// 파일 저장 경로 설정 
-		DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyyMMdd");
-		ZonedDateTime current = ZonedDateTime.now(); // 오늘날짜를 가져옵니다. 
-		String path = "images/"+current.format(format);
-		File file = new File(path);
-		if(file.exists() == false) {
-			file.mkdirs();
-		}
+		List<MultipartFile> files = new ArrayList<>();
+		List<Future<String>> futures = new ArrayList<>();
+		List<Integer> groups = new ArrayList<>();
 		
 		Iterator<String> iterator = multipartHttpServletRequest.getFileNames();
-		String newFileName, originalFileExtension, contentType;
+		int group = 0;
 		while(iterator.hasNext()) {
 			List<MultipartFile> list = multipartHttpServletRequest.getFiles(iterator.next());
 			for(MultipartFile multipartFile : list) {
 				if(multipartFile.isEmpty() == false) {
-					// 파일 확장자 체크는 contentType으로 해야한다. 파일명에서 가져오면 위변조 할수 있기때문이다.
-					contentType = multipartFile.getContentType();
-					if(ObjectUtils.isEmpty(contentType)) {
-						break;
-					} else {
-						if(contentType.contains("image/jpeg")) {
-							originalFileExtension = ".jpg";
-						}else if(contentType.contains("image/png")) {
-							originalFileExtension = ".png";
-						}else if(contentType.contains("image/gif")) {
-							originalFileExtension = ".gif";
-						}else {
-							break;
-						}
-					}
-					
-					// 파일이름은 중복되지 않게 나노타임을 사용했다.
-					newFileName = Long.toString(System.nanoTime()) + originalFileExtension;
-					BoardFileDto boardFile = new BoardFileDto();
-					boardFile.setBoardIdx(boardIdx);
-					boardFile.setFileSize(multipartFile.getSize());
-					boardFile.setOriginalFileName(multipartFile.getOriginalFilename());
-					boardFile.setStoredFilePath(path + "/" + newFileName);
-					fileList.add(boardFile);
-					
-					// 새로운 이름을 변경된 파일을 저장한다.
-					file = new File(path + "/" + newFileName);
-					multipartFile.transferTo(file);
+					files.add(multipartFile);
+					futures.add(stagingExecutor.submit(() -> storeFile(multipartFile)));
+					groups.add(group);
 				}
 			}
-			
+			group++;
 		}
 		
+		// 모든 파일의 저장이 끝날때까지 기다린후 결과를 순서대로 모은다.
+		List<StagedFile> stagedFiles = new ArrayList<>();
+		List<String> skipped = new ArrayList<>();
+		Throwable failure = null;
+		int stoppedGroup = -1;
+		for(int i = 0; i < futures.size(); i++) {
+			String storedFilePath;
+			try {
+				storedFilePath = futures.get(i).get();
+			} catch (ExecutionException e) {
+				failure = e.getCause();
+				continue;
+			}
+			
+			// 허용하지 않는 파일이 있으면 같은 이름으로 올라온 나머지 파일은 등록하지 않는다.
+			if(storedFilePath == null) {
+				stoppedGroup = groups.get(i);
+			} else if(stoppedGroup == groups.get(i)) {
+				skipped.add(storedFilePath);
+			} else {
+				MultipartFile multipartFile = files.get(i);
+				stagedFiles.add(new StagedFile(storedFilePath, multipartFile.getOriginalFilename(), multipartFile.getSize()));
+			}
+		}
+		releaseKeys(skipped);
 		
-		return fileList;
+		if(failure != null) {
+			releaseFiles(stagedFiles);
+			if(failure instanceof Exception) {
+				throw (Exception) failure;
+			}
+			throw (Error) failure;
+		}
+		return stagedFiles;
 	}
 	
-	public List<BoardFileEntity> parseFileInfo(MultipartHttpServletRequest multipartHttpServletRequest) throws Exception {
-		
-		if(ObjectUtils.isEmpty(multipartHttpServletRequest)) {
-			return null;
+	// 게시글을 등록하지 못했을때 저장한 파일의 참조를 반납한다.
+	public void releaseFiles(List<StagedFile> stagedFiles) {
+		List<String> keys = new ArrayList<>();
+		for(StagedFile stagedFile : stagedFiles) {
+			keys.add(stagedFile.getStoredFilePath());
 		}
-		
+		releaseKeys(keys);
+	}
+	
+	public List<BoardFileDto> toBoardFileList(int boardIdx, List<StagedFile> stagedFiles) {
+		List<BoardFileDto> fileList = new ArrayList<>();
+		for(StagedFile stagedFile : stagedFiles) {
+			BoardFileDto boardFile = new BoardFileDto();
+			boardFile.setBoardIdx(boardIdx);
+			boardFile.setFileSize(stagedFile.getFileSize());
+			boardFile.setOriginalFileName(stagedFile.getOriginalFileName());
+			boardFile.setStoredFilePath(stagedFile.getStoredFilePath());
+			fileList.add(boardFile);
+		}
+		return fileList;
+	}
+	
+	public List<BoardFileEntity> toBoardFileEntityList(List<StagedFile> stagedFiles) {
 		List<BoardFileEntity> fileList = new ArrayList<>();
-		
-		// 파일 저장 경로 설정 
-		DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyyMMdd");
-		ZonedDateTime current = ZonedDateTime.now(); // 오늘날짜를 가져옵니다. 
-		String path = "images/"+current.format(format);
-		File file = new File(path);
-		if(file.exists() == false) {
-			file.mkdirs();
+		for(StagedFile stagedFile : stagedFiles) {
+			BoardFileEntity boardFile = new BoardFileEntity();
+			boardFile.setFileSize(stagedFile.getFileSize());
+			boardFile.setOriginalFileName(stagedFile.getOriginalFileName());
+			boardFile.setStoredFilePath(stagedFile.getStoredFilePath());
+			boardFile.setCreatorId("admin");
+			fileList.add(boardFile);
 		}
-		
-		Iterator<String> iterator = multipartHttpServletRequest.getFileNames();
-		String newFileName, originalFileExtension, contentType;
-		while(iterator.hasNext()) {
-			List<MultipartFile> list = multipartHttpServletRequest.getFiles(iterator.next());
-			for(MultipartFile multipartFile : list) {
-				if(multipartFile.isEmpty() == false) {
-					// 파일 확장자 체크는 contentType으로 해야한다. 파일명에서 가져오면 위변조 할수 있기때문이다.
-					contentType = multipartFile.getContentType();
-					if(ObjectUtils.isEmpty(contentType)) {
-						break;
-					} else {
-						if(contentType.contains("image/jpeg")) {
-							originalFileExtension = ".jpg";
-						}else if(contentType.contains("image/png")) {
-							originalFileExtension = ".png";
-						}else if(contentType.contains("image/gif")) {
-							originalFileExtension = ".gif";
-						}else {
-							break;
-						}
-					}
-					
-					// 파일이름은 중복되지 않게 나노타임을 사용했다.
-					newFileName = Long.toString(System.nanoTime()) + originalFileExtension;
-					BoardFileEntity boardFile = new BoardFileEntity();
-					boardFile.setFileSize(multipartFile.getSize());
-					boardFile.setOriginalFileName(multipartFile.getOriginalFilename());
-					boardFile.setStoredFilePath(path + "/" + newFileName);
-					boardFile.setCreatorId("admin");
-					fileList.add(boardFile);
-					
-					// 새로운 이름을 변경된 파일을 저장한다.
-					file = new File(path + "/" + newFileName);
-					multipartFile.transferTo(file);
-				}
+		return fileList;
+	}
+	
+	private void releaseKeys(List<String> keys) {
+		for(String key : keys) {
+			try {
+				attachmentStore.release(key);
+			} catch (IOException e) {
+				log.warn("failed to release attachment : {}", key, e);
 			}
-			
+		}
+	}
+	
+	// 파일을 저장소에 저장하고 키를 반환한다. 허용하지 않는 파일이면 null을 반환한다.
+	private String storeFile(MultipartFile multipartFile) throws Exception {
+		// StreamingMultipartResolver가 요청을 읽으면서 이미 임시파일에 저장하고 체크섬을 계산한 파일이다.
+		if(multipartFile instanceof StoredMultipartFile) {
+			StoredMultipartFile storedFile = (StoredMultipartFile) multipartFile;
+			String key = attachmentStore.put(Paths.get(storedFile.getStagingFile()), 
+					storedFile.getChecksum(), toExtension(storedFile.getContentType()));
+			storedFile.claim();
+			return key;
 		}
 		
+		// 파일 확장자 체크는 contentType으로 해야한다. 파일명에서 가져오면 위변조 할수 있기때문이다.
+		String contentType = multipartFile.getContentType();
+		if(ObjectUtils.isEmpty(contentType) || toExtension(contentType) == null) {
+			return null;
+		}
 		
-		return fileList;
+		// 같은 내용의 파일은 한번만 저장되도록 저장소에 넣는다.
+		Path stagingFile = attachmentStore.newStagingFile();
+		multipartFile.transferTo(stagingFile.toFile());
+		return attachmentStore.put(stagingFile, null, toExtension(contentType));
+	}
+	
+	private String toExtension(String contentType) {
+		if(contentType.contains("image/jpeg")) {
+			return ".jpg";
+		}else if(contentType.contains("image/png")) {
+			return ".png";
+		}else if(contentType.contains("image/gif")) {
+			return ".gif";
+		}
+		return null;
 	}
 }
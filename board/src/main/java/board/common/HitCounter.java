@@ -0,0 +1,127 @@
+package board.common;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntSupplier;
+
+// 조회수를 메모리에 모아두었다가 주기적으로 한번에 DB에 반영한다.
+// 게시글마다 LongAdder를 사용하기 때문에 같은 글을 동시에 조회해도 락 경합이 없다.
+// 화면의 조회수는 DB(캐시)의 조회수 + pending이므로 flush로 DB에 더한 만큼 pending이 빠지는 순간을 함께 읽어야 줄어들지 않는다.
+// flush는 쓰기 락에서, 캐시에 넣을 게시글을 DB에서 읽을때는 읽기 락에서 실행하고 조회는 낙관적 읽기로 두 값을 함께 읽는다.
+public class HitCounter {
+	
+	@FunctionalInterface
+	public interface Writer {
+		// 게시글 번호별로 아직 반영되지 않은 조회수를 저장한다.
+		void write(Map<Integer, Long> deltas) throws Exception;
+	}
+	
+	private static class Cell {
+		private final LongAdder hits = new LongAdder();
+		// DB에 반영된 조회수, flush에서만 변경한다.
+		private volatile long flushed;
+		
+		private long pending() {
+			return hits.sum() - flushed;
+		}
+	}
+	
+	private final ConcurrentHashMap<Integer, Cell> cells = new ConcurrentHashMap<>();
+	
+	// 맵에서 제거된 Cell, 제거 직전에 들어온 조회수를 다음 flush에서 반영하고 버린다.
+	private Map<Integer, Cell> retired = new HashMap<>();
+	
+	private final StampedLock lock = new StampedLock();
+	
+	public void increment(int boardIdx) {
+		cells.computeIfAbsent(boardIdx, key -> new Cell()).hits.increment();
+	}
+	
+	// 조회수를 더하고 화면에 보여줄 조회수(flushedCount + pending)를 돌려준다.
+	// flushedCount는 DB에 반영된 조회수(캐시된 게시글의 조회수)이고 flush와 겹치면 읽기 락에서 다시 읽는다.
+	public int increment(int boardIdx, IntSupplier flushedCount) {
+		increment(boardIdx);
+		long stamp = lock.tryOptimisticRead();
+		long hitCount = flushedCount.getAsInt() + pending(boardIdx);
+		if(lock.validate(stamp) == false) {
+			stamp = lock.readLock();
+			try {
+				hitCount = flushedCount.getAsInt() + pending(boardIdx);
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+		return (int) hitCount;
+	}
+	
+	// DB에서 조회수를 읽어 캐시에 넣는 동안 flush하지 않는다. 캐시에 넣는것까지 loader 안에서 끝내야 한다.
+	public <T> T load(Callable<T> loader) throws Exception {
+		long stamp = lock.readLock();
+		try {
+			return loader.call();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	
+	// DB에 아직 반영되지 않은 조회수
+	public long pending(int boardIdx) {
+		Cell cell = cells.get(boardIdx);
+		return cell == null ? 0 : cell.pending();
+	}
+	
+	// 쌓인 조회수를 writer로 넘긴다. writer가 실패하면 반영한것으로 처리하지 않고 다음 flush에서 다시 시도한다.
+	// writer는 DB에 커밋하고 캐시된 게시글의 조회수에 더한 후에 돌아와야 한다. writer가 끝나면 pending에서 뺀다.
+	// writer가 실행되는 동안 load와 flush와 겹친 조회는 기다린다.
+	public void flush(Writer writer) throws Exception {
+		long stamp = lock.writeLock();
+		try {
+			flushCells(writer);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+	
+	private void flushCells(Writer writer) throws Exception {
+		Map<Integer, Long> deltas = new HashMap<>();
+		Map<Cell, Long> flushing = new HashMap<>();
+		
+		for(Map.Entry<Integer, Cell> entry : retired.entrySet()) {
+			long pending = entry.getValue().pending();
+			if(pending > 0) {
+				deltas.merge(entry.getKey(), pending, Long::sum);
+				flushing.put(entry.getValue(), pending);
+			}
+		}
+		
+		Map<Integer, Cell> retiring = new HashMap<>();
+		for(Map.Entry<Integer, Cell> entry : cells.entrySet()) {
+			Cell cell = entry.getValue();
+			long pending = cell.pending();
+			if(pending > 0) {
+				deltas.merge(entry.getKey(), pending, Long::sum);
+				flushing.put(cell, pending);
+			} else if(retired.containsKey(entry.getKey()) == false && cells.remove(entry.getKey(), cell)) {
+				// 조회가 없는 글은 맵에서 제거해 메모리가 계속 늘어나지 않게 한다.
+				retiring.put(entry.getKey(), cell);
+			}
+		}
+		
+		if(deltas.isEmpty() == false) {
+			try {
+				writer.write(deltas);
+			} catch (Exception e) {
+				retired.putAll(retiring);
+				throw e;
+			}
+			for(Map.Entry<Cell, Long> entry : flushing.entrySet()) {
+				entry.getKey().flushed += entry.getValue();
+			}
+		}
+		retired = retiring;
+	}
+}
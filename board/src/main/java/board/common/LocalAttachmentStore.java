@@ -0,0 +1,242 @@
+package board.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 로컬 디스크 저장소.
+// 키는 ab/cd/abcd...(SHA-256).확장자 형태로 해시 앞자리로 폴더를 나눠 한 폴더에 파일이 몰리지 않게 한다.
+// 참조수는 파일 옆의 .ref 파일에 저장한다. 임시 파일에 쓴 다음 바꿔치기하므로 중간에 멈춰도 이전 값이나 새 값만 남는다.
+// 여러 인스턴스가 같은 폴더(공유 디스크)를 사용할수 있으므로 참조수를 바꿀때는 .locks 아래 잠금 파일(FileChannel.lock)도 잡는다.
+// 썸네일처럼 원본에서 만든 파일은 .derivatives 아래에 원본 키와 같은 경로로 저장한다.
+@Component
+@Slf4j
+public class LocalAttachmentStore implements AttachmentStore {
+	
+	private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}\\.[a-z]+");
+	private static final String REF_SUFFIX = ".ref";
+	private static final String DERIVATIVE_DIRECTORY = ".derivatives";
+	private static final String LOCK_DIRECTORY = ".locks";
+	private static final int LOCK_STRIPES = 64;
+	
+	private final Path root;
+	private final Path staging;
+	private final Path derivatives;
+	private final Path lockDirectory;
+	// 같은 해시의 put/release가 동시에 실행되지 않도록 해시값으로 락을 나눈다.
+	// 파일 잠금은 JVM 단위라서 같은 JVM의 스레드끼리는 막지 못하므로 이 락을 먼저 잡는다.
+	private final Object[] locks = new Object[LOCK_STRIPES];
+	
+	public LocalAttachmentStore(@Value("${board.attachment.root:images}") String root) {
+		this.root = Paths.get(root);
+		this.staging = this.root.resolve(".staging");
+		this.derivatives = this.root.resolve(DERIVATIVE_DIRECTORY);
+		this.lockDirectory = this.root.resolve(LOCK_DIRECTORY);
+		for(int i = 0; i < LOCK_STRIPES; i++) {
+			locks[i] = new Object();
+		}
+	}
+
+	@Override
+	public Path newStagingFile() throws IOException {
+		Files.createDirectories(staging);
+		return Files.createTempFile(staging, "upload", ".tmp");
+	}
+
+	@Override
+	public String put(Path stagingFile, String checksum, String extension) throws IOException {
+		String hash = checksum != null ? checksum : sha256(stagingFile);
+		String key = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + extension;
+		Path blob = root.resolve(key);
+		
+		synchronized (lockFor(hash)) {
+			try (FileChannel channel = openLockFile(hash)) {
+				FileLock lock = channel.lock();
+				try {
+					long count;
+					if(Files.exists(blob)) {
+						// 이미 같은 내용의 파일이 있으면 새로 저장하지 않는다.
+						Files.deleteIfExists(stagingFile);
+						count = readRefCount(blob);
+						// 읽을수 없으면 파일이 있으므로 참조가 하나 있었던 것으로 보고 다시 쓴다.
+						if(count < 0) {
+							count = 1;
+						}
+					} else {
+						Files.createDirectories(blob.getParent());
+						try {
+							Files.move(stagingFile, blob, StandardCopyOption.ATOMIC_MOVE);
+						} catch (AtomicMoveNotSupportedException e) {
+							Files.move(stagingFile, blob, StandardCopyOption.REPLACE_EXISTING);
+						}
+						count = 0;
+					}
+					writeRefCount(blob, count + 1);
+				} finally {
+					lock.release();
+				}
+			}
+		}
+		return key;
+	}
+
+	@Override
+	public Path resolve(String key) {
+		// 해시 키가 아닌 값은 이전 방식(images/yyyyMMdd/나노타임.확장자)으로 저장된 경로이다.
+		if(isHashKey(key)) {
+			return root.resolve(key);
+		}
+		return Paths.get(key);
+	}
+
+	@Override
+	public Path resolveDerivative(String key, String name) {
+		// 이전 방식의 경로는 폴더 구조가 제각각이므로 경로의 해시값을 파일명으로 사용한다.
+		String base = isHashKey(key) ? key : "legacy/" + toHex(sha256(key.getBytes(StandardCharsets.UTF_8)));
+		return derivatives.resolve(base + "." + name);
+	}
+
+	@Override
+	public void release(String key) throws IOException {
+		Path blob = resolve(key);
+		if(isHashKey(key) == false) {
+			Files.deleteIfExists(blob);
+			deleteDerivatives(key);
+			return;
+		}
+		
+		String hash = key.substring(6, 70);
+		synchronized (lockFor(hash)) {
+			try (FileChannel channel = openLockFile(hash)) {
+				FileLock lock = channel.lock();
+				try {
+					long count = readRefCount(blob);
+					if(count < 0) {
+						// 남은 참조수를 알수 없으므로 지우지 않고 1로 고쳐둔다. 다음 release에서 지운다.
+						log.warn("reference count of {} is unreadable, keeping the file", key);
+						writeRefCount(blob, 1);
+					} else if(count > 1) {
+						writeRefCount(blob, count - 1);
+					} else {
+						Files.deleteIfExists(blob);
+						Files.deleteIfExists(refFile(blob));
+						deleteDerivatives(key);
+					}
+				} finally {
+					lock.release();
+				}
+			}
+		}
+	}
+	
+	private void deleteDerivatives(String key) throws IOException {
+		Path base = resolveDerivative(key, "");
+		if(Files.isDirectory(base.getParent()) == false) {
+			return;
+		}
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(base.getParent(), base.getFileName() + "*")) {
+			for(Path file : files) {
+				Files.deleteIfExists(file);
+			}
+		}
+	}
+	
+	private boolean isHashKey(String key) {
+		return key != null && KEY_PATTERN.matcher(key).matches();
+	}
+	
+	private Object lockFor(String hash) {
+		return locks[Integer.parseInt(hash.substring(0, 2), 16) % LOCK_STRIPES];
+	}
+	
+	// 해시 앞 두자리별 잠금 파일, 지우지 않고 계속 사용한다.
+	private FileChannel openLockFile(String hash) throws IOException {
+		Files.createDirectories(lockDirectory);
+		return FileChannel.open(lockDirectory.resolve(hash.substring(0, 2) + ".lock"),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+	}
+	
+	private Path refFile(Path blob) {
+		return blob.resolveSibling(blob.getFileName() + REF_SUFFIX);
+	}
+	
+	// .ref 파일이 없으면 0, 비어 있거나 숫자가 아니면(이전 방식으로 덮어쓰다가 멈춘 경우) -1
+	private long readRefCount(Path blob) throws IOException {
+		Path ref = refFile(blob);
+		if(Files.exists(ref) == false) {
+			return 0;
+		}
+		String value = new String(Files.readAllBytes(ref), StandardCharsets.US_ASCII).trim();
+		try {
+			long count = Long.parseLong(value);
+			return count >= 0 ? count : -1;
+		} catch (NumberFormatException e) {
+			log.warn("invalid reference count '{}' in {}", value, ref);
+			return -1;
+		}
+	}
+	
+	private void writeRefCount(Path blob, long count) throws IOException {
+		Path ref = refFile(blob);
+		Path temp = Files.createTempFile(ref.getParent(), ref.getFileName().toString(), ".tmp");
+		try {
+			Files.write(temp, Long.toString(count).getBytes(StandardCharsets.US_ASCII));
+			try {
+				Files.move(temp, ref, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, ref, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+	
+	private String sha256(Path file) throws IOException {
+		MessageDigest digest = newDigest();
+		byte[] buffer = new byte[8192];
+		try (InputStream in = Files.newInputStream(file)) {
+			int read;
+			while((read = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+		}
+		return toHex(digest.digest());
+	}
+	
+	private static byte[] sha256(byte[] bytes) {
+		return newDigest().digest(bytes);
+	}
+	
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static String toHex(byte[] bytes) {
+		StringBuilder builder = new StringBuilder(bytes.length * 2);
+		for(byte b : bytes) {
+			builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,257 @@
+package board.common;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.support.RequestContextUtils;
+import org.thymeleaf.spring5.view.ThymeleafViewResolver;
+
+import board.configuration.ReplicaRoutingDataSource;
+import board.mapper.BoardMapper;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+// 목록과 상세 화면을 렌더링한 결과(UTF-8 바이트)를 캐시한다. 캐시에 있으면 DB 조회와 템플릿 처리 없이 바로 보낸다.
+// 키에는 DB의 목록 버전(T_BOARD_VERSION)이 들어가므로 어느 서버에서든 글을 쓰거나 고쳐서 버전이 올라가면
+// 이전 화면은 더 이상 사용되지 않고 크기 제한으로 밀려난다.
+// 조회수처럼 요청마다 달라지는 값은 hole로 넘기면 표시만 남겨 두고 렌더링한 후 보낼때 값을 채운다.
+// 조회수 반영(flushHitCount)은 버전을 올리지 않으므로 목록 화면의 조회수는 다시 렌더링할때까지(expire-after-write) 이전 값이다.
+@Component
+@Slf4j
+public class RenderedPageCache implements MeterBinder {
+
+	// 목록 버전(T_BOARD_VERSION.NAME)의 이름
+	public static final String BOARD = "board";
+	public static final String JPA_BOARD = "jpaBoard";
+
+	private static final String CONTENT_TYPE = "text/html;charset=UTF-8";
+
+	@Autowired
+	private ThymeleafViewResolver thymeleafViewResolver;
+	
+	@Autowired
+	private BoardMapper boardMapper;
+
+	// 템플릿을 고치면 바로 보이도록 템플릿 캐시를 끈 개발환경에서는 사용하지 않는다.
+	@Value("${board.cache.page.enabled:${spring.thymeleaf.cache:true}}")
+	private boolean enabled;
+
+	private final Cache<String, RenderedPage> cache;
+
+	// 사용자가 입력한 내용과 겹치지 않도록 실행할때마다 다른 표시를 사용한다.
+	private final String holePrefix = "__hole_" + UUID.randomUUID().toString().replace("-", "") + "_";
+
+	public RenderedPageCache(
+			@Value("${board.cache.page.maximum-bytes:33554432}") long maximumBytes,
+			@Value("${board.cache.page.expire-after-write-seconds:600}") long expireAfterWrite) {
+		this.cache = Caffeine.newBuilder()
+				.maximumWeight(maximumBytes)
+				.weigher((String key, RenderedPage page) -> page.length)
+				.expireAfterWrite(expireAfterWrite, TimeUnit.SECONDS)
+				.recordStats()
+				.build();
+	}
+
+	public interface ModelLoader {
+		Map<String, Object> load() throws Exception;
+	}
+
+	// 캐시에 있으면 저장된 화면을 보내는 View를, 없으면 loader로 모델을 만들어 렌더링하고 저장하는 View를 반환한다.
+	// loader는 컨트롤러에서 실행하므로 조회중 예외는 다른 화면과 같이 ExceptionHandler가 처리한다.
+	// 버전을 먼저 읽고 내용을 읽으므로 쓰기가 커밋되기 전의 내용은 이전 버전의 키로만 저장된다.
+	public ModelAndView modelAndView(String board, String template, Object key, ModelLoader loader) throws Exception {
+		return modelAndView(board, template, key, loader, Collections.emptyMap());
+	}
+
+	public ModelAndView modelAndView(String board, String template, Object key, ModelLoader loader,
+			Map<String, ?> holes) throws Exception {
+		// 버전 행이 없으면 바뀐것을 알수 없으므로 캐시하지 않는다.
+		Long version = enabled ? boardMapper.selectVersion(board) : null;
+		if(version == null) {
+			ModelAndView mv = new ModelAndView(template, loader.load());
+			mv.addAllObjects(holes);
+			return mv;
+		}
+
+		String cacheKey = template + ":" + version + ":" + key;
+		RenderedPage page = cache.getIfPresent(cacheKey);
+		if(page != null) {
+			return new ModelAndView(new CachedView(page, holes));
+		}
+		// 캐시에 저장할 화면이므로 복제 DB가 아니라 원본 DB에서 읽는다.
+		return new ModelAndView(new RenderingView(cacheKey, template, holes), ReplicaRoutingDataSource.usePrimary(loader::load));
+	}
+
+	// CacheManager의 캐시 메트릭과 같은 태그를 사용해야 prometheus에 함께 노출된다.
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		CaffeineCacheMetrics.monitor(registry, cache, "renderedPage", "cacheManager", "renderedPageCache", "name", "renderedPage");
+	}
+
+	private RenderedPage split(String html, List<String> holeNames) {
+		List<byte[]> parts = new ArrayList<>();
+		List<String> names = new ArrayList<>();
+		int start = 0;
+		int index;
+		while((index = html.indexOf(holePrefix, start)) >= 0) {
+			int end = html.indexOf('_', index + holePrefix.length());
+			parts.add(html.substring(start, index).getBytes(StandardCharsets.UTF_8));
+			names.add(holeNames.get(Integer.parseInt(html.substring(index + holePrefix.length(), end))));
+			start = end + 1;
+		}
+		parts.add(html.substring(start).getBytes(StandardCharsets.UTF_8));
+		return new RenderedPage(parts.toArray(new byte[parts.size()][]), names.toArray(new String[names.size()]));
+	}
+
+	private static class RenderedPage {
+		private final byte[][] parts;
+		private final String[] holes;
+		private final int length;
+
+		RenderedPage(byte[][] parts, String[] holes) {
+			this.parts = parts;
+			this.holes = holes;
+			int length = 0;
+			for(byte[] part : parts) {
+				length += part.length;
+			}
+			this.length = length;
+		}
+
+		void write(HttpServletResponse response, Map<String, ?> holeValues) throws IOException {
+			byte[][] values = new byte[holes.length][];
+			int contentLength = length;
+			for(int i = 0; i < holes.length; i++) {
+				values[i] = String.valueOf(holeValues.get(holes[i])).getBytes(StandardCharsets.UTF_8);
+				contentLength += values[i].length;
+			}
+
+			response.setContentType(CONTENT_TYPE);
+			response.setContentLength(contentLength);
+			OutputStream out = response.getOutputStream();
+			for(int i = 0; i < parts.length; i++) {
+				out.write(parts[i]);
+				if(i < values.length) {
+					out.write(values[i]);
+				}
+			}
+		}
+	}
+
+	private static class CachedView implements View {
+		private final RenderedPage page;
+		private final Map<String, ?> holes;
+
+		CachedView(RenderedPage page, Map<String, ?> holes) {
+			this.page = page;
+			this.holes = holes;
+		}
+
+		@Override
+		public String getContentType() {
+			return CONTENT_TYPE;
+		}
+
+		@Override
+		public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response) throws Exception {
+			page.write(response, holes);
+		}
+	}
+
+	private class RenderingView implements View {
+		private final String cacheKey;
+		private final String template;
+		private final Map<String, ?> holes;
+
+		RenderingView(String cacheKey, String template, Map<String, ?> holes) {
+			this.cacheKey = cacheKey;
+			this.template = template;
+			this.holes = holes;
+		}
+
+		@Override
+		public String getContentType() {
+			return CONTENT_TYPE;
+		}
+
+		// hole 자리에는 값 대신 표시를 넣고 렌더링한다.
+		@Override
+		public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response) throws Exception {
+			Map<String, Object> renderModel = new HashMap<>(model);
+			List<String> holeNames = new ArrayList<>(holes.keySet());
+			for(int i = 0; i < holeNames.size(); i++) {
+				renderModel.put(holeNames.get(i), holePrefix + i + "_");
+			}
+
+			View view = thymeleafViewResolver.resolveViewName(template, RequestContextUtils.getLocale(request));
+			BufferingResponse buffer = new BufferingResponse(response);
+			view.render(renderModel, request, buffer);
+
+			RenderedPage page = split(buffer.getContent(), holeNames);
+			cache.put(cacheKey, page);
+			log.debug("rendered page cached : {} ({} bytes)", cacheKey, page.length);
+			page.write(response, holes);
+		}
+	}
+
+	// 렌더링 결과를 응답으로 보내지 않고 모은다.
+	// 캐시된 화면을 다른 사용자도 보므로 URL에 세션 아이디(jsessionid)를 붙이지 않는다.
+	private static class BufferingResponse extends HttpServletResponseWrapper {
+		private final StringWriter content = new StringWriter();
+		private final PrintWriter writer = new PrintWriter(content);
+
+		BufferingResponse(HttpServletResponse response) {
+			super(response);
+		}
+
+		@Override
+		public PrintWriter getWriter() {
+			return writer;
+		}
+
+		@Override
+		public void flushBuffer() {
+			writer.flush();
+		}
+
+		@Override
+		public String encodeURL(String url) {
+			return url;
+		}
+
+		@Override
+		public String encodeRedirectURL(String url) {
+			return url;
+		}
+
+		String getContent() {
+			writer.flush();
+			return content.toString();
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package board.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 게시글 트랜잭션이 시작되기 전에 저장소에 먼저 저장한 첨부파일
+// 트랜잭션이 실패하면 FileUtils.releaseFiles로 참조를 반납한다.
+@Getter
+@AllArgsConstructor
+public class StagedFile {
+	
+	// 저장소 키
+	private final String storedFilePath;
+	private final String originalFileName;
+	private final long fileSize;
+}
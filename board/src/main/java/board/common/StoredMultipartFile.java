@@ -0,0 +1,65 @@
+package board.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import lombok.Getter;
+
+// StreamingMultipartResolver가 요청을 읽으면서 저장소의 임시파일에 저장한 파일.
+// 체크섬을 이미 계산했기 때문에 AttachmentStore.put으로 다시 읽지 않고 옮길수 있다.
+@Getter
+public class StoredMultipartFile implements MultipartFile {
+	
+	private final String name;
+	private final String originalFilename;
+	// 클라이언트가 보낸 값이 아니라 파일의 매직 바이트로 확인한 콘텐츠 타입
+	private final String contentType;
+	private final long size;
+	// 저장된 파일의 SHA-256 값(16진수)
+	private final String checksum;
+	// 저장소의 임시파일 경로
+	private final String stagingFile;
+	
+	private boolean claimed;
+	
+	public StoredMultipartFile(String name, String originalFilename, String contentType, 
+			long size, String checksum, String stagingFile) {
+		this.name = name;
+		this.originalFilename = originalFilename;
+		this.contentType = contentType;
+		this.size = size;
+		this.checksum = checksum;
+		this.stagingFile = stagingFile;
+	}
+	
+	// 저장소로 옮긴 파일로 표시한다. 표시되지 않은 임시파일은 요청이 끝나면 삭제된다.
+	public void claim() {
+		this.claimed = true;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public byte[] getBytes() throws IOException {
+		return Files.readAllBytes(new File(stagingFile).toPath());
+	}
+
+	@Override
+	public InputStream getInputStream() throws IOException {
+		return Files.newInputStream(new File(stagingFile).toPath());
+	}
+
+	@Override
+	public void transferTo(File dest) throws IOException, IllegalStateException {
+		Files.move(new File(stagingFile).toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		claim();
+	}
+}
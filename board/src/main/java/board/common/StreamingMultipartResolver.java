@@ -0,0 +1,217 @@
+package board.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadException;
+import org.apache.commons.fileupload.servlet.ServletFileUpload;
+import org.apache.commons.fileupload.util.Streams;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.support.DefaultMultipartHttpServletRequest;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+// 요청 스트림을 한번만 읽으면서 파일을 저장소에 쓰는 MultipartResolver.
+// CommonsMultipartResolver는 임시파일에 저장한후 다시 복사하기 때문에 디스크에 두번 쓰게 된다.
+// 읽는 동안 매직 바이트로 이미지 여부를 확인하고 SHA-256 체크섬을 계산한다.
+// 저장소의 임시파일은 같은 디스크에 있으므로 AttachmentStore.put은 이름만 바꾼다.
+@Slf4j
+@Setter
+public class StreamingMultipartResolver implements MultipartResolver {
+	
+	private static final int BUFFER_SIZE = 8192;
+	
+	private final AttachmentStore attachmentStore;
+	
+	private String defaultEncoding = "UTF-8";
+	// 파일 하나의 최대 크기, -1이면 제한없음. 실행중에 바꿀수 있다. (WebMvcConfiguration)
+	@Getter
+	private volatile long maxUploadSizePerFile = -1;
+	// 요청 전체 파일의 최대 크기, -1이면 제한없음
+	@Getter
+	private volatile long maxUploadSize = -1;
+	
+	public StreamingMultipartResolver(AttachmentStore attachmentStore) {
+		this.attachmentStore = attachmentStore;
+	}
+
+	@Override
+	public boolean isMultipart(HttpServletRequest request) {
+		return ServletFileUpload.isMultipartContent(request);
+	}
+
+	@Override
+	public MultipartHttpServletRequest resolveMultipart(HttpServletRequest request) throws MultipartException {
+		String encoding = request.getCharacterEncoding() != null ? request.getCharacterEncoding() : defaultEncoding;
+		ServletFileUpload upload = new ServletFileUpload();
+		upload.setHeaderEncoding(encoding);
+		
+		MultiValueMap<String, MultipartFile> files = new LinkedMultiValueMap<>();
+		MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+		Map<String, String> paramContentTypes = new HashMap<>();
+		long total = 0;
+		
+		try {
+			FileItemIterator iterator = upload.getItemIterator(request);
+			while(iterator.hasNext()) {
+				FileItemStream item = iterator.next();
+				try (InputStream stream = item.openStream()) {
+					if(item.isFormField()) {
+						params.add(item.getFieldName(), Streams.asString(stream, encoding));
+						paramContentTypes.put(item.getFieldName(), item.getContentType());
+					} else if(StringUtils.hasText(item.getName())) {
+						StoredMultipartFile file = store(item, stream, total);
+						if(file != null) {
+							total += file.getSize();
+							files.add(item.getFieldName(), file);
+						}
+					}
+				}
+			}
+		} catch (MaxUploadSizeExceededException e) {
+			deleteAll(files);
+			throw e;
+		} catch (FileUploadException | IOException e) {
+			deleteAll(files);
+			throw new MultipartException("Failed to parse multipart servlet request", e);
+		}
+		
+		Map<String, String[]> parameters = new HashMap<>();
+		for(Map.Entry<String, List<String>> entry : params.entrySet()) {
+			parameters.put(entry.getKey(), entry.getValue().toArray(new String[0]));
+		}
+		return new DefaultMultipartHttpServletRequest(request, files, parameters, paramContentTypes);
+	}
+
+	// 게시글에 등록되지 않은 파일(예외로 저장이 취소된 경우 등)은 삭제한다.
+	@Override
+	public void cleanupMultipart(MultipartHttpServletRequest request) {
+		for(List<MultipartFile> list : request.getMultiFileMap().values()) {
+			for(MultipartFile file : list) {
+				if(file instanceof StoredMultipartFile && ((StoredMultipartFile) file).isClaimed() == false) {
+					delete((StoredMultipartFile) file);
+				}
+			}
+		}
+	}
+	
+	// 이미지가 아니면 저장하지 않고 null을 반환한다.
+	private StoredMultipartFile store(FileItemStream item, InputStream stream, long total) throws IOException {
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int head = readHead(stream, buffer);
+		String contentType = detectImageType(buffer, head);
+		if(contentType == null) {
+			log.debug("skip non image file : {}", item.getName());
+			return null;
+		}
+		
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+		
+		Path target = attachmentStore.newStagingFile();
+		long size = 0;
+		try (OutputStream out = Files.newOutputStream(target)) {
+			int read = head;
+			while(read != -1) {
+				size += read;
+				checkSize(size, total + size);
+				digest.update(buffer, 0, read);
+				out.write(buffer, 0, read);
+				read = stream.read(buffer);
+			}
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(target);
+			throw e;
+		}
+		
+		return new StoredMultipartFile(item.getFieldName(), item.getName(), contentType, 
+				size, toHex(digest.digest()), target.toString());
+	}
+	
+	private void checkSize(long fileSize, long requestSize) {
+		if(maxUploadSizePerFile >= 0 && fileSize > maxUploadSizePerFile) {
+			throw new MaxUploadSizeExceededException(maxUploadSizePerFile);
+		}
+		if(maxUploadSize >= 0 && requestSize > maxUploadSize) {
+			throw new MaxUploadSizeExceededException(maxUploadSize);
+		}
+	}
+	
+	// 매직 바이트를 확인하기 위해 버퍼를 최대한 채운다.
+	private int readHead(InputStream stream, byte[] buffer) throws IOException {
+		int length = 0;
+		while(length < buffer.length) {
+			int read = stream.read(buffer, length, buffer.length - length);
+			if(read == -1) {
+				break;
+			}
+			length += read;
+		}
+		return length == 0 ? -1 : length;
+	}
+	
+	// 파일 확장자나 클라이언트가 보낸 Content-Type은 위변조 할수 있으므로 파일 앞부분의 시그니처로 확인한다.
+	static String detectImageType(byte[] head, int length) {
+		if(length >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+			return "image/jpeg";
+		}
+		if(length >= 8 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G'
+				&& head[4] == 0x0D && head[5] == 0x0A && head[6] == 0x1A && head[7] == 0x0A) {
+			return "image/png";
+		}
+		if(length >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8'
+				&& (head[4] == '7' || head[4] == '9') && head[5] == 'a') {
+			return "image/gif";
+		}
+		return null;
+	}
+	
+	private static String toHex(byte[] bytes) {
+		StringBuilder builder = new StringBuilder(bytes.length * 2);
+		for(byte b : bytes) {
+			builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return builder.toString();
+	}
+	
+	private void deleteAll(MultiValueMap<String, MultipartFile> files) {
+		for(List<MultipartFile> list : files.values()) {
+			for(MultipartFile file : list) {
+				delete((StoredMultipartFile) file);
+			}
+		}
+	}
+	
+	private void delete(StoredMultipartFile file) {
+		try {
+			Files.deleteIfExists(Paths.get(file.getStagingFile()));
+		} catch (IOException e) {
+			log.warn("failed to delete uploaded file : {}", file.getStagingFile(), e);
+		}
+	}
+}
@@ -0,0 +1,238 @@
+package board.common;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+// 첨부 이미지의 썸네일을 백그라운드에서 만든다.
+// 작업 큐는 크기가 정해져 있고 가득 차면 버린다. 버려진 썸네일은 처음 요청될때 다시 만든다.
+// 너무 크거나 읽을수 없는 이미지는 실패 표시를 남기고 다시 시도하지 않는다. 원본은 내용의 해시로 저장되므로 바뀌지 않는다.
+@Component
+@Slf4j
+public class ThumbnailGenerator {
+	
+	public static final String THUMBNAIL = "thumbnail.jpg";
+	public static final String THUMBNAIL_FAILED = "thumbnail.failed";
+	
+	@Autowired
+	private AttachmentStore attachmentStore;
+	
+	@Autowired
+	private MeterRegistry meterRegistry;
+	
+	// 썸네일의 가로, 세로 최대 크기(px), 비율은 원본과 같게 한다.
+	@Value("${board.thumbnail.size:200}")
+	private int size;
+	
+	@Value("${board.thumbnail.queue-capacity:1000}")
+	private int queueCapacity;
+	
+	// 이 픽셀 수(가로 x 세로)보다 큰 이미지는 썸네일을 만들지 않는다.
+	// 파일은 작아도 압축을 풀면 수 GB가 되는 이미지로 메모리가 부족해지지 않게 한다.
+	@Value("${board.thumbnail.max-pixels:50000000}")
+	private long maxPixels;
+	
+	private ThreadPoolExecutor executor;
+	// 같은 파일의 썸네일을 동시에 여러번 만들지 않도록 작업중인 키를 기록한다.
+	private final Set<String> inProgress = ConcurrentHashMap.newKeySet();
+	private Counter generated;
+	private Counter rejected;
+	private Counter tooLarge;
+	
+	@PostConstruct
+	public void init() {
+		// 이미지 처리는 CPU 작업이므로 코어 수 만큼만 실행한다.
+		int threads = Runtime.getRuntime().availableProcessors();
+		executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("thumbnail-"),
+				new ThreadPoolExecutor.AbortPolicy());
+		// 디스크 임시파일을 쓰지 않고 메모리에서 이미지를 읽는다.
+		ImageIO.setUseCache(false);
+		
+		meterRegistry.gauge("board.thumbnail.queue", executor.getQueue(), q -> q.size());
+		generated = meterRegistry.counter("board.thumbnail.generated");
+		rejected = meterRegistry.counter("board.thumbnail.rejected");
+		tooLarge = meterRegistry.counter("board.thumbnail.too-large");
+	}
+	
+	@PreDestroy
+	public void destroy() {
+		executor.shutdownNow();
+	}
+	
+	// 게시글이 커밋된 후에 첨부파일의 썸네일을 만든다.
+	public void generateAfterCommit(List<StagedFile> stagedFiles) {
+		if(stagedFiles.isEmpty()) {
+			return;
+		}
+		TransactionCallbacks.afterCommit(() -> {
+			for(StagedFile stagedFile : stagedFiles) {
+				generate(stagedFile.getStoredFilePath());
+			}
+		});
+	}
+	
+	// 썸네일이 있으면 위치를 반환하고, 없으면 만들도록 요청한후 null을 반환한다.
+	// 만들수 없는 이미지(isUnavailable)는 요청하지 않는다.
+	public Path thumbnail(String key) {
+		Path thumbnail = attachmentStore.resolveDerivative(key, THUMBNAIL);
+		if(Files.exists(thumbnail)) {
+			return thumbnail;
+		}
+		generate(key);
+		return null;
+	}
+	
+	// 썸네일을 만들다가 실패 표시를 남긴 이미지
+	public boolean isUnavailable(String key) {
+		return Files.exists(attachmentStore.resolveDerivative(key, THUMBNAIL_FAILED));
+	}
+	
+	public void generate(String key) {
+		if(Files.exists(attachmentStore.resolveDerivative(key, THUMBNAIL)) || isUnavailable(key) || inProgress.add(key) == false) {
+			return;
+		}
+		try {
+			executor.execute(() -> {
+				try {
+					createThumbnail(key);
+				} catch (Exception e) {
+					log.warn("failed to create thumbnail : {}", key, e);
+				} finally {
+					inProgress.remove(key);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			inProgress.remove(key);
+			rejected.increment();
+			log.debug("thumbnail queue is full : {}", key);
+		}
+	}
+	
+	private void createThumbnail(String key) throws IOException {
+		Path original = attachmentStore.resolve(key);
+		if(Files.exists(original) == false) {
+			return;
+		}
+		BufferedImage image = readImage(original, key);
+		if(image == null) {
+			return;
+		}
+		
+		double scale = Math.min(1.0, Math.min((double) size / image.getWidth(), (double) size / image.getHeight()));
+		int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+		int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+		
+		// 한번에 크게 줄이면 계단현상이 생기므로 목표 크기의 두배가 될때까지 반씩 줄인다.
+		BufferedImage current = image;
+		while(current.getWidth() / 2 >= width * 2 && current.getHeight() / 2 >= height * 2) {
+			current = resize(current, current.getWidth() / 2, current.getHeight() / 2);
+		}
+		BufferedImage thumbnail = resize(current, width, height);
+		
+		// 다른 요청이 쓰다만 파일을 읽지 않도록 임시파일에 쓴후 옮긴다.
+		Path target = attachmentStore.resolveDerivative(key, THUMBNAIL);
+		Files.createDirectories(target.getParent());
+		Path temp = Files.createTempFile(target.getParent(), "thumbnail", ".tmp");
+		try {
+			ImageIO.write(thumbnail, "jpg", temp.toFile());
+			try {
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+			generated.increment();
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+	
+	// 디코딩하기 전에 헤더에서 크기만 읽어서 max-pixels를 넘으면 읽지 않는다.
+	// 썸네일 크기의 두배보다 작아지지 않는 만큼 픽셀을 건너뛰며 읽으므로(subsampling) 원본 크기의 이미지를 만들지 않는다.
+	// 이미지가 아니거나, 너무 크거나, 디코딩할수 없으면 실패 표시를 남기고 null을 반환한다.
+	private BufferedImage readImage(Path original, String key) throws IOException {
+		try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+			Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+			if(readers == null || readers.hasNext() == false) {
+				log.debug("not an image : {}", key);
+				markFailed(key, "not an image");
+				return null;
+			}
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(input, true, true);
+				int width = reader.getWidth(0);
+				int height = reader.getHeight(0);
+				if((long) width * height > maxPixels) {
+					tooLarge.increment();
+					log.info("image is too large for a thumbnail : {} ({}x{})", key, width, height);
+					markFailed(key, "too large : " + width + "x" + height);
+					return null;
+				}
+				int subsampling = Math.max(1, Math.max(width, height) / (size * 2));
+				ImageReadParam param = reader.getDefaultReadParam();
+				param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+				return reader.read(0, param);
+			} catch (IIOException | RuntimeException e) {
+				// 손상된 이미지는 디코더에 따라 IIOException 외의 예외도 던진다.
+				log.info("image cannot be decoded for a thumbnail : {} ({})", key, e.toString());
+				markFailed(key, "cannot be decoded : " + e);
+				return null;
+			} finally {
+				reader.dispose();
+			}
+		}
+	}
+	
+	private void markFailed(String key, String reason) throws IOException {
+		Path marker = attachmentStore.resolveDerivative(key, THUMBNAIL_FAILED);
+		Files.createDirectories(marker.getParent());
+		Files.write(marker, reason.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	// JPEG는 투명도를 저장할수 없으므로 흰 배경에 그린다.
+	private BufferedImage resize(BufferedImage source, int width, int height) {
+		BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = resized.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+		} finally {
+			graphics.dispose();
+		}
+		return resized;
+	}
+}
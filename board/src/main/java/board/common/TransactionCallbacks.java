@@ -0,0 +1,24 @@
+package board.common;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class TransactionCallbacks {
+	
+	private TransactionCallbacks() {
+	}
+	
+	// 현재 트랜잭션이 커밋된 후에 실행한다. 트랜잭션이 없으면 바로 실행한다.
+	public static void afterCommit(Runnable runnable) {
+		if(TransactionSynchronizationManager.isSynchronizationActive() == false) {
+			runnable.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				runnable.run();
+			}
+		});
+	}
+}
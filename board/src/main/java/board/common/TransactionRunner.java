@@ -0,0 +1,31 @@
+package board.common;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+// 메서드 안에서 트랜잭션 범위를 직접 정할때 사용한다.
+// TransactionAspect와 같이 모든 예외에서 롤백한다.
+@Component
+public class TransactionRunner {
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	public interface Work {
+		void run() throws Exception;
+	}
+	
+	public void run(Work work) throws Exception {
+		TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+		try {
+			work.run();
+		} catch (Throwable e) {
+			transactionManager.rollback(status);
+			throw e;
+		}
+		transactionManager.commit(status);
+	}
+}
@@ -0,0 +1,86 @@
+package board.common;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 가상 스레드(Java 21). 소스는 Java 8로 컴파일하므로 실행중인 JVM에 있을때만 리플렉션으로 사용한다.
+@Slf4j
+public class VirtualThreads {
+
+	// 가상 스레드를 실행하는 캐리어 스레드 수, 첫번째 가상 스레드를 만들기 전에만 바꿀수 있다.
+	private static final String PARALLELISM_PROPERTY = "jdk.virtualThreadScheduler.parallelism";
+
+	// Thread.ofVirtual()
+	private static final MethodHandle OF_VIRTUAL;
+	// Thread.Builder.name(String prefix, long start)
+	private static final MethodHandle NAME;
+	// Thread.Builder.factory()
+	private static final MethodHandle FACTORY;
+	// Executors.newThreadPerTaskExecutor(ThreadFactory)
+	private static final MethodHandle NEW_THREAD_PER_TASK_EXECUTOR;
+
+	static {
+		MethodHandle ofVirtual = null;
+		MethodHandle name = null;
+		MethodHandle factory = null;
+		MethodHandle newThreadPerTaskExecutor = null;
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			Class<?> builder = Class.forName("java.lang.Thread$Builder");
+			ofVirtual = lookup.findStatic(Thread.class, "ofVirtual",
+					MethodType.methodType(Class.forName("java.lang.Thread$Builder$OfVirtual")));
+			name = lookup.findVirtual(builder, "name", MethodType.methodType(builder, String.class, long.class));
+			factory = lookup.findVirtual(builder, "factory", MethodType.methodType(ThreadFactory.class));
+			newThreadPerTaskExecutor = lookup.findStatic(java.util.concurrent.Executors.class, "newThreadPerTaskExecutor",
+					MethodType.methodType(ExecutorService.class, ThreadFactory.class));
+		} catch (ReflectiveOperationException e) {
+			ofVirtual = null;
+		}
+		OF_VIRTUAL = ofVirtual;
+		NAME = name;
+		FACTORY = factory;
+		NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+	}
+
+	private VirtualThreads() {
+	}
+
+	public static boolean isSupported() {
+		return OF_VIRTUAL != null;
+	}
+
+	// prefix0, prefix1 ... 이름의 가상 스레드를 만든다.
+	public static ThreadFactory factory(String prefix) {
+		try {
+			return (ThreadFactory) FACTORY.invoke(NAME.invoke(OF_VIRTUAL.invoke(), prefix, 0L));
+		} catch (Throwable e) {
+			throw new IllegalStateException("virtual threads are not supported by this JVM", e);
+		}
+	}
+
+	// 작업마다 새 가상 스레드에서 실행한다. 풀이 없으므로 동시 실행수는 제한되지 않는다.
+	public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+		try {
+			return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(factory(prefix));
+		} catch (Throwable e) {
+			throw new IllegalStateException("virtual threads are not supported by this JVM", e);
+		}
+	}
+
+	// synchronized 안에서 블로킹되면 가상 스레드가 캐리어 스레드를 놓지 않는다(pinning).
+	// MySQL 드라이버(Connector/J 8.0)는 SQL을 실행하는 동안 synchronized를 잡고 있으므로,
+	// 캐리어 스레드가 커넥션 풀 크기보다 적으면 커넥션이 남아도 SQL을 실행하지 못한다.
+	// JVM 옵션(-Djdk.virtualThreadScheduler.parallelism)으로 정했으면 바꾸지 않는다.
+	public static void ensureParallelism(int parallelism) {
+		int cores = Runtime.getRuntime().availableProcessors();
+		if(System.getProperty(PARALLELISM_PROPERTY) == null && parallelism > cores) {
+			System.setProperty(PARALLELISM_PROPERTY, String.valueOf(parallelism));
+			log.info("virtual thread carriers : {}", parallelism);
+		}
+	}
+}
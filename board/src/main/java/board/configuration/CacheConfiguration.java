@@ -0,0 +1,36 @@
+package board.configuration;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+	
+	// 게시글 상세(게시글 + 첨부파일 목록) 캐시
+	public static final String BOARD_DETAIL = "boardDetail";
+	public static final String JPA_BOARD_DETAIL = "jpaBoardDetail";
+	
+	// 캐시 이름을 미리 등록해야 actuator의 cache 메트릭(cache.gets, cache.evictions 등)에 노출된다.
+	@Bean
+	public CacheManager cacheManager(
+			@Value("${board.cache.detail.maximum-size:10000}") long maximumSize,
+			@Value("${board.cache.detail.expire-after-write-seconds:60}") long expireAfterWrite) {
+		CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+		cacheManager.setCaffeine(Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(expireAfterWrite, TimeUnit.SECONDS)
+				.recordStats());
+		cacheManager.setCacheNames(Arrays.asList(BOARD_DETAIL, JPA_BOARD_DETAIL));
+		return cacheManager;
+	}
+}
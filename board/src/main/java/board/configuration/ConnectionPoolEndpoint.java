@@ -0,0 +1,49 @@
+package board.configuration;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import board.configuration.ConnectionPoolTuner.PoolSettings;
+
+// GET /actuator/connectionpool : 풀별 설정과 사용중(active), 유휴(idle), 대기(pending) 커넥션 수, 사용률
+// POST /actuator/connectionpool {"pool": "primary", "maximumPoolSize": 30, "connectionTimeout": 3000} : 보낸 값만 바꾼다.
+// 다시 시작하면 설정 파일의 값으로 돌아가므로 계속 사용할 값은 설정 서버에도 반영한다.
+@Component
+@Endpoint(id = "connectionpool")
+public class ConnectionPoolEndpoint {
+
+	@Autowired
+	private ConnectionPoolTuner connectionPoolTuner;
+
+	@ReadOperation
+	public Map<String, Object> pools() {
+		return connectionPoolTuner.status();
+	}
+
+	@WriteOperation
+	public Map<String, Object> tune(String pool, @Nullable Integer maximumPoolSize, @Nullable Integer minimumIdle,
+			@Nullable Long connectionTimeout, @Nullable Long idleTimeout, @Nullable Long maxLifetime,
+			@Nullable Long validationTimeout, @Nullable Long leakDetectionThreshold) {
+		PoolSettings settings = new PoolSettings();
+		settings.setMaximumPoolSize(maximumPoolSize);
+		settings.setMinimumIdle(minimumIdle);
+		settings.setConnectionTimeout(connectionTimeout);
+		settings.setIdleTimeout(idleTimeout);
+		settings.setMaxLifetime(maxLifetime);
+		settings.setValidationTimeout(validationTimeout);
+		settings.setLeakDetectionThreshold(leakDetectionThreshold);
+		try {
+			connectionPoolTuner.tune(pool, settings);
+		} catch (IllegalArgumentException e) {
+			throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+		}
+		return pools();
+	}
+}
@@ -0,0 +1,189 @@
+package board.configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+// 실행중인 커넥션 풀의 크기와 타임아웃을 바꾼다. 풀을 다시 만들지 않으므로 사용중인 커넥션은 그대로 유지된다.
+// 설정을 바꾸고 /actuator/refresh 하거나 POST /actuator/connectionpool 로 바꿀수 있다.
+//   primary : spring.datasource.hikari.*, replica : spring.datasource.replica.hikari.*
+// 히카리CP가 실행중에 바꿀수 있는 값(HikariConfigMXBean)만 바꾸고 jdbc-url 같은 나머지 설정은 다시 시작해야 적용된다.
+// 설정에서 값을 지우면 이전 값을 그대로 사용한다.
+@Slf4j
+public class ConnectionPoolTuner implements MeterBinder {
+
+	private static final Map<String, String> PREFIXES = new LinkedHashMap<>();
+
+	static {
+		PREFIXES.put("primary", "spring.datasource.hikari");
+		PREFIXES.put("replica", "spring.datasource.replica.hikari");
+	}
+
+	// 복제 DB를 사용하지 않으면 primary만 있다.
+	private final Map<String, HikariDataSource> pools;
+
+	private final Environment environment;
+
+	// 바꿀 값, null이면 바꾸지 않는다.
+	@Data
+	public static class PoolSettings {
+		private Integer maximumPoolSize;
+		private Integer minimumIdle;
+		private Long connectionTimeout;
+		private Long idleTimeout;
+		private Long maxLifetime;
+		private Long validationTimeout;
+		private Long leakDetectionThreshold;
+	}
+
+	public ConnectionPoolTuner(Map<String, HikariDataSource> pools, Environment environment) {
+		this.pools = pools;
+		this.environment = environment;
+	}
+
+	// 바뀐 설정이 커넥션 풀 설정이면 다시 읽어서 적용한다. 잘못된 값이면 로그만 남기고 이전 값을 유지한다.
+	@EventListener
+	public void onEnvironmentChange(EnvironmentChangeEvent event) {
+		Binder binder = Binder.get(environment);
+		for(Map.Entry<String, String> prefix : PREFIXES.entrySet()) {
+			if(pools.containsKey(prefix.getKey()) == false
+					|| event.getKeys().stream().noneMatch(key -> key.startsWith(prefix.getValue() + "."))) {
+				continue;
+			}
+			PoolSettings settings = binder.bind(prefix.getValue(), PoolSettings.class).orElseGet(PoolSettings::new);
+			try {
+				tune(prefix.getKey(), settings);
+			} catch (IllegalArgumentException e) {
+				log.warn("{} pool settings were not changed : {}", prefix.getKey(), e.getMessage());
+			}
+		}
+	}
+
+	// 모든 값을 확인한후에 바꾸므로 잘못된 값이 있으면 아무것도 바꾸지 않는다.
+	public synchronized Map<String, Object> tune(String pool, PoolSettings settings) {
+		HikariDataSource dataSource = pools.get(pool);
+		if(dataSource == null) {
+			throw new IllegalArgumentException("unknown pool : " + pool + ", pools : " + pools.keySet());
+		}
+		HikariConfigMXBean config = dataSource.getHikariConfigMXBean();
+		int maximumPoolSize = settings.getMaximumPoolSize() != null ? settings.getMaximumPoolSize() : config.getMaximumPoolSize();
+		int minimumIdle = settings.getMinimumIdle() != null ? settings.getMinimumIdle() : Math.min(config.getMinimumIdle(), maximumPoolSize);
+		if(maximumPoolSize < 1) {
+			throw new IllegalArgumentException("maximumPoolSize must be at least 1");
+		}
+		if(minimumIdle < 0 || minimumIdle > maximumPoolSize) {
+			throw new IllegalArgumentException("minimumIdle must be between 0 and maximumPoolSize(" + maximumPoolSize + ")");
+		}
+		checkTimeout("connectionTimeout", settings.getConnectionTimeout(), 250);
+		checkTimeout("validationTimeout", settings.getValidationTimeout(), 250);
+		checkTimeout("idleTimeout", settings.getIdleTimeout(), 0);
+		checkTimeout("maxLifetime", settings.getMaxLifetime(), 0);
+		checkTimeout("leakDetectionThreshold", settings.getLeakDetectionThreshold(), 0);
+
+		Map<String, Object> before = settings(config);
+		// 줄일때는 최소 유휴 커넥션 수를 먼저 줄이고 늘릴때는 최대 크기를 먼저 늘린다.
+		if(maximumPoolSize < config.getMaximumPoolSize()) {
+			config.setMinimumIdle(minimumIdle);
+			config.setMaximumPoolSize(maximumPoolSize);
+		} else {
+			config.setMaximumPoolSize(maximumPoolSize);
+			config.setMinimumIdle(minimumIdle);
+		}
+		if(settings.getConnectionTimeout() != null) {
+			config.setConnectionTimeout(settings.getConnectionTimeout());
+		}
+		if(settings.getValidationTimeout() != null) {
+			config.setValidationTimeout(settings.getValidationTimeout());
+		}
+		if(settings.getIdleTimeout() != null) {
+			config.setIdleTimeout(settings.getIdleTimeout());
+		}
+		if(settings.getMaxLifetime() != null) {
+			config.setMaxLifetime(settings.getMaxLifetime());
+		}
+		if(settings.getLeakDetectionThreshold() != null) {
+			config.setLeakDetectionThreshold(settings.getLeakDetectionThreshold());
+		}
+
+		Map<String, Object> after = settings(config);
+		if(after.equals(before) == false) {
+			log.info("{} pool settings changed from {} to {}", pool, before, after);
+		}
+		return after;
+	}
+
+	// 풀별 설정과 사용중인 커넥션 수
+	public Map<String, Object> status() {
+		Map<String, Object> status = new LinkedHashMap<>();
+		for(Map.Entry<String, HikariDataSource> pool : pools.entrySet()) {
+			Map<String, Object> values = new LinkedHashMap<>(settings(pool.getValue().getHikariConfigMXBean()));
+			HikariPoolMXBean connections = pool.getValue().getHikariPoolMXBean();
+			if(connections != null) {
+				values.put("active", connections.getActiveConnections());
+				values.put("idle", connections.getIdleConnections());
+				values.put("total", connections.getTotalConnections());
+				values.put("pending", connections.getThreadsAwaitingConnection());
+				values.put("utilization", utilization(pool.getValue()));
+			}
+			status.put(pool.getKey(), values);
+		}
+		return status;
+	}
+
+	// 히카리CP 지표(hikaricp.connections.*)는 스프링 부트가 DataSource 빈에서 찾은 primary에만 등록되므로 나머지 풀에도 등록한다.
+	// board.datasource.pool.utilization : 최대 크기 대비 사용중인 커넥션 비율. 1에 가까우면 pending(대기)과 함께 보고 풀 크기를 늘린다.
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		for(Map.Entry<String, HikariDataSource> pool : pools.entrySet()) {
+			HikariDataSource dataSource = pool.getValue();
+			if(dataSource.getMetricRegistry() == null && dataSource.getMetricsTrackerFactory() == null) {
+				dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+			}
+			Gauge.builder("board.datasource.pool.utilization", dataSource, ConnectionPoolTuner::utilization)
+					.tag("pool", pool.getKey())
+					.description("active connections / maximum pool size")
+					.register(registry);
+		}
+	}
+
+	private static double utilization(HikariDataSource dataSource) {
+		HikariPoolMXBean connections = dataSource.getHikariPoolMXBean();
+		if(connections == null) {
+			return Double.NaN;
+		}
+		return (double) connections.getActiveConnections() / dataSource.getHikariConfigMXBean().getMaximumPoolSize();
+	}
+
+	private static Map<String, Object> settings(HikariConfigMXBean config) {
+		Map<String, Object> settings = new LinkedHashMap<>();
+		settings.put("maximumPoolSize", config.getMaximumPoolSize());
+		settings.put("minimumIdle", config.getMinimumIdle());
+		settings.put("connectionTimeout", config.getConnectionTimeout());
+		settings.put("validationTimeout", config.getValidationTimeout());
+		settings.put("idleTimeout", config.getIdleTimeout());
+		settings.put("maxLifetime", config.getMaxLifetime());
+		settings.put("leakDetectionThreshold", config.getLeakDetectionThreshold());
+		return settings;
+	}
+
+	private static void checkTimeout(String name, Long millis, long minimum) {
+		if(millis != null && millis < minimum) {
+			throw new IllegalArgumentException(name + " must be at least " + minimum + " ms");
+		}
+	}
+}
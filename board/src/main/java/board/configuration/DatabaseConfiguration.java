@@ -1,33 +1,82 @@
 package board.configuration;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 
+import javax.annotation.PreDestroy;
 import javax.sql.DataSource;
 
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.mybatis.spring.SqlSessionFactoryBean;
 import org.mybatis.spring.SqlSessionTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DatabaseDriver;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.util.StringUtils;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
+import board.common.VirtualThreads;
+import board.jdbc.JdbcProfiler;
+import board.jdbc.ProfilingDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
 @Configuration
+@Slf4j
 // @PropertySource("classpath:/application.properties") // 설정파일의 위치를 지정해 줍니다.
 // @EnableTransactionManagement // 트랜잭션을 활성화 한다. 
 public class DatabaseConfiguration {
 	
+	public static final String BATCH_SQL_SESSION_TEMPLATE = "batchSqlSessionTemplate";
+	
+	private static final String LOG4JDBC_URL_PREFIX = "jdbc:log4jdbc:";
+	private static final String LOG4JDBC_DRIVER = "net.sf.log4jdbc.sql.jdbcapi.DriverSpy";
+	
 	@Autowired
 	private ApplicationContext applicationContext;
 	
+	// 내보내기 조회의 fetchSize. MySQL은 Integer.MIN_VALUE일때 결과를 메모리에 모으지 않고 한 행씩 받는다.
+	@Value("${board.export.fetch-size:" + Integer.MIN_VALUE + "}")
+	private int exportFetchSize;
+	
+	// 따로 통계를 모을 SQL 모양 수
+	@Value("${board.jdbc.max-statements:200}")
+	private int maxProfiledStatements;
+	
+	// 이 시간(ms)보다 오래 걸린 SQL을 board.jdbc.slow 로그로 남긴다. 0 이하이면 남기지 않는다.
+	@Value("${board.jdbc.slow-query-threshold:1000}")
+	private long slowQueryThresholdMillis;
+	
+	// 가상 스레드를 사용하면 커넥션을 기다리는 요청 수가 톰캣 스레드 수로 제한되지 않으므로 커넥션 풀이 먼저 부족해진다.
+	// spring.datasource.hikari.maximum-pool-size를 정하지 않았으면 이 크기를 사용한다.
+	@Value("${board.threads.virtual.enabled:false}")
+	private boolean virtualThreads;
+	
+	@Value("${board.threads.virtual.maximum-pool-size:50}")
+	private int virtualThreadsMaximumPoolSize;
+	
+	// 복제 DB 상태 확인과 종료에 사용한다.
+	private ReplicaRoutingDataSource routingDataSource;
+	
+	// 실행중에 크기와 타임아웃을 바꿀 커넥션 풀 (primary, replica)
+	private final Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+	
 	// spring.datasource.hikari로 시작하는 설정을 이용하여 설정파일을 만듭니다.
 	@Bean
 	@ConfigurationProperties(prefix = "spring.datasource.hikari") 
@@ -35,14 +84,101 @@ public class DatabaseConfiguration {
 		return new HikariConfig();
 	}
 	
+	// spring.datasource.replica.hikari로 시작하는 설정으로 복제(replica) DB의 설정을 만든다. jdbc-url이 없으면 복제 DB를 사용하지 않는다.
+	// 복제 DB가 멈춰도 애플리케이션이 시작되고, 커넥션을 오래 기다리지 않고 원본으로 넘어가도록 기본값을 바꾼다.
+	@Bean
+	@ConfigurationProperties(prefix = "spring.datasource.replica.hikari")
+	public HikariConfig replicaHikariConfig() {
+		HikariConfig config = new HikariConfig();
+		config.setPoolName("replica");
+		config.setReadOnly(true);
+		config.setInitializationFailTimeout(-1);
+		config.setConnectionTimeout(1000);
+		return config;
+	}
+	
 	// 히카CP의 설정 파일을 이용하여 데이터베이스와 연결하는 데이터 소스를 생성합니다.
+	// 원본(primary) DB와 복제 DB의 커넥션 풀을 만들고 읽기 전용 트랜잭션(TransactionAspect의 select*)을 복제 DB로 보낸다.
+	// 트랜잭션이 시작될때가 아니라 첫번째 SQL을 실행할때 커넥션을 가져와야 읽기 전용 트랜잭션인지 알수 있다.
+	// 커넥션 풀을 빈으로 등록하면 스프링 부트의 DataSource 초기화와 순환참조가 생기므로 이 빈 안에서 만든다.
+	// 각 커넥션 풀은 ProfilingDataSource로 감싸서 SQL 실행시간을 기록한다.
 	@Bean
+	@Primary
 	public DataSource dataSource() throws Exception{
-		DataSource dataSource = new HikariDataSource(hikariConfig());
-		System.out.println(dataSource.toString());
-		return dataSource;
+		HikariConfig primaryConfig = withoutLog4jdbc(hikariConfig());
+		if(virtualThreads && VirtualThreads.isSupported()) {
+			sizeForVirtualThreads(primaryConfig);
+		}
+		HikariDataSource primaryPool = new HikariDataSource(primaryConfig);
+		System.out.println(primaryPool.toString());
+		pools.put("primary", primaryPool);
+		DataSource primary = new ProfilingDataSource(primaryPool, "primary", jdbcProfiler());
+		
+		DataSource replica = null;
+		if(StringUtils.hasText(replicaHikariConfig().getJdbcUrl())) {
+			HikariDataSource replicaPool = new HikariDataSource(withoutLog4jdbc(replicaHikariConfig()));
+			pools.put("replica", replicaPool);
+			replica = new ProfilingDataSource(replicaPool, "replica", jdbcProfiler());
+		}
+		routingDataSource = new ReplicaRoutingDataSource(primary, replica);
+		return new LazyConnectionDataSourceProxy(routingDataSource);
 	}
 	
+	// SQL 모양별 실행시간과 행 수, 커넥션 대기시간 (/actuator/jdbcprofile)
+	@Bean
+	public JdbcProfiler jdbcProfiler() {
+		return new JdbcProfiler(maxProfiledStatements, slowQueryThresholdMillis);
+	}
+	
+	// 커넥션을 가진 요청이 모두 동시에 SQL을 실행할수 있도록 캐리어 스레드도 풀 크기 만큼 둔다.
+	private void sizeForVirtualThreads(HikariConfig config) {
+		if(config.getMaximumPoolSize() < 1) {
+			config.setMaximumPoolSize(virtualThreadsMaximumPoolSize);
+		}
+		VirtualThreads.ensureParallelism(config.getMaximumPoolSize());
+		log.info("primary pool maximum size for virtual threads : {}", config.getMaximumPoolSize());
+	}
+	
+	// log4jdbc를 제거했으므로 설정 서버에 남아있는 jdbc:log4jdbc: 주소와 DriverSpy는 원래 드라이버로 바꿔서 사용한다.
+	private HikariConfig withoutLog4jdbc(HikariConfig config) {
+		String jdbcUrl = config.getJdbcUrl();
+		if(jdbcUrl != null && jdbcUrl.startsWith(LOG4JDBC_URL_PREFIX)) {
+			jdbcUrl = "jdbc:" + jdbcUrl.substring(LOG4JDBC_URL_PREFIX.length());
+			config.setJdbcUrl(jdbcUrl);
+			if(LOG4JDBC_DRIVER.equals(config.getDriverClassName())) {
+				config.setDriverClassName(DatabaseDriver.fromJdbcUrl(jdbcUrl).getDriverClassName());
+			}
+			log.warn("log4jdbc is no longer used, connecting to {} directly", jdbcUrl);
+		}
+		return config;
+	}
+	
+	// 커넥션 풀 크기와 타임아웃 변경, 풀 사용률 지표 (/actuator/connectionpool)
+	// 풀은 dataSource 빈에서 만들어지므로 dataSource를 먼저 만든다.
+	@Bean
+	public ConnectionPoolTuner connectionPoolTuner(DataSource dataSource, Environment environment) {
+		return new ConnectionPoolTuner(pools, environment);
+	}
+	
+	@Bean
+	public MeterBinder replicaRoutingMetrics(DataSource dataSource) throws Exception {
+		return dataSource.unwrap(ReplicaRoutingDataSource.class)::bindTo;
+	}
+	
+	@Scheduled(fixedDelayString = "${board.datasource.replica.health-check-interval:5000}")
+	public void checkReplica() {
+		if(routingDataSource != null) {
+			routingDataSource.checkReplica();
+		}
+	}
+	
+	// 데이터 소스를 사용하는 빈이 모두 종료된 후에 커넥션 풀을 닫는다.
+	@PreDestroy
+	public void closeDataSource() {
+		if(routingDataSource != null) {
+			routingDataSource.close();
+		}
+	}
 	
 	@Bean
 	public SqlSessionFactory sqlSessionFactory(DataSource dataSource) throws Exception {
@@ -58,14 +194,27 @@ public class DatabaseConfiguration {
 		);
 		// 스네이크표기법 컬럼을 카멜케이스표기법으로 변경하는 설
 		sqlSessionFactoryBean.setConfiguration(mybatisConfig());
+		// 매퍼 XML에서 ${board.export.fetch-size}처럼 사용할 설정값
+		Properties variables = new Properties();
+		variables.setProperty("board.export.fetch-size", String.valueOf(exportFetchSize));
+		sqlSessionFactoryBean.setConfigurationProperties(variables);
 		return sqlSessionFactoryBean.getObject();
 	}
 	
+	// 매퍼 인터페이스는 기본 템플릿을 사용한다.
 	@Bean
+	@Primary
 	public SqlSessionTemplate sqlSessionTemplate(SqlSessionFactory sqlSessionFactory) {
 		return new SqlSessionTemplate(sqlSessionFactory);
 	}
 	
+	// 대량 등록용 템플릿. 문장을 모아두었다가 flushStatements나 커밋할때 JDBC 배치로 한번에 실행한다.
+	// 트랜잭션 안에서 실행 방식을 바꿀수 없으므로 기본 템플릿을 사용하지 않은 트랜잭션에서만 사용한다.
+	@Bean(name = BATCH_SQL_SESSION_TEMPLATE)
+	public SqlSessionTemplate batchSqlSessionTemplate(SqlSessionFactory sqlSessionFactory) {
+		return new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+	}
+	
 	@Bean
 	@ConfigurationProperties(prefix = "mybatis.configuration")
 	public org.apache.ibatis.session.Configuration mybatisConfig() {
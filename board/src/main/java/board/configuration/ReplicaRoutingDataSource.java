@@ -0,0 +1,151 @@
+package board.configuration;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+// 읽기 전용 트랜잭션은 복제(replica) DB로, 나머지는 원본(primary) DB로 보낸다.
+// 복제 DB에서 커넥션을 얻지 못하면 원본 DB를 사용하고, 주기적으로 복제 DB를 확인해서 살아나면 다시 사용한다.
+// 트랜잭션이 시작된 후에 커넥션을 가져와야 하므로 LazyConnectionDataSourceProxy로 감싸서 사용한다.
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder, Closeable {
+	
+	private static final String PRIMARY = "primary";
+	private static final String REPLICA = "replica";
+	
+	// usePrimary 안에서 가져오는 커넥션은 읽기 전용 트랜잭션이라도 원본 DB를 사용한다.
+	private static final ThreadLocal<Boolean> primaryOnly = new ThreadLocal<>();
+	
+	private final DataSource primary;
+	
+	// 복제 DB를 설정하지 않았으면 null
+	private final DataSource replica;
+	
+	private volatile boolean replicaHealthy;
+	
+	private final AtomicLong fallbackCount = new AtomicLong();
+	
+	public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+		this.primary = primary;
+		this.replica = replica;
+		this.replicaHealthy = replica != null;
+		
+		Map<Object, Object> targetDataSources = new HashMap<>();
+		targetDataSources.put(PRIMARY, primary);
+		if(replica != null) {
+			targetDataSources.put(REPLICA, replica);
+		}
+		setTargetDataSources(targetDataSources);
+		setDefaultTargetDataSource(primary);
+		afterPropertiesSet();
+	}
+	
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("board.datasource.replica.healthy", this, routing -> routing.replicaHealthy ? 1 : 0)
+				.description("1 if read-only transactions are routed to the replica")
+				.register(registry);
+		FunctionCounter.builder("board.datasource.replica.fallback", fallbackCount, AtomicLong::get)
+				.description("read-only connections served by the primary because the replica failed")
+				.register(registry);
+	}
+	
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if(replicaHealthy && primaryOnly.get() == null && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return REPLICA;
+		}
+		return PRIMARY;
+	}
+	
+	@Override
+	public Connection getConnection() throws SQLException {
+		DataSource target = determineTargetDataSource();
+		if(target == primary) {
+			return primary.getConnection();
+		}
+		try {
+			return target.getConnection();
+		} catch (SQLException e) {
+			replicaDown(e);
+			fallbackCount.incrementAndGet();
+			return primary.getConnection();
+		}
+	}
+	
+	// 캐시에 넣을 값은 원본 DB에서 읽어야 복제 지연으로 수정 전의 값이 캐시 기간 동안 남지 않는다.
+	// 트랜잭션에서 이미 가져온 커넥션은 바꾸지 않으므로 트랜잭션의 첫 조회부터 감싸야 한다.
+	public static <T> T usePrimary(Callable<T> callable) throws Exception {
+		if(primaryOnly.get() != null) {
+			return callable.call();
+		}
+		primaryOnly.set(Boolean.TRUE);
+		try {
+			return callable.call();
+		} finally {
+			primaryOnly.remove();
+		}
+	}
+	
+	// 복제 DB가 응답하는지 확인한다. 사용하지 않는 동안에도 확인해서 복구되면 다시 사용한다.
+	public void checkReplica() {
+		if(replica == null) {
+			return;
+		}
+		try (Connection connection = replica.getConnection()) {
+			if(connection.isValid(1)) {
+				if(replicaHealthy == false) {
+					log.info("replica is back, routing read-only transactions to the replica");
+					replicaHealthy = true;
+				}
+				return;
+			}
+			replicaDown(null);
+		} catch (SQLException e) {
+			replicaDown(e);
+		}
+	}
+	
+	public boolean isReplicaHealthy() {
+		return replicaHealthy;
+	}
+	
+	@Override
+	public void close() {
+		closeQuietly(primary);
+		closeQuietly(replica);
+	}
+	
+	private void closeQuietly(DataSource dataSource) {
+		if(dataSource instanceof Closeable) {
+			try {
+				((Closeable) dataSource).close();
+			} catch (IOException e) {
+				log.warn("failed to close data source", e);
+			}
+		}
+	}
+	
+	private void replicaDown(SQLException e) {
+		if(replicaHealthy) {
+			log.warn("replica is unavailable, routing read-only transactions to the primary", e);
+			replicaHealthy = false;
+		}
+	}
+}
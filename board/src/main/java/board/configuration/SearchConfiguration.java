@@ -0,0 +1,45 @@
+package board.configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+
+import board.dto.BoardDto;
+import board.entity.BoardEntity;
+import board.mapper.BoardMapper;
+import board.repository.JpaBoardRepository;
+import board.search.SearchDocument;
+import board.search.SearchIndex;
+
+// 게시판(MyBatis)과 JPA 게시판은 글번호가 따로 매겨지므로 색인도 따로 만든다.
+@Configuration
+public class SearchConfiguration {
+	
+	public static final String BOARD_SEARCH_INDEX = "boardSearchIndex";
+	public static final String JPA_BOARD_SEARCH_INDEX = "jpaBoardSearchIndex";
+	
+	@Bean(name = BOARD_SEARCH_INDEX)
+	public SearchIndex boardSearchIndex(BoardMapper boardMapper) {
+		return new SearchIndex("board", (afterIdx, size) -> {
+			List<SearchDocument> documents = new ArrayList<>();
+			for(BoardDto board : boardMapper.selectBoardIndexList(afterIdx, size)) {
+				documents.add(new SearchDocument(board.getBoardIdx(), board.getTitle(), board.getContents()));
+			}
+			return documents;
+		});
+	}
+	
+	@Bean(name = JPA_BOARD_SEARCH_INDEX)
+	public SearchIndex jpaBoardSearchIndex(JpaBoardRepository jpaBoardRepository) {
+		return new SearchIndex("jpaBoard", (afterIdx, size) -> {
+			List<SearchDocument> documents = new ArrayList<>();
+			for(BoardEntity board : jpaBoardRepository.findByBoardIdxGreaterThanOrderByBoardIdxAsc(afterIdx, PageRequest.of(0, size))) {
+				documents.add(new SearchDocument(board.getBoardIdx(), board.getTitle(), board.getContents()));
+			}
+			return documents;
+		});
+	}
+}
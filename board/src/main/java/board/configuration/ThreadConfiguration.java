@@ -0,0 +1,90 @@
+package board.configuration;
+
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskSchedulerCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+
+import board.common.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
+
+// board.threads.virtual.enabled=true 이면 톰캣 요청 처리, @Async(MVC 비동기 포함), @Scheduled 를 가상 스레드로 실행한다.
+// 요청 처리는 대부분 DB와 디스크를 기다리므로 톰캣 스레드 수(server.tomcat.max-threads)에 막히지 않고 동시에 처리한다.
+// 커넥션 풀 크기는 DatabaseConfiguration에서 함께 맞춘다.
+@Configuration
+@ConditionalOnProperty("board.threads.virtual.enabled")
+@Slf4j
+public class ThreadConfiguration {
+
+	@PostConstruct
+	public void init() {
+		if(VirtualThreads.isSupported() == false) {
+			log.warn("board.threads.virtual.enabled is set but virtual threads need Java 21 or later (running {}), using platform threads",
+					System.getProperty("java.version"));
+		}
+	}
+
+	// 중첩 클래스도 따로 컴포넌트 스캔되므로 조건을 다시 붙인다.
+	@Configuration
+	@ConditionalOnProperty("board.threads.virtual.enabled")
+	@Conditional(OnVirtualThreadsSupported.class)
+	public static class VirtualThreadConfiguration {
+
+		private final ExecutorService taskExecutor = VirtualThreads.newThreadPerTaskExecutor("task-");
+
+		// 톰캣이 요청마다 새 가상 스레드를 만든다. server.tomcat.max-threads는 사용하지 않는다.
+		@Bean
+		public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadTomcatCustomizer() {
+			return factory -> factory.addConnectorCustomizers(connector -> {
+				if(connector.getProtocolHandler() instanceof AbstractProtocol) {
+					((AbstractProtocol<?>) connector.getProtocolHandler())
+							.setExecutor(VirtualThreads.newThreadPerTaskExecutor("http-virtual-"));
+				}
+			});
+		}
+
+		// 스프링 부트의 applicationTaskExecutor 대신 사용한다.
+		@Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+				AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+		public ConcurrentTaskExecutor applicationTaskExecutor() {
+			return new ConcurrentTaskExecutor(taskExecutor);
+		}
+
+		// 실행 시각은 스케줄러가 관리하고 작업은 가상 스레드에서 실행한다.
+		@Bean
+		public TaskSchedulerCustomizer virtualThreadTaskSchedulerCustomizer() {
+			return taskScheduler -> taskScheduler.setThreadFactory(VirtualThreads.factory("scheduling-"));
+		}
+
+		@PreDestroy
+		public void destroy() {
+			taskExecutor.shutdown();
+		}
+	}
+
+	static class OnVirtualThreadsSupported extends SpringBootCondition {
+		@Override
+		public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+			if(VirtualThreads.isSupported()) {
+				return ConditionOutcome.match("virtual threads are supported");
+			}
+			return ConditionOutcome.noMatch("virtual threads need Java 21 or later");
+		}
+	}
+}
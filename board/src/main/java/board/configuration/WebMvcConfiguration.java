@@ -1,28 +1,61 @@
 package board.configuration;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.multipart.commons.CommonsMultipartResolver;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import board.common.AttachmentStore;
+import board.common.StreamingMultipartResolver;
 import board.interceptor.LoggerInterceptor;
+import lombok.extern.slf4j.Slf4j;
 
 @Configuration
+@Slf4j
 public class WebMvcConfiguration implements WebMvcConfigurer {
 	
+	private static final String UPLOAD_PREFIX = "board.upload.";
+	
+	@Autowired
+	private ApplicationContext applicationContext;
+	
+	@Autowired
+	private Environment environment;
+	
 	@Override
 	public void addInterceptors(InterceptorRegistry registry) {
 		registry.addInterceptor(new LoggerInterceptor());
 	}
 	
 	// Multipart 설정 
+	// 임시파일을 거치지 않고 요청을 읽으면서 바로 최종 위치에 저장한다.
 	@Bean
-	public CommonsMultipartResolver multipartResolver() {
-		CommonsMultipartResolver commonsMultipartResolver = new CommonsMultipartResolver();
-		commonsMultipartResolver.setDefaultEncoding("UTF-8");
-		commonsMultipartResolver.setMaxUploadSizePerFile(5 * 1045 * 1024);
-		return commonsMultipartResolver;
+	public StreamingMultipartResolver multipartResolver(AttachmentStore attachmentStore) {
+		StreamingMultipartResolver multipartResolver = new StreamingMultipartResolver(attachmentStore);
+		multipartResolver.setDefaultEncoding("UTF-8");
+		applyUploadLimits(multipartResolver);
+		return multipartResolver;
+	}
+	
+	// board.upload.max-file-size, board.upload.max-request-size를 바꾸고 /actuator/refresh 하면 다음 요청부터 적용한다.
+	@EventListener
+	public void onEnvironmentChange(EnvironmentChangeEvent event) {
+		if(event.getKeys().stream().anyMatch(key -> key.startsWith(UPLOAD_PREFIX))) {
+			StreamingMultipartResolver multipartResolver = applicationContext.getBean(StreamingMultipartResolver.class);
+			applyUploadLimits(multipartResolver);
+			log.info("upload limits changed : max-file-size {}, max-request-size {}",
+					multipartResolver.getMaxUploadSizePerFile(), multipartResolver.getMaxUploadSize());
+		}
+	}
+	
+	private void applyUploadLimits(StreamingMultipartResolver multipartResolver) {
+		multipartResolver.setMaxUploadSizePerFile(environment.getProperty(UPLOAD_PREFIX + "max-file-size", Long.class, 5242880L));
+		multipartResolver.setMaxUploadSize(environment.getProperty(UPLOAD_PREFIX + "max-request-size", Long.class, 52428800L));
 	}
 	
 	/*
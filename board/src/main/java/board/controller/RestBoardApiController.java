@@ -3,11 +3,16 @@ package board.controller;
 import java.io.File;
 import java.net.URLEncoder;
 import java.util.List;
+import java.util.concurrent.Semaphore;
 
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.io.FileUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.util.ObjectUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,11 +23,21 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
 import org.springframework.web.servlet.ModelAndView;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import board.common.BoardExportWriter;
 import board.dto.BoardDto;
 import board.dto.BoardFileDto;
+import board.dto.BoardVersionDto;
+import board.dto.BulkInsertResultDto;
+import board.dto.CursorPageDto;
+import board.dto.SearchPageDto;
+import board.dto.SearchResultDto;
 import board.service.BoardService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -32,13 +47,48 @@ import io.swagger.annotations.ApiParam;
 @RestController
 public class RestBoardApiController {
 
+	private static final String NDJSON_VALUE = "application/x-ndjson";
+
 	@Autowired
 	private BoardService boardService;
 	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	// 동시에 실행할수 있는 내보내기 수
+	@Value("${board.export.max-concurrent:2}")
+	private int exportMaxConcurrent;
+	
+	private Semaphore exportPermits;
+	
+	@PostConstruct
+	public void init() {
+		exportPermits = new Semaphore(exportMaxConcurrent);
+	}
+	
 	
+	// 응답의 nextAfterIdx를 다음 요청의 afterIdx로 넘겨주면 다음 페이지를 조회한다.
+	// 목록을 조회하기 전에 버전만 확인해서 바뀐것이 없으면 304로 응답한다.
+	@ApiOperation(value = "게시글 목록 조회")
 	@GetMapping("/api/board")
-	public List<BoardDto> openBoardList() throws Exception {
-		return boardService.selectBoardList();
+	public CursorPageDto<BoardDto> openBoardList(
+			@RequestParam(required = false) @ApiParam(value="이전 페이지의 nextAfterIdx") Integer afterIdx,
+			@RequestParam(defaultValue = "20") @ApiParam(value="페이지 크기") int pageSize,
+			HttpServletRequest request, HttpServletResponse response) throws Exception {
+		if(checkNotModified(request, response, boardService.selectBoardListVersion())) {
+			return null;
+		}
+		return boardService.selectBoardList(afterIdx, pageSize);
+	}
+	
+	// 제목과 내용에서 검색어의 모든 단어가 들어있는 글을 관련도 순서로 조회한다.
+	@ApiOperation(value = "게시글 검색")
+	@GetMapping("/api/board/search")
+	public SearchPageDto<SearchResultDto> searchBoard(
+			@RequestParam @ApiParam(value="검색어", required=true) String q,
+			@RequestParam(defaultValue = "0") @ApiParam(value="페이지 번호(0부터 시작)") int page,
+			@RequestParam(defaultValue = "20") @ApiParam(value="페이지 크기") int pageSize) throws Exception {
+		return boardService.searchBoard(q, page, pageSize);
 	}
 	
 	// post나 put은 http body에서 값을 가져오기 때문에 @RequestBody사용한다. 
@@ -47,9 +97,52 @@ public class RestBoardApiController {
 		boardService.insertBoard(board, null);
 	}
 	
+	// JSON 배열이나 한줄에 게시글 하나씩 쓴 NDJSON을 받는다.
+	// 요청 본문을 한번에 읽지 않고 읽는 만큼 chunk 단위로 등록하고 생성된 글번호를 순서대로 돌려준다.
+	@ApiOperation(value = "게시글 대량 등록")
+	@PostMapping(value = "/api/board/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON_VALUE})
+	public BulkInsertResultDto insertBoardBulk(HttpServletRequest request) throws Exception {
+		try (MappingIterator<BoardDto> boards = objectMapper.readerFor(BoardDto.class).readValues(request.getInputStream())) {
+			return boardService.insertBoardBulk(boards);
+		}
+	}
+	
+	// 전체 게시글을 NDJSON이나 CSV로 내보낸다. 조회한 행을 바로 응답에 쓰므로 게시글 수와 상관없이 메모리 사용량이 일정하다.
+	// 내보내기는 끝날때까지 DB 커넥션을 하나 사용하므로 동시에 실행할수 있는 수를 제한한다.
+	@ApiOperation(value = "게시글 내보내기")
+	@GetMapping("/api/board/export")
+	public void exportBoard(
+			@RequestParam(defaultValue = "ndjson") @ApiParam(value="ndjson 또는 csv") String format,
+			@RequestParam(defaultValue = "false") @ApiParam(value="첨부파일 정보 포함") boolean withFiles,
+			HttpServletResponse response) throws Exception {
+		String contentType = BoardExportWriter.contentType(format);
+		if(contentType == null) {
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+			return;
+		}
+		if(exportPermits.tryAcquire() == false) {
+			response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+			return;
+		}
+		try {
+			response.setContentType(contentType);
+			response.setHeader("Content-Disposition", "attachment; fileName=\"board." + format.toLowerCase() + "\";");
+			try (BoardExportWriter writer = BoardExportWriter.of(format, response.getOutputStream(), objectMapper, withFiles)) {
+				boardService.exportBoard(withFiles, writer::write);
+			}
+		} finally {
+			exportPermits.release();
+		}
+	}
+	
+	// 바뀐것이 없어서 304로 응답할때는 조회수를 올리지 않는다.
 	@ApiOperation(value = "게시글 상세내용 조회")
 	@GetMapping("/api/board/{boardIdx}")
-	public BoardDto openBoardDetail(@PathVariable("boardIdx") @ApiParam(value="게시글 번호") int boardIdx) throws Exception {
+	public BoardDto openBoardDetail(@PathVariable("boardIdx") @ApiParam(value="게시글 번호") int boardIdx,
+			HttpServletRequest request, HttpServletResponse response) throws Exception {
+		if(checkNotModified(request, response, boardService.selectBoardVersion(boardIdx))) {
+			return null;
+		}
 		return boardService.selectBoardDetail(boardIdx);
 	}
 	
@@ -65,4 +158,16 @@ public class RestBoardApiController {
 		return "redirect:/board";
 	}
 	
+	// If-None-Match, If-Modified-Since가 현재 버전과 같으면 304를 설정하고 true를 반환한다.
+	// 조회수는 버전에 포함하지 않으므로 약한(W/) ETag를 사용한다.
+	// 목록은 버전 번호로 구분하고, 게시글은 시간이 초 단위이므로 같은 초 안에 여러번 수정하면 구분하지 못한다.
+	private boolean checkNotModified(HttpServletRequest request, HttpServletResponse response, BoardVersionDto version) {
+		if(version == null || version.getLastModified() == null) {
+			return false;
+		}
+		long lastModified = version.getLastModified().getTime();
+		String etag = "W/\"" + version.getVersion() + "-" + Long.toHexString(lastModified) + "\"";
+		return new ServletWebRequest(request, response).checkNotModified(etag, lastModified);
+	}
+	
 }
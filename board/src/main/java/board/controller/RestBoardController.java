@@ -1,12 +1,13 @@
 package board.controller;
 
-import java.io.File;
-import java.net.URLEncoder;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.apache.commons.io.FileUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.util.ObjectUtils;
@@ -19,8 +20,11 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
 import org.springframework.web.servlet.ModelAndView;
 
+import board.common.FileDownloader;
+import board.common.RenderedPageCache;
 import board.dto.BoardDto;
 import board.dto.BoardFileDto;
+import board.dto.CursorPageDto;
 import board.service.BoardService;
 
 @Controller
@@ -29,15 +33,25 @@ public class RestBoardController {
 	@Autowired
 	private BoardService boardService;
 	
+	@Autowired
+	private FileDownloader fileDownloader;
+	
+	@Autowired
+	private RenderedPageCache renderedPageCache;
+	
 	@GetMapping("/board")
-	public ModelAndView openBoardList() throws Exception {
-		
-		ModelAndView mv = new ModelAndView("/board/restBoardList");
-		
-		List<BoardDto> list = boardService.selectBoardList();
-		mv.addObject("list", list);
+	public ModelAndView openBoardList(@RequestParam(required = false) Integer afterIdx,
+			@RequestParam(defaultValue = "20") int pageSize) throws Exception {
 		
-		return mv;
+		// 목록 화면은 게시판 버전과 커서로 캐시하고, 캐시에 없을때만 조회한다.
+		return renderedPageCache.modelAndView(RenderedPageCache.BOARD, "/board/restBoardList", afterIdx + ":" + pageSize, () -> {
+			CursorPageDto<BoardDto> page = boardService.selectBoardList(afterIdx, pageSize);
+			Map<String, Object> model = new HashMap<>();
+			model.put("list", page.getList());
+			model.put("nextAfterIdx", page.getNextAfterIdx());
+			model.put("pageSize", pageSize);
+			return model;
+		});
 	}
 	
 	@GetMapping("/board/write")
@@ -53,12 +67,11 @@ public class RestBoardController {
 	
 	@GetMapping("/board/{boardIdx}")
 	public ModelAndView openBoardDetail(@PathVariable("boardIdx") int boardIdx) throws Exception {
-		ModelAndView mv = new ModelAndView("/board/restBoardDetail");
-		
 		BoardDto board = boardService.selectBoardDetail(boardIdx);
-		mv.addObject("board", board);
 		
-		return mv;
+		// 조회수는 요청마다 달라지므로 캐시된 화면에 채워서 보낸다.
+		return renderedPageCache.modelAndView(RenderedPageCache.BOARD, "/board/restBoardDetail", boardIdx,
+				() -> Collections.singletonMap("board", board), Collections.singletonMap("hitCnt", board.getHitCnt()));
 	}
 	
 	@PutMapping("/board/{boardIdx}")
@@ -76,29 +89,28 @@ public class RestBoardController {
 	
 	@GetMapping("/board/file")
 	public void downloadBoardFile(@RequestParam int idx, 
-			@RequestParam int boardIdx, HttpServletResponse response) throws Exception {
+			@RequestParam int boardIdx, HttpServletRequest request, HttpServletResponse response) throws Exception {
 		
 		BoardFileDto boardFile = boardService.selectBoardFileInfomation(idx, boardIdx);
 		if(ObjectUtils.isEmpty(boardFile) == false) {
-			String fileName = boardFile.getOriginalFileName();
-			
-			// 파일을 읽어온후 바이트 배열 형태로 변환합니다. org.apache.commons.io 패키지의 FileUtils이다. 
-			byte[] files = FileUtils.readFileToByteArray(new File(boardFile.getStoredFilePath()));
-			
-			// response의 헤더에 콘텐츠 타입, 크키 및 형태등을 설정 
-			response.setContentType("application/octet-stream");
-			response.setContentLength(files.length);
-			response.setHeader("Content-Disposition","attachment; fileName=\""+URLEncoder.encode(fileName,"UTF-8")+"\";");
-			response.setHeader("Content-Transfer-Encoding", "binary");
-			
-			// 읽어온 파일 정보의 바이트 배열 데이터를 response에 작성합니다.
-			response.getOutputStream().write(files);
-			// response의 버퍼를 정리하고 닫아줍니다.
-			response.getOutputStream().flush();
-			response.getOutputStream().close();
+			// 파일을 메모리에 읽지 않고 스트리밍으로 전송합니다. Range, ETag 요청도 처리합니다.
+			fileDownloader.download(request, response, boardFile.getStoredFilePath(), boardFile.getOriginalFileName());
 		}
 		
 		
 	}
 	
+	// 목록이나 상세화면의 이미지는 원본 대신 썸네일을 보여줍니다.
+	@GetMapping("/board/file/thumbnail")
+	public void thumbnailBoardFile(@RequestParam int idx, 
+			@RequestParam int boardIdx, HttpServletRequest request, HttpServletResponse response) throws Exception {
+		
+		BoardFileDto boardFile = boardService.selectBoardFileInfomation(idx, boardIdx);
+		if(ObjectUtils.isEmpty(boardFile)) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		fileDownloader.thumbnail(request, response, boardFile.getStoredFilePath());
+	}
+	
 }
@@ -0,0 +1,14 @@
+package board.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// 옮긴(dry-run이면 옮길) 게시글 수와 첨부파일 수
+@Data
+@AllArgsConstructor
+public class ArchiveResultDto {
+	
+	private int boards;
+	
+	private int files;
+}
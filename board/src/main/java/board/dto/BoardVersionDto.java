@@ -0,0 +1,16 @@
+package board.dto;
+
+import java.util.Date;
+
+import lombok.Data;
+
+// 게시글(목록)이 바뀌었는지 확인하기 위한 값. 내용을 조회하지 않고 ETag/Last-Modified를 만든다.
+@Data
+public class BoardVersionDto {
+	
+	// 목록은 등록/수정/삭제할때마다 올라가는 번호, 게시글은 1
+	private long version;
+	
+	// 마지막으로 등록/수정/삭제된 시간
+	private Date lastModified;
+}
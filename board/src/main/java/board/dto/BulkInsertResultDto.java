@@ -0,0 +1,28 @@
+package board.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+// 대량 등록 결과. boardIdxList는 요청한 순서대로 생성된 글번호이다.
+@Data
+public class BulkInsertResultDto {
+	
+	private int count;
+	
+	private List<Integer> boardIdxList;
+	
+	private long elapsedMillis;
+	
+	// 초당 등록한 게시글 수
+	private double rowsPerSecond;
+	
+	public static BulkInsertResultDto of(List<Integer> boardIdxList, long elapsedNanos) {
+		BulkInsertResultDto result = new BulkInsertResultDto();
+		result.setCount(boardIdxList.size());
+		result.setBoardIdxList(boardIdxList);
+		result.setElapsedMillis(elapsedNanos / 1_000_000);
+		result.setRowsPerSecond(elapsedNanos > 0 ? boardIdxList.size() * 1e9 / elapsedNanos : 0);
+		return result;
+	}
+}
@@ -0,0 +1,37 @@
+package board.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import lombok.Data;
+
+// 키셋(커서) 페이징 결과. OFFSET 없이 마지막 글번호(afterIdx) 다음부터 조회한다.
+@Data
+public class CursorPageDto<T> {
+	
+	public static final int MAX_PAGE_SIZE = 100;
+	
+	private List<T> list;
+	
+	// 다음 페이지를 조회할때 afterIdx로 넘겨주는 값, 마지막 페이지이면 null 이다.
+	private Integer nextAfterIdx;
+	
+	// 페이지 크기를 1 ~ MAX_PAGE_SIZE 사이로 맞춘다.
+	public static int limit(int pageSize) {
+		return Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+	}
+	
+	// rows는 pageSize + 1 건을 조회한 결과이다. 한건이 더 있으면 다음 페이지가 있다는 뜻이다.
+	public static <T> CursorPageDto<T> of(List<T> rows, int pageSize, ToIntFunction<T> idxGetter) {
+		CursorPageDto<T> page = new CursorPageDto<>();
+		if(rows.size() > pageSize) {
+			List<T> list = new ArrayList<>(rows.subList(0, pageSize));
+			page.setList(list);
+			page.setNextAfterIdx(idxGetter.applyAsInt(list.get(pageSize - 1)));
+		} else {
+			page.setList(rows);
+		}
+		return page;
+	}
+}
@@ -0,0 +1,20 @@
+package board.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+// 검색 결과는 관련도 순서라서 글번호로 이어서 조회할수 없으므로 페이지 번호로 나눈다.
+@Data
+public class SearchPageDto<T> {
+	
+	private List<T> list;
+	
+	// 검색어에 맞는 전체 게시글 수
+	private int totalCount;
+	
+	// 0부터 시작하는 페이지 번호
+	private int page;
+	
+	private int pageSize;
+}
@@ -0,0 +1,14 @@
+package board.dto;
+
+import lombok.Data;
+
+@Data
+public class SearchResultDto {
+	
+	private int boardIdx;
+	
+	private String title;
+	
+	// 검색어와 관련도(BM25), 클수록 먼저 보여준다.
+	private double score;
+}
@@ -14,6 +14,8 @@ import javax.persistence.JoinColumn;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.BatchSize;
+
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -46,8 +48,11 @@ public class BoardEntity {
 	private LocalDateTime updatedDatetime;
 	
 	
-	@OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+	// 목록에서는 첨부파일이 필요없으므로 LAZY로 조회한다. 
+	// 상세화면은 엔티티 그래프로 함께 조회하고, 그 외에 여러 게시글의 첨부파일을 읽을때는 IN 쿼리로 묶어서 조회한다.
+	@OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
 	@JoinColumn(name = "boardIdx")
+	@BatchSize(size = 100)
 	private Collection<BoardFileEntity> fileList;
 
 }
@@ -0,0 +1,269 @@
+package board.jdbc;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// SQL 모양(값을 ?로 바꾼 SQL)별 실행시간, 행 수, 오류 수와 커넥션을 얻는데 걸린 시간을 기록한다.
+// log4jdbc처럼 SQL마다 로그를 남기지 않고 통계만 모으며, 기준보다 오래 걸린 SQL만 로그(board.jdbc.slow)로 남긴다.
+// 데이터 소스가 MeterRegistry보다 먼저 만들어지므로 CompositeMeterRegistry에 기록하다가 bindTo에서 연결한다.
+public class JdbcProfiler implements MeterBinder {
+	
+	private static final Logger slowLog = LoggerFactory.getLogger("board.jdbc.slow");
+	
+	private static final String OTHER = "other";
+	
+	// SQL 문자열에서 모양을 다시 계산하지 않도록 기억하는 SQL 수
+	private static final int SQL_CACHE_SIZE = 2000;
+	
+	// 엔드포인트에서 보여줄 최근 느린 SQL 수
+	private static final int SLOW_QUERY_HISTORY = 50;
+	
+	private static final int MAX_LOGGED_SQL_LENGTH = 2000;
+	
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+	private static final Pattern LITERAL = Pattern.compile("'(?:[^']|'')*'|\\b\\d+(?:\\.\\d+)?\\b");
+	// IN (?, ?, ?)와 CASE WHEN ? THEN ? ... 처럼 파라미터 수에 따라 길이가 바뀌는 부분
+	private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+	private static final Pattern WHEN_THEN_LIST = Pattern.compile("(?:WHEN \\? THEN \\? ){2,}", Pattern.CASE_INSENSITIVE);
+	
+	private final CompositeMeterRegistry registry = new CompositeMeterRegistry();
+	
+	// 통계를 따로 모을 SQL 모양 수, 넘으면 other로 모은다.
+	private final int maxStatements;
+	
+	private volatile long slowQueryThresholdNanos;
+	
+	private final Map<String, StatementStats> statsBySql = new ConcurrentHashMap<>();
+	private final Map<String, StatementStats> statsByShape = new ConcurrentHashMap<>();
+	private final Map<String, Timer> acquireTimers = new ConcurrentHashMap<>();
+	private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+	
+	public JdbcProfiler(int maxStatements, long slowQueryThresholdMillis) {
+		this.maxStatements = maxStatements;
+		setSlowQueryThresholdMillis(slowQueryThresholdMillis);
+	}
+	
+	@Override
+	public void bindTo(MeterRegistry meterRegistry) {
+		registry.add(meterRegistry);
+	}
+	
+	// 0 이하이면 느린 SQL을 기록하지 않는다.
+	public void setSlowQueryThresholdMillis(long slowQueryThresholdMillis) {
+		this.slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdMillis);
+	}
+	
+	public long getSlowQueryThresholdMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(slowQueryThresholdNanos);
+	}
+	
+	void recordAcquire(String pool, long nanos) {
+		acquireTimers.computeIfAbsent(pool, name -> Timer.builder("board.jdbc.connection.acquire")
+				.description("time to get a connection from the pool")
+				.tag("pool", name)
+				.publishPercentiles(0.5, 0.95, 0.99)
+				.register(registry))
+			.record(nanos, TimeUnit.NANOSECONDS);
+	}
+	
+	StatementStats statementStats(String sql) {
+		StatementStats stats = statsBySql.get(sql);
+		if(stats != null) {
+			return stats;
+		}
+		
+		String shape = shape(sql);
+		stats = statsByShape.get(shape);
+		if(stats == null) {
+			if(statsByShape.size() >= maxStatements) {
+				shape = OTHER;
+			}
+			stats = statsByShape.computeIfAbsent(shape, StatementStats::new);
+		}
+		if(statsBySql.size() < SQL_CACHE_SIZE) {
+			statsBySql.put(sql, stats);
+		}
+		return stats;
+	}
+	
+	void recordExecution(StatementStats stats, String sql, long nanos, boolean failed) {
+		stats.timer.record(nanos, TimeUnit.NANOSECONDS);
+		if(failed) {
+			stats.errors.increment();
+		}
+		
+		long threshold = slowQueryThresholdNanos;
+		if(threshold > 0 && nanos >= threshold) {
+			long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+			String logged = WHITESPACE.matcher(sql).replaceAll(" ").trim();
+			if(logged.length() > MAX_LOGGED_SQL_LENGTH) {
+				logged = logged.substring(0, MAX_LOGGED_SQL_LENGTH) + "...";
+			}
+			slowLog.warn("slow query {} ms [{}] : {}", millis, stats.id, logged);
+			synchronized (slowQueries) {
+				slowQueries.addFirst(new SlowQuery(stats.id, logged, millis, new Date()));
+				if(slowQueries.size() > SLOW_QUERY_HISTORY) {
+					slowQueries.removeLast();
+				}
+			}
+		}
+	}
+	
+	void recordRows(StatementStats stats, long rows) {
+		stats.rows.record(rows);
+	}
+	
+	// 정렬 기준(total, max, mean, p99, count)으로 상위 limit개의 SQL 모양
+	public List<Map<String, Object>> topStatements(String sort, int limit) {
+		Comparator<Map<String, Object>> comparator = Comparator.comparingDouble(
+				stats -> ((Number) stats.getOrDefault(sortKey(sort), 0)).doubleValue());
+		List<Map<String, Object>> list = new ArrayList<>();
+		for(StatementStats stats : statsByShape.values()) {
+			// MeterRegistry가 연결되기 전(시작할때 DDL 등)에만 실행된 SQL은 기록이 없다.
+			if(stats.timer.count() > 0) {
+				list.add(stats.toMap());
+			}
+		}
+		list.sort(comparator.reversed());
+		return list.size() > limit ? new ArrayList<>(list.subList(0, limit)) : list;
+	}
+	
+	public List<SlowQuery> recentSlowQueries() {
+		synchronized (slowQueries) {
+			return new ArrayList<>(slowQueries);
+		}
+	}
+	
+	public Map<String, Object> connectionAcquire() {
+		Map<String, Object> pools = new LinkedHashMap<>();
+		acquireTimers.forEach((pool, timer) -> pools.put(pool, timerToMap(timer.takeSnapshot(), new LinkedHashMap<>())));
+		return pools;
+	}
+	
+	private static String sortKey(String sort) {
+		if(sort == null) {
+			return "totalMillis";
+		}
+		switch (sort.toLowerCase(Locale.ROOT)) {
+		case "max":
+			return "maxMillis";
+		case "mean":
+			return "meanMillis";
+		case "p99":
+			return "p99Millis";
+		case "count":
+			return "count";
+		default:
+			return "totalMillis";
+		}
+	}
+	
+	// 공백을 하나로 줄이고 값과 길이가 바뀌는 파라미터 목록을 ?로 바꾼다.
+	static String shape(String sql) {
+		String shape = WHITESPACE.matcher(sql).replaceAll(" ").trim();
+		shape = LITERAL.matcher(shape).replaceAll("?");
+		shape = PLACEHOLDER_LIST.matcher(shape).replaceAll("?, ...");
+		shape = WHEN_THEN_LIST.matcher(shape).replaceAll("WHEN ? THEN ? ... ");
+		return shape;
+	}
+	
+	private static Map<String, Object> timerToMap(HistogramSnapshot snapshot, Map<String, Object> map) {
+		map.put("count", snapshot.count());
+		map.put("totalMillis", snapshot.total(TimeUnit.MILLISECONDS));
+		map.put("meanMillis", snapshot.mean(TimeUnit.MILLISECONDS));
+		map.put("maxMillis", snapshot.max(TimeUnit.MILLISECONDS));
+		for(ValueAtPercentile percentile : snapshot.percentileValues()) {
+			map.put("p" + Math.round(percentile.percentile() * 100) + "Millis", percentile.value(TimeUnit.MILLISECONDS));
+		}
+		return map;
+	}
+	
+	class StatementStats {
+		
+		private final String id;
+		private final String sql;
+		private final Timer timer;
+		private final DistributionSummary rows;
+		private final Counter errors;
+		
+		StatementStats(String shape) {
+			this.id = OTHER.equals(shape) ? OTHER : String.format("%08x", shape.hashCode());
+			this.sql = shape;
+			String operation = operation(shape);
+			this.timer = Timer.builder("board.jdbc.statement")
+					.description("statement execution time by SQL shape")
+					.tag("sql", id)
+					.tag("operation", operation)
+					.publishPercentiles(0.5, 0.95, 0.99)
+					.register(registry);
+			this.rows = DistributionSummary.builder("board.jdbc.rows")
+					.description("rows read or updated by SQL shape")
+					.tag("sql", id)
+					.tag("operation", operation)
+					.register(registry);
+			this.errors = Counter.builder("board.jdbc.errors")
+					.tag("sql", id)
+					.tag("operation", operation)
+					.register(registry);
+		}
+		
+		private String operation(String shape) {
+			int end = shape.indexOf(' ');
+			String keyword = (end < 0 ? shape : shape.substring(0, end)).toLowerCase(Locale.ROOT);
+			switch (keyword) {
+			case "select":
+			case "insert":
+			case "update":
+			case "delete":
+				return keyword;
+			default:
+				return OTHER;
+			}
+		}
+		
+		Map<String, Object> toMap() {
+			Map<String, Object> map = new LinkedHashMap<>();
+			map.put("id", id);
+			map.put("sql", sql);
+			timerToMap(timer.takeSnapshot(), map);
+			map.put("rows", (long) rows.totalAmount());
+			map.put("meanRows", rows.mean());
+			map.put("errors", (long) errors.count());
+			return map;
+		}
+	}
+	
+	@Getter
+	@AllArgsConstructor
+	public static class SlowQuery {
+		
+		private final String id;
+		private final String sql;
+		private final long millis;
+		private final Date time;
+	}
+}
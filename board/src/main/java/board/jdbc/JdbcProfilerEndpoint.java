@@ -0,0 +1,39 @@
+package board.jdbc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+// GET /actuator/jdbcprofile?sort=total|max|mean|p99|count&limit=10 : 오래 걸린 SQL 모양, 최근 느린 SQL, 커넥션 대기시간
+// POST /actuator/jdbcprofile {"slowQueryThresholdMillis": 500} : 느린 SQL 로그 기준 변경 (0 이하이면 기록하지 않는다.)
+@Component
+@Endpoint(id = "jdbcprofile")
+public class JdbcProfilerEndpoint {
+	
+	private static final int DEFAULT_LIMIT = 10;
+	
+	@Autowired
+	private JdbcProfiler jdbcProfiler;
+	
+	@ReadOperation
+	public Map<String, Object> report(@Nullable String sort, @Nullable Integer limit) {
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("slowQueryThresholdMillis", jdbcProfiler.getSlowQueryThresholdMillis());
+		report.put("statements", jdbcProfiler.topStatements(sort, limit == null ? DEFAULT_LIMIT : limit));
+		report.put("slowQueries", jdbcProfiler.recentSlowQueries());
+		report.put("connectionAcquire", jdbcProfiler.connectionAcquire());
+		return report;
+	}
+	
+	@WriteOperation
+	public Map<String, Object> slowQueryThreshold(long slowQueryThresholdMillis) {
+		jdbcProfiler.setSlowQueryThresholdMillis(slowQueryThresholdMillis);
+		return report(null, null);
+	}
+}
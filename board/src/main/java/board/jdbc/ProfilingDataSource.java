@@ -0,0 +1,170 @@
+package board.jdbc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import board.jdbc.JdbcProfiler.StatementStats;
+
+// 커넥션 풀을 감싸서 커넥션을 얻는 시간과 SQL 실행시간, 행 수를 JdbcProfiler에 기록한다.
+// Connection, Statement, ResultSet은 필요한 메서드만 가로채고 나머지는 그대로 전달한다.
+public class ProfilingDataSource extends DelegatingDataSource implements Closeable {
+	
+	private final String pool;
+	private final JdbcProfiler profiler;
+	
+	public ProfilingDataSource(DataSource targetDataSource, String pool, JdbcProfiler profiler) {
+		super(targetDataSource);
+		this.pool = pool;
+		this.profiler = profiler;
+	}
+	
+	@Override
+	public Connection getConnection() throws SQLException {
+		long start = System.nanoTime();
+		Connection connection = obtainTargetDataSource().getConnection();
+		profiler.recordAcquire(pool, System.nanoTime() - start);
+		return proxy(Connection.class, new ConnectionHandler(connection));
+	}
+	
+	@Override
+	public void close() throws IOException {
+		if(getTargetDataSource() instanceof Closeable) {
+			((Closeable) getTargetDataSource()).close();
+		}
+	}
+	
+	private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+		return type.cast(Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(), new Class<?>[] {type}, handler));
+	}
+	
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+	
+	// prepareStatement, prepareCall은 SQL을 알수 있고 createStatement는 실행할때 SQL을 받는다.
+	private class ConnectionHandler implements InvocationHandler {
+		
+		private final Connection connection;
+		
+		ConnectionHandler(Connection connection) {
+			this.connection = connection;
+		}
+		
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if("unwrap".equals(name) || "isWrapperFor".equals(name)) {
+				return ProfilingDataSource.invoke(connection, method, args);
+			}
+			
+			Object result = ProfilingDataSource.invoke(connection, method, args);
+			if(result instanceof Statement) {
+				String sql = ("prepareStatement".equals(name) || "prepareCall".equals(name)) ? (String) args[0] : null;
+				return proxy(method.getReturnType(), new StatementHandler((Statement) result, sql));
+			}
+			return result;
+		}
+	}
+	
+	private class StatementHandler implements InvocationHandler {
+		
+		private final Statement statement;
+		private final String preparedSql;
+		
+		StatementHandler(Statement statement, String preparedSql) {
+			this.statement = statement;
+			this.preparedSql = preparedSql;
+		}
+		
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if(name.startsWith("execute") == false) {
+				Object result = ProfilingDataSource.invoke(statement, method, args);
+				// execute()로 실행한 SQL의 결과 (마이바티스는 execute()후에 결과를 가져온다.)
+				if(preparedSql != null) {
+					if("getResultSet".equals(name) && result != null) {
+						return proxy(ResultSet.class, new ResultSetHandler((ResultSet) result, profiler.statementStats(preparedSql)));
+					} else if("getUpdateCount".equals(name) && (Integer) result >= 0) {
+						profiler.recordRows(profiler.statementStats(preparedSql), (Integer) result);
+					}
+				}
+				return result;
+			}
+			
+			String sql = preparedSql != null ? preparedSql : (args != null && args.length > 0 ? (String) args[0] : null);
+			if(sql == null) {
+				return ProfilingDataSource.invoke(statement, method, args);
+			}
+			StatementStats stats = profiler.statementStats(sql);
+			
+			long start = System.nanoTime();
+			Object result;
+			try {
+				result = ProfilingDataSource.invoke(statement, method, args);
+			} catch (Throwable e) {
+				profiler.recordExecution(stats, sql, System.nanoTime() - start, true);
+				throw e;
+			}
+			profiler.recordExecution(stats, sql, System.nanoTime() - start, false);
+			
+			if(result instanceof ResultSet) {
+				return proxy(ResultSet.class, new ResultSetHandler((ResultSet) result, stats));
+			} else if(result instanceof Integer || result instanceof Long) {
+				profiler.recordRows(stats, Math.max(0, ((Number) result).longValue()));
+			} else if(result instanceof int[]) {
+				long rows = 0;
+				for(int count : (int[]) result) {
+					rows += Math.max(0, count);
+				}
+				profiler.recordRows(stats, rows);
+			}
+			return result;
+		}
+	}
+	
+	// 읽은 행 수를 세었다가 닫힐때 기록한다.
+	private class ResultSetHandler implements InvocationHandler {
+		
+		private final ResultSet resultSet;
+		private final StatementStats stats;
+		private long rows;
+		private boolean recorded;
+		
+		ResultSetHandler(ResultSet resultSet, StatementStats stats) {
+			this.resultSet = resultSet;
+			this.stats = stats;
+		}
+		
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			Object result = ProfilingDataSource.invoke(resultSet, method, args);
+			String name = method.getName();
+			if("next".equals(name)) {
+				if(Boolean.TRUE.equals(result)) {
+					rows++;
+				}
+			} else if("close".equals(name) && recorded == false) {
+				recorded = true;
+				profiler.recordRows(stats, rows);
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package board.mapper;
+
+import java.util.Date;
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+// 삭제된 게시글과 첨부파일을 T_BOARD_ARCHIVE, T_FILE_ARCHIVE로 옮긴다. (ArchiveScheduler)
+@Mapper
+public interface ArchiveMapper {
+	
+	// afterIdx 보다 큰 글번호 중 deletedBefore 전에 삭제된 게시글 번호를 글번호 순서로 limit 건 조회한다.
+	List<Integer> selectArchiveCandidates(@Param("afterIdx") int afterIdx, @Param("deletedBefore") Date deletedBefore, @Param("limit") int limit) throws Exception;
+	
+	// deletedBefore 전에 삭제되어 옮길 게시글 수
+	long selectArchiveBacklog(@Param("deletedBefore") Date deletedBefore) throws Exception;
+	
+	int selectArchiveFileCount(@Param("boardIdxList") List<Integer> boardIdxList) throws Exception;
+	
+	int insertBoardArchive(@Param("boardIdxList") List<Integer> boardIdxList) throws Exception;
+	
+	int insertFileArchive(@Param("boardIdxList") List<Integer> boardIdxList) throws Exception;
+	
+	int deleteArchivedBoard(@Param("boardIdxList") List<Integer> boardIdxList) throws Exception;
+	
+	int deleteArchivedFile(@Param("boardIdxList") List<Integer> boardIdxList) throws Exception;
+}
@@ -1,20 +1,43 @@
 package board.mapper;
 
 import java.util.List;
+import java.util.Map;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.annotations.Param;
 
 import board.dto.BoardDto;
 import board.dto.BoardFileDto;
+import board.dto.BoardVersionDto;
 
 @Mapper
 public interface BoardMapper {
-	List<BoardDto> selectBoardList() throws Exception;
+	// afterIdx가 null이면 첫 페이지를 조회한다.
+	List<BoardDto> selectBoardList(@Param("afterIdx") Integer afterIdx, @Param("pageSize") int pageSize) throws Exception;
+
+	// 목록의 버전 : 등록/수정/삭제/보관할때마다 올라가는 번호와 마지막으로 올린 시간
+	BoardVersionDto selectBoardListVersion() throws Exception;
+	
+	// 목록을 바꾸는 트랜잭션에서 커밋 직전에 실행한다.
+	void updateBoardListVersion() throws Exception;
+	
+	// T_BOARD_VERSION의 이름(board, jpaBoard)으로 읽은 버전 번호 : 행이 없으면 null
+	Long selectVersion(String name) throws Exception;
+	
+	// 게시글의 버전 : 삭제된 글이면 null
+	BoardVersionDto selectBoardVersion(int boardIdx) throws Exception;
+	
+	// 검색 색인용, afterIdx 보다 큰 글번호의 게시글을 글번호 순서로 조회한다.
+	List<BoardDto> selectBoardIndexList(@Param("afterIdx") int afterIdx, @Param("pageSize") int pageSize) throws Exception;
+
+	// 내보내기용, 트랜잭션 안에서 읽고 다 읽으면 닫아야 한다. withFiles가 true이면 첨부파일 목록도 조회한다.
+	Cursor<BoardDto> selectBoardExport(@Param("withFiles") boolean withFiles) throws Exception;
 
 	void insertBoard(BoardDto board) throws Exception;
 
-	void updateHitCount(int boardIdx) throws Exception;
+	// key : 게시글 번호, value : 더할 조회수
+	void updateHitCountBatch(@Param("deltas") Map<Integer, Long> deltas) throws Exception;
 
 	BoardDto selectBoardDetail(int boardIdx) throws Exception;
 
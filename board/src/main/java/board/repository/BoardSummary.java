@@ -0,0 +1,15 @@
+package board.repository;
+
+import java.time.LocalDateTime;
+
+// 목록 화면에 필요한 컬럼만 조회하는 프로젝션. 내용(contents)과 첨부파일은 조회하지 않는다.
+public interface BoardSummary {
+	
+	int getBoardIdx();
+	
+	String getTitle();
+	
+	int getHitCnt();
+	
+	LocalDateTime getCreatedDatetime();
+}
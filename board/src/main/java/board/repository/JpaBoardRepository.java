@@ -1,7 +1,11 @@
 package board.repository;
 
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
@@ -11,9 +15,29 @@ import board.entity.BoardFileEntity;
 
 public interface JpaBoardRepository extends CrudRepository<BoardEntity, Integer>{
 	
-	List<BoardEntity> findAllByOrderByBoardIdxDesc();
+	List<BoardSummary> findAllByOrderByBoardIdxDesc(Pageable pageable);
+	
+	// 키셋 페이징 : afterIdx 보다 작은 글번호를 내림차순으로 조회한다.
+	List<BoardSummary> findByBoardIdxLessThanOrderByBoardIdxDesc(int afterIdx, Pageable pageable);
+	
+	// 검색 색인용, afterIdx 보다 큰 글번호를 오름차순으로 조회한다.
+	List<BoardEntity> findByBoardIdxGreaterThanOrderByBoardIdxAsc(int afterIdx, Pageable pageable);
+	
+	// 상세화면은 첨부파일 목록을 한번의 조인으로 함께 조회한다.
+	@EntityGraph(attributePaths = "fileList")
+	Optional<BoardEntity> findWithFileListByBoardIdx(int boardIdx);
 	
 	@Query("SELECT file FROM BoardFileEntity file WHERE board_idx = :boardIdx AND idx = :idx")
 	BoardFileEntity findBoardFile(@Param("boardIdx") int boardIdx,@Param("idx") int idx);
+	
+	// 엔티티를 읽지 않고 DB에서 바로 더하기 때문에 동시에 실행해도 조회수가 유실되지 않는다.
+	@Modifying
+	@Query("UPDATE BoardEntity board SET board.hitCnt = board.hitCnt + :delta WHERE board.boardIdx = :boardIdx")
+	int addHitCount(@Param("boardIdx") int boardIdx, @Param("delta") int delta);
+	
+	// 렌더링한 화면 캐시의 키로 사용하는 목록 버전(db/schema-version-mysql.sql)을 올린다. 조회수는 포함하지 않는다.
+	@Modifying
+	@Query(value = "UPDATE T_BOARD_VERSION SET VERSION = VERSION + 1, UPDATED_DATETIME = NOW() WHERE NAME = 'jpaBoard'", nativeQuery = true)
+	int increaseListVersion();
 
 }
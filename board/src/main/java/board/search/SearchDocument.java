@@ -0,0 +1,14 @@
+package board.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 색인할 게시글
+@Getter
+@AllArgsConstructor
+public class SearchDocument {
+	
+	private final int boardIdx;
+	private final String title;
+	private final String contents;
+}
@@ -0,0 +1,295 @@
+package board.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+
+import board.dto.CursorPageDto;
+import board.dto.SearchPageDto;
+import board.dto.SearchResultDto;
+import lombok.extern.slf4j.Slf4j;
+
+// 게시글 제목/내용의 역색인(단어 -> 게시글 목록)
+// 애플리케이션이 뜨면 전체를 색인하고, 이후에는 등록/수정/삭제된 글만 다시 색인한다.
+// 검색어의 모든 단어가 들어있는 글을 BM25 점수 순서로 돌려준다.
+@Slf4j
+public class SearchIndex implements ApplicationListener<ApplicationReadyEvent> {
+	
+	// 제목에 나온 단어는 내용보다 두번 나온것으로 센다.
+	private static final int TITLE_WEIGHT = 2;
+	private static final double K1 = 1.2;
+	private static final double B = 0.75;
+	private static final int BATCH_SIZE = 1000;
+	private static final int MAX_QUERY_TERMS = 32;
+	
+	// afterIdx 보다 큰 글번호의 게시글을 글번호 순서로 size 건 읽는다.
+	public interface Loader {
+		List<SearchDocument> load(int afterIdx, int size) throws Exception;
+	}
+	
+	private final String name;
+	private final Loader loader;
+	
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private Segment segment = new Segment();
+	// 전체 색인중에 들어온 변경, 색인이 끝나면 새 색인에 다시 반영한다.
+	private List<Consumer<Segment>> pending;
+	
+	private final Object rebuildLock = new Object();
+	private volatile long lastRebuildAt;
+	private volatile long lastRebuildMillis;
+	
+	public SearchIndex(String name, Loader loader) {
+		this.name = name;
+		this.loader = loader;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		try {
+			rebuild();
+		} catch (Exception e) {
+			log.error("failed to build search index : {}", name, e);
+		}
+	}
+	
+	public void index(int boardIdx, String title, String contents) {
+		SearchDocument document = new SearchDocument(boardIdx, title, contents);
+		apply(segment -> segment.put(document));
+	}
+	
+	public void remove(int boardIdx) {
+		apply(segment -> segment.remove(boardIdx));
+	}
+	
+	// 새 색인을 만드는 동안에도 기존 색인으로 검색할수 있고, 다 만들어지면 바꾼다.
+	public void rebuild() throws Exception {
+		synchronized (rebuildLock) {
+			long start = System.currentTimeMillis();
+			lock.writeLock().lock();
+			try {
+				pending = new ArrayList<>();
+			} finally {
+				lock.writeLock().unlock();
+			}
+			
+			Segment rebuilt = new Segment();
+			try {
+				int afterIdx = 0;
+				List<SearchDocument> documents;
+				do {
+					documents = loader.load(afterIdx, BATCH_SIZE);
+					for(SearchDocument document : documents) {
+						rebuilt.put(document);
+						afterIdx = document.getBoardIdx();
+					}
+				} while(documents.size() == BATCH_SIZE);
+			} catch (Exception e) {
+				lock.writeLock().lock();
+				try {
+					pending = null;
+				} finally {
+					lock.writeLock().unlock();
+				}
+				throw e;
+			}
+			
+			lock.writeLock().lock();
+			try {
+				// 읽는 동안 바뀐 글은 읽은 내용보다 나중 상태이므로 다시 반영한다.
+				for(Consumer<Segment> change : pending) {
+					change.accept(rebuilt);
+				}
+				pending = null;
+				segment = rebuilt;
+			} finally {
+				lock.writeLock().unlock();
+			}
+			
+			lastRebuildAt = System.currentTimeMillis();
+			lastRebuildMillis = lastRebuildAt - start;
+			log.info("search index {} rebuilt : {} documents in {} ms", name, rebuilt.documents.size(), lastRebuildMillis);
+		}
+	}
+	
+	public SearchPageDto<SearchResultDto> search(String query, int page, int pageSize) {
+		int size = CursorPageDto.limit(pageSize);
+		int from = Math.max(page, 0) * size;
+		
+		// 검색어가 길면 앞에서부터 서로 다른 MAX_QUERY_TERMS개의 단어로 검색한다.
+		Set<String> terms = new LinkedHashSet<>();
+		for(String term : SearchTokenizer.tokenize(query)) {
+			if(terms.size() == MAX_QUERY_TERMS) {
+				break;
+			}
+			terms.add(term);
+		}
+		List<SearchResultDto> results;
+		if(terms.isEmpty()) {
+			results = new ArrayList<>();
+		} else {
+			lock.readLock().lock();
+			try {
+				results = segment.search(terms);
+			} finally {
+				lock.readLock().unlock();
+			}
+		}
+		results.sort(Comparator.comparingDouble(SearchResultDto::getScore).reversed()
+				.thenComparing(Comparator.comparingInt(SearchResultDto::getBoardIdx).reversed()));
+		
+		SearchPageDto<SearchResultDto> result = new SearchPageDto<>();
+		result.setList(from < results.size() 
+				? new ArrayList<>(results.subList(from, Math.min(from + size, results.size()))) : new ArrayList<>());
+		result.setTotalCount(results.size());
+		result.setPage(Math.max(page, 0));
+		result.setPageSize(size);
+		return result;
+	}
+	
+	public Map<String, Object> stats() {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		lock.readLock().lock();
+		try {
+			stats.put("documents", segment.documents.size());
+			stats.put("terms", segment.postings.size());
+			stats.put("rebuilding", pending != null);
+		} finally {
+			lock.readLock().unlock();
+		}
+		stats.put("lastRebuildAt", lastRebuildAt);
+		stats.put("lastRebuildMillis", lastRebuildMillis);
+		return stats;
+	}
+	
+	private void apply(Consumer<Segment> change) {
+		lock.writeLock().lock();
+		try {
+			change.accept(segment);
+			if(pending != null) {
+				pending.add(change);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	// 색인 데이터. SearchIndex의 lock 안에서만 사용한다.
+	private static class Segment {
+		
+		// 단어 -> (글번호 -> 단어가 나온 횟수)
+		private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+		private final Map<Integer, Document> documents = new HashMap<>();
+		private long totalLength;
+		
+		void put(SearchDocument source) {
+			remove(source.getBoardIdx());
+			
+			Map<String, Integer> frequencies = new HashMap<>();
+			int length = 0;
+			for(String term : SearchTokenizer.tokenize(source.getTitle())) {
+				frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+				length += TITLE_WEIGHT;
+			}
+			for(String term : SearchTokenizer.tokenize(source.getContents())) {
+				frequencies.merge(term, 1, Integer::sum);
+				length++;
+			}
+			
+			for(Map.Entry<String, Integer> frequency : frequencies.entrySet()) {
+				postings.computeIfAbsent(frequency.getKey(), key -> new HashMap<>())
+					.put(source.getBoardIdx(), frequency.getValue());
+			}
+			documents.put(source.getBoardIdx(), 
+					new Document(source.getTitle(), length, frequencies.keySet().toArray(new String[0])));
+			totalLength += length;
+		}
+		
+		void remove(int boardIdx) {
+			Document document = documents.remove(boardIdx);
+			if(document == null) {
+				return;
+			}
+			for(String term : document.terms) {
+				Map<Integer, Integer> posting = postings.get(term);
+				posting.remove(boardIdx);
+				if(posting.isEmpty()) {
+					postings.remove(term);
+				}
+			}
+			totalLength -= document.length;
+		}
+		
+		List<SearchResultDto> search(Set<String> terms) {
+			List<Map<Integer, Integer>> lists = new ArrayList<>();
+			for(String term : terms) {
+				Map<Integer, Integer> posting = postings.get(term);
+				if(posting == null) {
+					return new ArrayList<>();
+				}
+				lists.add(posting);
+			}
+			// 가장 짧은 목록을 기준으로 나머지 목록에 모두 있는 글만 찾는다.
+			lists.sort(Comparator.comparingInt(Map::size));
+			
+			double count = documents.size();
+			double averageLength = (double) totalLength / documents.size();
+			double[] idf = new double[lists.size()];
+			for(int i = 0; i < lists.size(); i++) {
+				double df = lists.get(i).size();
+				idf[i] = Math.log(1 + (count - df + 0.5) / (df + 0.5));
+			}
+			
+			List<SearchResultDto> results = new ArrayList<>();
+			next:
+			for(Integer boardIdx : lists.get(0).keySet()) {
+				Document document = documents.get(boardIdx);
+				double norm = K1 * (1 - B + B * document.length / averageLength);
+				double score = 0;
+				for(int i = 0; i < lists.size(); i++) {
+					Integer frequency = lists.get(i).get(boardIdx);
+					if(frequency == null) {
+						continue next;
+					}
+					score += idf[i] * frequency * (K1 + 1) / (frequency + norm);
+				}
+				
+				SearchResultDto result = new SearchResultDto();
+				result.setBoardIdx(boardIdx);
+				result.setTitle(document.title);
+				result.setScore(score);
+				results.add(result);
+			}
+			return results;
+		}
+	}
+	
+	private static class Document {
+		
+		private final String title;
+		private final int length;
+		// 글을 지울때 색인에서 빼야할 단어들
+		private final String[] terms;
+		
+		Document(String title, int length, String[] terms) {
+			this.title = title;
+			this.length = length;
+			this.terms = terms;
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package board.search;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+// GET /actuator/searchindex : 색인 상태
+// POST /actuator/searchindex : 전체 재색인
+@Component
+@Endpoint(id = "searchindex")
+public class SearchIndexEndpoint {
+	
+	@Autowired
+	private List<SearchIndex> searchIndexes;
+	
+	@ReadOperation
+	public Map<String, Object> stats() {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		for(SearchIndex searchIndex : searchIndexes) {
+			stats.put(searchIndex.getName(), searchIndex.stats());
+		}
+		return stats;
+	}
+	
+	@WriteOperation
+	public Map<String, Object> rebuild() throws Exception {
+		for(SearchIndex searchIndex : searchIndexes) {
+			searchIndex.rebuild();
+		}
+		return stats();
+	}
+}
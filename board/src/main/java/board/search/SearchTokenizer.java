@@ -0,0 +1,63 @@
+package board.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// 검색어와 게시글을 같은 방식으로 단어(term)로 나눈다.
+// 한글은 조사가 붙어서 띄어쓰기 단위로는 찾을수 없으므로 두글자씩(bigram) 나눈다.
+// 예) "게시판에서" -> 게시, 시판, 판에, 에서  /  "게시판" -> 게시, 시판
+// 영문과 숫자는 소문자로 바꾼 단어 그대로 사용한다.
+public class SearchTokenizer {
+	
+	private static final int MAX_WORD_LENGTH = 50;
+	
+	private SearchTokenizer() {
+	}
+	
+	public static List<String> tokenize(String text) {
+		List<String> tokens = new ArrayList<>();
+		if(text == null) {
+			return tokens;
+		}
+		
+		String lower = text.toLowerCase(Locale.ROOT);
+		int start = -1;
+		boolean cjk = false;
+		for(int i = 0; i <= lower.length(); i++) {
+			char c = i < lower.length() ? lower.charAt(i) : ' ';
+			boolean letter = Character.isLetterOrDigit(c);
+			boolean isCjk = letter && isCjk(c);
+			// 글자가 아니거나 한글 <-> 영문처럼 문자 종류가 바뀌면 한 덩어리가 끝난다.
+			if(start >= 0 && (letter == false || isCjk != cjk)) {
+				addTokens(tokens, lower, start, i, cjk);
+				start = -1;
+			}
+			if(letter && start < 0) {
+				start = i;
+				cjk = isCjk;
+			}
+		}
+		return tokens;
+	}
+	
+	private static void addTokens(List<String> tokens, String text, int start, int end, boolean cjk) {
+		if(cjk == false) {
+			tokens.add(text.substring(start, Math.min(end, start + MAX_WORD_LENGTH)));
+		} else if(end - start == 1) {
+			tokens.add(text.substring(start, end));
+		} else {
+			for(int i = start; i < end - 1; i++) {
+				tokens.add(text.substring(i, i + 2));
+			}
+		}
+	}
+	
+	private static boolean isCjk(char c) {
+		Character.UnicodeScript script = Character.UnicodeScript.of(c);
+		return script == Character.UnicodeScript.HANGUL
+				|| script == Character.UnicodeScript.HAN
+				|| script == Character.UnicodeScript.HIRAGANA
+				|| script == Character.UnicodeScript.KATAKANA;
+	}
+}
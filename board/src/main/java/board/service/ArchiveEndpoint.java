@@ -0,0 +1,40 @@
+package board.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+// GET /actuator/archive : 보관 작업 상태, 마지막 실행후 남은 게시글 수, 실행중이거나 마지막으로 실행한 작업의 진행 상황(progress)
+// POST /actuator/archive {"dryRun": true} : 스케줄러 스레드에서 시작하고 202로 응답한다. 이미 실행중이면 409.
+//   dryRun이 없으면 board.archive.dry-run 설정을 따른다. 끝났는지는 GET의 progress.finishedAt으로 확인한다.
+@Component
+@Endpoint(id = "archive")
+public class ArchiveEndpoint {
+	
+	@Autowired
+	private ArchiveScheduler archiveScheduler;
+	
+	@ReadOperation
+	public Map<String, Object> status() {
+		Map<String, Object> status = new LinkedHashMap<>();
+		status.put("running", archiveScheduler.isRunning());
+		status.put("dryRun", archiveScheduler.isDryRun());
+		status.put("deletedBefore", archiveScheduler.deletedBefore());
+		status.put("backlog", archiveScheduler.getBacklog());
+		status.put("progress", archiveScheduler.getProgress());
+		return status;
+	}
+	
+	@WriteOperation
+	public WebEndpointResponse<Map<String, Object>> run(@Nullable Boolean dryRun) {
+		boolean started = archiveScheduler.start(dryRun == null ? archiveScheduler.isDryRun() : dryRun);
+		return new WebEndpointResponse<>(status(), started ? 202 : 409);
+	}
+}
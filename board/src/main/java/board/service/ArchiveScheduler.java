@@ -0,0 +1,219 @@
+package board.service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import board.dto.ArchiveResultDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+// 삭제된 게시글(DELETE_YN = 'Y')과 첨부파일을 보관 테이블(T_BOARD_ARCHIVE, T_FILE_ARCHIVE)로 옮긴다.
+// 목록, 상세 조회가 읽는 T_BOARD, T_FILE과 인덱스에 삭제된 행이 계속 쌓이지 않게 한다.
+// 잠금을 짧게 유지하도록 batch-size 건씩 따로 커밋하고, 배치 사이에는 batch-pause(ms)와 배치 실행시간 중 긴 시간만큼 쉰다.
+// DB가 느려지면 배치 시간만큼 더 쉬므로 DB 사용 시간이 절반을 넘지 않는다.
+// dry-run이면 옮기지 않고 옮길 게시글 수와 첨부파일 수만 기록한다.
+// 첨부파일의 실제 파일(STORED_FILE_PATH)은 지우지 않는다.
+@Component
+@Slf4j
+public class ArchiveScheduler {
+
+	@Autowired
+	private ArchiveService archiveService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+	
+	// POST /actuator/archive 는 요청 스레드에서 기다리지 않고 스케줄러 스레드에서 실행한다.
+	@Autowired
+	private TaskScheduler taskScheduler;
+
+	@Value("${board.archive.enabled:true}")
+	private boolean enabled;
+
+	@Value("${board.archive.dry-run:true}")
+	private boolean dryRun;
+
+	// 삭제한지 이 기간(일)이 지난 게시글만 옮긴다.
+	@Value("${board.archive.min-age-days:7}")
+	private int minAgeDays;
+
+	@Value("${board.archive.batch-size:100}")
+	private int batchSize;
+
+	@Value("${board.archive.batch-pause:200}")
+	private long batchPause;
+
+	// 한번 실행할때 처리할 최대 배치 수, 남은 게시글은 다음 실행때 옮긴다.
+	@Value("${board.archive.max-batches:1000}")
+	private int maxBatches;
+
+	private final AtomicBoolean running = new AtomicBoolean();
+
+	// 마지막 실행후 남은 게시글 수
+	private final AtomicLong backlog = new AtomicLong();
+	
+	// 실행중이거나 마지막으로 실행한 작업, 한번도 실행하지 않았으면 null
+	private volatile Progress progress;
+	
+	// 실행 스레드만 값을 바꾸고 GET /actuator/archive 가 읽는다.
+	@Getter
+	public static class Progress {
+		private final boolean dryRun;
+		private final Date deletedBefore;
+		private final Date startedAt = new Date();
+		// 실행중이면 null
+		private volatile Date finishedAt;
+		private volatile int batches;
+		private volatile int boards;
+		private volatile int files;
+		// 마지막으로 처리한 배치의 마지막 글번호
+		private volatile int lastBoardIdx;
+		private volatile String error;
+		
+		Progress(boolean dryRun, Date deletedBefore) {
+			this.dryRun = dryRun;
+			this.deletedBefore = deletedBefore;
+		}
+	}
+
+	// board.archive.batch, board.archive.boards, board.archive.files 는 dry-run 태그로 나눠서 기록한다.
+	@PostConstruct
+	public void bindMetrics() {
+		Gauge.builder("board.archive.backlog", backlog, AtomicLong::get)
+				.description("Deleted posts waiting to be archived after the last run")
+				.register(meterRegistry);
+	}
+
+	@Scheduled(cron = "${board.archive.cron:0 0 4 * * *}")
+	public void archive() {
+		if(enabled) {
+			run(dryRun);
+		}
+	}
+
+	// 이미 실행중이면 null
+	public ArchiveResultDto run(boolean dryRun) {
+		if(running.compareAndSet(false, true) == false) {
+			log.info("archive is already running");
+			return null;
+		}
+		try {
+			return archiveBatches(newProgress(dryRun));
+		} finally {
+			running.set(false);
+		}
+	}
+	
+	// 스케줄러 스레드에서 실행하고 바로 돌아온다. 이미 실행중이면 false, 진행 상황은 getProgress로 확인한다.
+	public boolean start(boolean dryRun) {
+		if(running.compareAndSet(false, true) == false) {
+			return false;
+		}
+		// 응답에 새 작업이 보이도록 시작하기 전에 바꾼다.
+		Progress current = newProgress(dryRun);
+		try {
+			taskScheduler.schedule(() -> {
+				try {
+					archiveBatches(current);
+				} finally {
+					running.set(false);
+				}
+			}, new Date());
+		} catch (RejectedExecutionException e) {
+			running.set(false);
+			throw e;
+		}
+		return true;
+	}
+	
+	public Progress getProgress() {
+		return progress;
+	}
+	
+	private Progress newProgress(boolean dryRun) {
+		Progress current = new Progress(dryRun, deletedBefore());
+		progress = current;
+		return current;
+	}
+
+	public boolean isDryRun() {
+		return dryRun;
+	}
+
+	public boolean isRunning() {
+		return running.get();
+	}
+
+	public long getBacklog() {
+		return backlog.get();
+	}
+
+	public Date deletedBefore() {
+		return new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(minAgeDays));
+	}
+
+	private ArchiveResultDto archiveBatches(Progress current) {
+		long start = System.nanoTime();
+		boolean dryRun = current.isDryRun();
+		Date deletedBefore = current.getDeletedBefore();
+		ArchiveResultDto total = new ArchiveResultDto(0, 0);
+		int afterIdx = 0;
+		int batches = 0;
+		try {
+			while(batches < maxBatches) {
+				List<Integer> boardIdxList = archiveService.selectArchiveCandidates(afterIdx, deletedBefore, batchSize);
+				if(boardIdxList.isEmpty()) {
+					break;
+				}
+				afterIdx = boardIdxList.get(boardIdxList.size() - 1);
+
+				long batchStart = System.nanoTime();
+				ArchiveResultDto result = dryRun ? archiveService.selectArchivePreview(boardIdxList) : archiveService.archiveBoards(boardIdxList);
+				long batchNanos = System.nanoTime() - batchStart;
+				meterRegistry.timer("board.archive.batch", "dry-run", String.valueOf(dryRun)).record(batchNanos, TimeUnit.NANOSECONDS);
+				meterRegistry.counter("board.archive.boards", "dry-run", String.valueOf(dryRun)).increment(result.getBoards());
+				meterRegistry.counter("board.archive.files", "dry-run", String.valueOf(dryRun)).increment(result.getFiles());
+				total.setBoards(total.getBoards() + result.getBoards());
+				total.setFiles(total.getFiles() + result.getFiles());
+				batches++;
+				current.batches = batches;
+				current.boards = total.getBoards();
+				current.files = total.getFiles();
+				current.lastBoardIdx = afterIdx;
+
+				if(boardIdxList.size() < batchSize) {
+					break;
+				}
+				Thread.sleep(Math.max(batchPause, TimeUnit.NANOSECONDS.toMillis(batchNanos)));
+			}
+			backlog.set(archiveService.selectArchiveBacklog(deletedBefore));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			current.error = "interrupted";
+			log.info("archive stopped after {} batches", batches);
+		} catch (Exception e) {
+			meterRegistry.counter("board.archive.failures").increment();
+			current.error = e.toString();
+			log.error("archive failed after {} batches, last board {}", batches, afterIdx, e);
+		}
+		current.finishedAt = new Date();
+		log.info("{} {} deleted posts and {} files deleted before {} in {} batches, {} ms",
+				dryRun ? "dry-run, would archive" : "archived", total.getBoards(), total.getFiles(), deletedBefore, batches,
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		return total;
+	}
+}
@@ -0,0 +1,20 @@
+package board.service;
+
+import java.util.Date;
+import java.util.List;
+
+import board.dto.ArchiveResultDto;
+
+public interface ArchiveService {
+	
+	// 읽기 전용 트랜잭션이므로 복제 DB가 있으면 복제 DB에서 찾는다.
+	List<Integer> selectArchiveCandidates(int afterIdx, Date deletedBefore, int limit) throws Exception;
+	
+	long selectArchiveBacklog(Date deletedBefore) throws Exception;
+	
+	// dry-run : 옮기지 않고 옮길 게시글 수와 첨부파일 수만 센다.
+	ArchiveResultDto selectArchivePreview(List<Integer> boardIdxList) throws Exception;
+	
+	// 게시글과 첨부파일을 보관 테이블로 옮기고 원래 테이블에서 지운다. 한 트랜잭션으로 실행한다.
+	ArchiveResultDto archiveBoards(List<Integer> boardIdxList) throws Exception;
+}
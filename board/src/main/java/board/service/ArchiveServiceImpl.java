@@ -0,0 +1,49 @@
+package board.service;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import board.dto.ArchiveResultDto;
+import board.mapper.ArchiveMapper;
+import board.mapper.BoardMapper;
+
+// 트랜잭션은 TransactionAspect가 메서드 이름으로 정한다. (select* 는 읽기 전용)
+@Service
+public class ArchiveServiceImpl implements ArchiveService {
+	
+	@Autowired
+	private ArchiveMapper archiveMapper;
+	
+	@Autowired
+	private BoardMapper boardMapper;
+	
+	@Override
+	public List<Integer> selectArchiveCandidates(int afterIdx, Date deletedBefore, int limit) throws Exception {
+		return archiveMapper.selectArchiveCandidates(afterIdx, deletedBefore, limit);
+	}
+	
+	@Override
+	public long selectArchiveBacklog(Date deletedBefore) throws Exception {
+		return archiveMapper.selectArchiveBacklog(deletedBefore);
+	}
+	
+	@Override
+	public ArchiveResultDto selectArchivePreview(List<Integer> boardIdxList) throws Exception {
+		return new ArchiveResultDto(boardIdxList.size(), archiveMapper.selectArchiveFileCount(boardIdxList));
+	}
+	
+	// 복제 DB에서 찾은 후보는 조금 늦을수 있지만 삭제된 게시글은 다시 살아나지 않으므로 원본 DB에서도 삭제된 상태이다.
+	// 보관 테이블에 같은 글번호가 있으면(다른 서버가 먼저 옮긴 경우) PK 중복으로 실패하고 롤백된다.
+	@Override
+	public ArchiveResultDto archiveBoards(List<Integer> boardIdxList) throws Exception {
+		int boards = archiveMapper.insertBoardArchive(boardIdxList);
+		int files = archiveMapper.insertFileArchive(boardIdxList);
+		archiveMapper.deleteArchivedFile(boardIdxList);
+		archiveMapper.deleteArchivedBoard(boardIdxList);
+		boardMapper.updateBoardListVersion();
+		return new ArchiveResultDto(boards, files);
+	}
+}
@@ -1,23 +1,53 @@
 package board.service;
 
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 
 import org.springframework.web.multipart.MultipartHttpServletRequest;
 
 import board.dto.BoardDto;
 import board.dto.BoardFileDto;
+import board.dto.BoardVersionDto;
+import board.dto.BulkInsertResultDto;
+import board.dto.CursorPageDto;
+import board.dto.SearchPageDto;
+import board.dto.SearchResultDto;
 
 public interface BoardService {
 	
-	List<BoardDto> selectBoardList() throws Exception;
+	CursorPageDto<BoardDto> selectBoardList(Integer afterIdx, int pageSize) throws Exception;
+
+	// 목록과 게시글의 버전, 내용을 조회하지 않고 바뀌었는지만 확인할때 사용한다.
+	BoardVersionDto selectBoardListVersion() throws Exception;
+	
+	BoardVersionDto selectBoardVersion(int boardIdx) throws Exception;
 
 	void insertBoard(BoardDto board, MultipartHttpServletRequest multipartHttpServletRequest) throws Exception;
 
+	// 게시글을 chunk 단위로 나누어 배치로 등록한다. 첨부파일은 등록하지 않는다.
+	BulkInsertResultDto insertBoardBulk(Iterator<BoardDto> boards) throws Exception;
+	
+	// 내보내기 할때 게시글을 한건씩 받는다.
+	interface ExportHandler {
+		void handle(BoardDto board) throws IOException;
+	}
+	
+	// 전체 게시글을 글번호 순서로 handler에 넘겨주고 게시글 수를 반환한다.
+	// 목록을 만들지 않으므로 게시글 수와 상관없이 메모리 사용량이 일정하다.
+	int exportBoard(boolean withFiles, ExportHandler handler) throws Exception;
+	
 	BoardDto selectBoardDetail(int boardIdx) throws Exception;
 
 	void updateBoard(BoardDto board) throws Exception;
 
 	void deleteBoard(int boardIdx) throws Exception;
 	
+	// 제목과 내용으로 검색한다. page는 0부터 시작한다.
+	SearchPageDto<SearchResultDto> searchBoard(String query, int page, int pageSize) throws Exception;
+	
 	BoardFileDto selectBoardFileInfomation(int idx, int boardIdx) throws Exception;
+	
+	// 메모리에 쌓인 조회수를 DB에 반영한다.
+	void flushHitCount() throws Exception;
 }
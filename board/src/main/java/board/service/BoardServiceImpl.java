@@ -1,12 +1,22 @@
 package board.service;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import javax.transaction.Transactional;
+import javax.transaction.Transactional.TxType;
 
+import org.apache.ibatis.cursor.Cursor;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.ObjectUtils;
@@ -14,13 +24,28 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
 
 import board.common.FileUtils;
+import board.common.HitCounter;
+import board.common.StagedFile;
+import board.common.ThumbnailGenerator;
+import board.common.TransactionCallbacks;
+import board.common.TransactionRunner;
+import board.configuration.CacheConfiguration;
+import board.configuration.DatabaseConfiguration;
+import board.configuration.ReplicaRoutingDataSource;
+import board.configuration.SearchConfiguration;
 import board.dto.BoardDto;
 import board.dto.BoardFileDto;
+import board.dto.BoardVersionDto;
+import board.dto.BulkInsertResultDto;
+import board.dto.CursorPageDto;
+import board.dto.SearchPageDto;
+import board.dto.SearchResultDto;
 import board.mapper.BoardMapper;
+import board.search.SearchIndex;
 import lombok.extern.slf4j.Slf4j;
 
+// 트랜잭션은 TransactionAspect가 메서드 이름으로 정한다. 다르게 실행할 메서드에만 @Transactional을 붙인다.
 @Service
-@Transactional
 @Slf4j
 public class BoardServiceImpl implements BoardService {
 	
@@ -30,20 +55,71 @@ public class BoardServiceImpl implements BoardService {
 	@Autowired
 	private FileUtils fileUtils;
 	
+	@Autowired
+	private TransactionRunner transactionRunner;
+	
+	@Autowired
+	private ThumbnailGenerator thumbnailGenerator;
+	
+	@Autowired
+	private CacheManager cacheManager;
+	
+	@Autowired
+	@Qualifier(SearchConfiguration.BOARD_SEARCH_INDEX)
+	private SearchIndex boardSearchIndex;
+	
+	@Autowired
+	@Qualifier(DatabaseConfiguration.BATCH_SQL_SESSION_TEMPLATE)
+	private SqlSessionTemplate batchSqlSessionTemplate;
+	
+	// 대량 등록시 한 트랜잭션(배치)으로 등록할 게시글 수
+	@Value("${board.bulk.chunk-size:1000}")
+	private int bulkChunkSize;
+	
+	private final HitCounter hitCounter = new HitCounter();
+	
+	@Override
+	public CursorPageDto<BoardDto> selectBoardList(Integer afterIdx, int pageSize) throws Exception {
+		int size = CursorPageDto.limit(pageSize);
+		// 다음 페이지가 있는지 확인하기 위해 한건을 더 조회한다.
+		List<BoardDto> list = boardMapper.selectBoardList(afterIdx, size + 1);
+		return CursorPageDto.of(list, size, BoardDto::getBoardIdx);
+	}
+	
 	@Override
-	public List<BoardDto> selectBoardList() throws Exception {
-		return boardMapper.selectBoardList();
+	public BoardVersionDto selectBoardListVersion() throws Exception {
+		return boardMapper.selectBoardListVersion();
 	}
 	
 	@Override
+	public BoardVersionDto selectBoardVersion(int boardIdx) throws Exception {
+		return boardMapper.selectBoardVersion(boardIdx);
+	}
+	
+	// 첨부파일은 트랜잭션 밖에서 먼저 저장하고, 트랜잭션에서는 게시글과 파일 정보만 등록한다.
+	// 업로드가 느려도 파일을 저장하는 동안 DB 커넥션을 잡고 있지 않는다.
+	@Override
+	@Transactional(TxType.NOT_SUPPORTED)
 	public void insertBoard(BoardDto board, MultipartHttpServletRequest multipartHttpServletRequest) throws Exception {
-		//  마이바티스에 useGeneratedKeys="true" keyProperty="boardIdx" 옵션을 주면 리턴값으로 boardIdx에 생성된 키값을 넣어준다.
-		boardMapper.insertBoard(board);
-		
-		
-		List<BoardFileDto> list = fileUtils.parseFileInfo(board.getBoardIdx(), multipartHttpServletRequest);
-		if(CollectionUtils.isEmpty(list) == false) {
-			boardMapper.insertBoardFileList(list);
+		List<StagedFile> stagedFiles = fileUtils.stageFiles(multipartHttpServletRequest);
+		try {
+			transactionRunner.run(() -> {
+				//  마이바티스에 useGeneratedKeys="true" keyProperty="boardIdx" 옵션을 주면 리턴값으로 boardIdx에 생성된 키값을 넣어준다.
+				boardMapper.insertBoard(board);
+				
+				List<BoardFileDto> list = fileUtils.toBoardFileList(board.getBoardIdx(), stagedFiles);
+				if(CollectionUtils.isEmpty(list) == false) {
+					boardMapper.insertBoardFileList(list);
+				}
+				boardMapper.updateBoardListVersion();
+				evictBoardDetail(board.getBoardIdx());
+				indexBoard(board);
+				thumbnailGenerator.generateAfterCommit(stagedFiles);
+			});
+		} catch (Exception e) {
+			// 등록에 실패하면 미리 저장한 파일의 참조를 반납한다.
+			fileUtils.releaseFiles(stagedFiles);
+			throw e;
 		}
 		
 		/*
@@ -67,30 +143,168 @@ public class BoardServiceImpl implements BoardService {
 		
 	}
 	
+	// chunk마다 트랜잭션을 커밋하므로 중간에 실패하면 앞의 chunk는 등록된 상태로 남는다.
+	@Override
+	@Transactional(TxType.NOT_SUPPORTED)
+	public BulkInsertResultDto insertBoardBulk(Iterator<BoardDto> boards) throws Exception {
+		long start = System.nanoTime();
+		List<Integer> boardIdxList = new ArrayList<>();
+		List<BoardDto> chunk = new ArrayList<>(bulkChunkSize);
+		try {
+			while(boards.hasNext()) {
+				chunk.add(boards.next());
+				if(chunk.size() >= bulkChunkSize) {
+					insertBoardChunk(chunk, boardIdxList);
+				}
+			}
+			if(chunk.isEmpty() == false) {
+				insertBoardChunk(chunk, boardIdxList);
+			}
+		} catch (Exception e) {
+			log.error("bulk insert failed after {} boards", boardIdxList.size());
+			throw e;
+		}
+		return BulkInsertResultDto.of(boardIdxList, System.nanoTime() - start);
+	}
+	
+	// 배치 실행기로 INSERT를 모아서 보낸다. 
+	// MySQL은 rewriteBatchedStatements 옵션으로 여러 행을 INSERT 한번으로 보내고 생성된 키도 모두 돌려준다.
+	private void insertBoardChunk(List<BoardDto> chunk, List<Integer> boardIdxList) throws Exception {
+		transactionRunner.run(() -> {
+			BoardMapper batchMapper = batchSqlSessionTemplate.getMapper(BoardMapper.class);
+			for(BoardDto board : chunk) {
+				batchMapper.insertBoard(board);
+			}
+			batchMapper.updateBoardListVersion();
+			// 실행해야 생성된 키가 boardIdx에 들어간다.
+			batchSqlSessionTemplate.flushStatements();
+			for(BoardDto board : chunk) {
+				indexBoard(board);
+			}
+		});
+		for(BoardDto board : chunk) {
+			boardIdxList.add(board.getBoardIdx());
+		}
+		chunk.clear();
+	}
+	
+	// Cursor는 트랜잭션이 끝나면 닫히므로 다 읽을때까지 트랜잭션 안에서 처리한다.
+	@Override
+	public int exportBoard(boolean withFiles, ExportHandler handler) throws Exception {
+		int count = 0;
+		try (Cursor<BoardDto> cursor = boardMapper.selectBoardExport(withFiles)) {
+			for(BoardDto board : cursor) {
+				// 첨부파일을 조회하지 않았으면 목록을 내보내지 않고, 첨부파일이 없는 게시글은 빈 목록으로 내보낸다.
+				if(withFiles == false) {
+					board.setFileList(null);
+				} else if(board.getFileList() == null) {
+					board.setFileList(Collections.emptyList());
+				}
+				handler.handle(board);
+				count++;
+			}
+		}
+		return count;
+	}
+	
 	@Override
 	public BoardDto selectBoardDetail(int boardIdx) throws Exception {
 		
-		BoardDto board = boardMapper.selectBoardDetail(boardIdx);
-		List<BoardFileDto> fileList = boardMapper.selectBoardFileList(boardIdx);
-		board.setFileList(fileList);
+		// 게시글과 첨부파일 목록은 캐시에 없을때만 조회한다.
+		// 캐시에 넣을때까지 flushHitCount가 조회수를 반영하지 않도록 hitCounter.load 안에서 읽는다.
+		// 수정 직후 복제 DB의 이전 내용이 캐시되지 않도록 원본 DB에서 읽는다.
+		Cache cache = boardDetailCache();
+		BoardDto cached = cache.get(boardIdx, BoardDto.class);
+		if(cached == null) {
+			cached = hitCounter.load(() -> cache.get(boardIdx, () -> ReplicaRoutingDataSource.usePrimary(() -> {
+				BoardDto board = boardMapper.selectBoardDetail(boardIdx);
+				if(board != null) {
+					List<BoardFileDto> fileList = boardMapper.selectBoardFileList(boardIdx);
+					board.setFileList(fileList);
+				}
+				return board;
+			})));
+		}
+		if(cached == null) {
+			throw new NullPointerException();
+		}
 		
-		boardMapper.updateHitCount(boardIdx);
+		// 캐시된 객체는 여러 요청이 함께 사용하므로 복사해서 조회수를 더한다.
+		BoardDto board = new BoardDto();
+		BeanUtils.copyProperties(cached, board);
+		
+		// 조회수는 메모리에 모아두었다가 flushHitCount에서 한번에 반영한다.
+		board.setHitCnt(hitCounter.increment(boardIdx, cached::getHitCnt));
 		
 		return board;
 	}
 	
+	// 커밋한 후에 pending에서 빼야 하므로 트랜잭션을 직접 커밋한다.
+	@Override
+	@Transactional(TxType.NOT_SUPPORTED)
+	public void flushHitCount() throws Exception {
+		// 렌더링한 목록 화면은 다시 만들지 않는다. 목록의 조회수는 글이 바뀌거나 화면 캐시가 만료될때 다시 렌더링하면서 바뀐다.
+		hitCounter.flush(deltas -> {
+			transactionRunner.run(() -> boardMapper.updateHitCountBatch(deltas));
+			addCachedHitCount(deltas);
+		});
+	}
+	
 	@Override
 	public void deleteBoard(int boardIdx) throws Exception {
 		boardMapper.deleteBoard(boardIdx);
-		
+		boardMapper.updateBoardListVersion();
+		evictBoardDetail(boardIdx);
+		TransactionCallbacks.afterCommit(() -> boardSearchIndex.remove(boardIdx));
 	}
 	@Override
 	public void updateBoard(BoardDto board) throws Exception {
 		boardMapper.updateBoard(board);
+		boardMapper.updateBoardListVersion();
+		evictBoardDetail(board.getBoardIdx());
+		indexBoard(board);
+	}
+	
+	// 검색은 DB를 사용하지 않으므로 트랜잭션을 시작하지 않는다.
+	@Override
+	@Transactional(TxType.SUPPORTS)
+	public SearchPageDto<SearchResultDto> searchBoard(String query, int page, int pageSize) throws Exception {
+		return boardSearchIndex.search(query, page, pageSize);
 	}
 	
 	@Override
 	public BoardFileDto selectBoardFileInfomation(int idx, int boardIdx) throws Exception {
 		return boardMapper.selectBoardFileInformation(idx, boardIdx);
 	}
+	
+	private Cache boardDetailCache() {
+		return cacheManager.getCache(CacheConfiguration.BOARD_DETAIL);
+	}
+	
+	// 반영한 조회수는 pending에서 빠지므로 캐시된 게시글의 조회수에 더해서 화면의 조회수가 줄어들지 않게 한다.
+	private void addCachedHitCount(Map<Integer, Long> deltas) {
+		Cache cache = boardDetailCache();
+		for(Map.Entry<Integer, Long> delta : deltas.entrySet()) {
+			BoardDto cached = cache.get(delta.getKey(), BoardDto.class);
+			if(cached != null) {
+				cached.setHitCnt(cached.getHitCnt() + delta.getValue().intValue());
+			}
+		}
+	}
+	
+	// 롤백된 내용이 검색되지 않도록 커밋된 후에 색인한다.
+	private void indexBoard(BoardDto board) {
+		int boardIdx = board.getBoardIdx();
+		String title = board.getTitle();
+		String contents = board.getContents();
+		TransactionCallbacks.afterCommit(() -> boardSearchIndex.index(boardIdx, title, contents));
+	}
+	
+	// 커밋 전에 다른 요청이 이전 내용을 다시 캐시에 넣을수 있으므로 커밋 후에 한번 더 지운다.
+	// 렌더링한 목록과 상세 화면은 같은 트랜잭션에서 올린 목록 버전(updateBoardListVersion)으로 사용하지 않게 된다.
+	private void evictBoardDetail(int boardIdx) {
+		Cache cache = boardDetailCache();
+		cache.evict(boardIdx);
+		TransactionCallbacks.afterCommit(() -> cache.evict(boardIdx));
+	}
 }
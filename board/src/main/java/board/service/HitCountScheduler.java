@@ -0,0 +1,41 @@
+package board.service;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 메모리에 쌓인 조회수를 주기적으로, 그리고 종료될때 DB에 반영한다.
+@Component
+@Slf4j
+public class HitCountScheduler {
+	
+	@Autowired
+	private BoardService boardService;
+	
+	@Autowired
+	private JpaBoardService jpaBoardService;
+	
+	@Scheduled(fixedDelayString = "${board.hit-count.flush-delay:5000}")
+	public void flush() {
+		try {
+			boardService.flushHitCount();
+		} catch (Exception e) {
+			log.error("hit count flush failed", e);
+		}
+		
+		try {
+			jpaBoardService.flushHitCount();
+		} catch (Exception e) {
+			log.error("jpa hit count flush failed", e);
+		}
+	}
+	
+	@PreDestroy
+	public void flushOnShutdown() {
+		flush();
+	}
+}
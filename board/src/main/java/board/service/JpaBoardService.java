@@ -6,12 +6,16 @@ import org.springframework.web.multipart.MultipartHttpServletRequest;
 
 import board.dto.BoardDto;
 import board.dto.BoardFileDto;
+import board.dto.CursorPageDto;
+import board.dto.SearchPageDto;
+import board.dto.SearchResultDto;
 import board.entity.BoardEntity;
 import board.entity.BoardFileEntity;
+import board.repository.BoardSummary;
 
 public interface JpaBoardService {
 	
-	List<BoardEntity> selectBoardList() throws Exception;
+	CursorPageDto<BoardSummary> selectBoardList(Integer afterIdx, int pageSize) throws Exception;
 
 	void saveBoard(BoardEntity board, MultipartHttpServletRequest multipartHttpServletRequest) throws Exception;
 
@@ -19,5 +23,11 @@ public interface JpaBoardService {
 
 	void deleteBoard(int boardIdx) throws Exception;
 	
+	// 제목과 내용으로 검색한다. page는 0부터 시작한다.
+	SearchPageDto<SearchResultDto> searchBoard(String query, int page, int pageSize) throws Exception;
+	
 	BoardFileEntity selectBoardFileInfomation(int idx, int boardIdx) throws Exception;
+	
+	// 메모리에 쌓인 조회수를 DB에 반영한다.
+	void flushHitCount() throws Exception;
 }
@@ -1,20 +1,49 @@
 package board.service;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.transaction.Transactional;
+import javax.transaction.Transactional.TxType;
+
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
 
+import board.common.AttachmentStore;
 import board.common.FileUtils;
+import board.common.HitCounter;
+import board.common.StagedFile;
+import board.common.ThumbnailGenerator;
+import board.common.TransactionCallbacks;
+import board.common.TransactionRunner;
+import board.configuration.CacheConfiguration;
+import board.configuration.ReplicaRoutingDataSource;
+import board.configuration.SearchConfiguration;
+import board.dto.CursorPageDto;
+import board.dto.SearchPageDto;
+import board.dto.SearchResultDto;
 import board.entity.BoardEntity;
 import board.entity.BoardFileEntity;
+import board.repository.BoardSummary;
 import board.repository.JpaBoardRepository;
+import board.search.SearchIndex;
+import lombok.extern.slf4j.Slf4j;
 
 @Service
+@Slf4j
 public class JpaBoardServiceImpl implements JpaBoardService {
 	
 	@Autowired
@@ -22,42 +51,144 @@ public class JpaBoardServiceImpl implements JpaBoardService {
 	
 	@Autowired
 	private FileUtils fileUtils;
+	
+	@Autowired
+	private AttachmentStore attachmentStore;
+	
+	@Autowired
+	private TransactionRunner transactionRunner;
+	
+	@Autowired
+	private ThumbnailGenerator thumbnailGenerator;
+	
+	@Autowired
+	private CacheManager cacheManager;
+	
+	@Autowired
+	@Qualifier(SearchConfiguration.JPA_BOARD_SEARCH_INDEX)
+	private SearchIndex jpaBoardSearchIndex;
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	private final HitCounter hitCounter = new HitCounter();
 
 	@Override
-	public List<BoardEntity> selectBoardList() throws Exception {
-		return jpaBoardRepository.findAllByOrderByBoardIdxDesc();
+	public CursorPageDto<BoardSummary> selectBoardList(Integer afterIdx, int pageSize) throws Exception {
+		int size = CursorPageDto.limit(pageSize);
+		// OFFSET 없이 LIMIT만 사용하도록 항상 첫번째 페이지를 요청한다.
+		PageRequest limit = PageRequest.of(0, size + 1);
+		List<BoardSummary> list;
+		if(afterIdx == null) {
+			list = jpaBoardRepository.findAllByOrderByBoardIdxDesc(limit);
+		} else {
+			list = jpaBoardRepository.findByBoardIdxLessThanOrderByBoardIdxDesc(afterIdx, limit);
+		}
+		return CursorPageDto.of(list, size, BoardSummary::getBoardIdx);
 	}
 
+	// 첨부파일은 트랜잭션 밖에서 먼저 저장하고, 트랜잭션에서는 게시글과 파일 정보만 저장한다.
 	@Override
+	@Transactional(TxType.NOT_SUPPORTED)
 	public void saveBoard(BoardEntity board, MultipartHttpServletRequest multipartHttpServletRequest) throws Exception {
 		board.setCreatorId("admin");
-		List<BoardFileEntity> list = fileUtils.parseFileInfo(multipartHttpServletRequest);
-		if(!CollectionUtils.isEmpty(list)) {
-			board.setFileList(list);
+		List<StagedFile> stagedFiles = fileUtils.stageFiles(multipartHttpServletRequest);
+		try {
+			transactionRunner.run(() -> {
+				List<BoardFileEntity> list = fileUtils.toBoardFileEntityList(stagedFiles);
+				if(!CollectionUtils.isEmpty(list)) {
+					board.setFileList(list);
+				}
+				jpaBoardRepository.save(board);
+				evictBoardDetail(board.getBoardIdx());
+				
+				// 롤백된 내용이 검색되지 않도록 커밋된 후에 색인한다.
+				int boardIdx = board.getBoardIdx();
+				String title = board.getTitle();
+				String contents = board.getContents();
+				TransactionCallbacks.afterCommit(() -> jpaBoardSearchIndex.index(boardIdx, title, contents));
+				thumbnailGenerator.generateAfterCommit(stagedFiles);
+			});
+		} catch (Exception e) {
+			// 저장에 실패하면 미리 저장한 파일의 참조를 반납한다.
+			fileUtils.releaseFiles(stagedFiles);
+			throw e;
 		}
-		jpaBoardRepository.save(board);
-
 	}
 
 	@Override
 	public BoardEntity selectBoardDetail(int boardIdx) throws Exception {
-		Optional<BoardEntity> optional = jpaBoardRepository.findById(boardIdx);
-		if(optional.isPresent()) {
-			BoardEntity board = optional.get();
-			board.setHitCnt(board.getHitCnt() + 1);
-			jpaBoardRepository.save(board);
-			
-			return board;
-		} else {
+		// 게시글과 첨부파일 목록은 캐시에 없을때만 조회한다. (BoardServiceImpl.selectBoardDetail 참고)
+		Cache cache = boardDetailCache();
+		BoardEntity cached = cache.get(boardIdx, BoardEntity.class);
+		if(cached == null) {
+			cached = hitCounter.load(() -> cache.get(boardIdx, () -> ReplicaRoutingDataSource.usePrimary(() -> {
+				Optional<BoardEntity> optional = jpaBoardRepository.findWithFileListByBoardIdx(boardIdx);
+				if(optional.isPresent() == false) {
+					return null;
+				}
+				// 캐시에 넣는 엔티티는 영속성 컨텍스트에서 분리해 변경이 DB에 반영되지 않게 한다.
+				entityManager.detach(optional.get());
+				return optional.get();
+			})));
+		}
+		if(cached == null) {
 			throw new NullPointerException();
 		}
 		
+		// 캐시된 엔티티는 여러 요청이 함께 사용하므로 복사해서 조회수를 더한다. DB에는 flushHitCount에서 반영한다.
+		BoardEntity board = new BoardEntity();
+		BeanUtils.copyProperties(cached, board);
+		board.setHitCnt(hitCounter.increment(boardIdx, cached::getHitCnt));
+		
+		return board;
+	}
+
+	// 커밋한 후에 pending에서 빼야 하므로 트랜잭션을 직접 커밋한다.
+	@Override
+	@Transactional(TxType.NOT_SUPPORTED)
+	public void flushHitCount() throws Exception {
+		// 렌더링한 목록 화면은 다시 만들지 않는다. 목록의 조회수는 글이 바뀌거나 화면 캐시가 만료될때 다시 렌더링하면서 바뀐다.
+		hitCounter.flush(deltas -> {
+			transactionRunner.run(() -> {
+				for(Map.Entry<Integer, Long> delta : deltas.entrySet()) {
+					jpaBoardRepository.addHitCount(delta.getKey(), delta.getValue().intValue());
+				}
+			});
+			addCachedHitCount(deltas);
+		});
 	}
 
 	@Override
 	public void deleteBoard(int boardIdx) throws Exception {
+		Optional<BoardEntity> optional = jpaBoardRepository.findWithFileListByBoardIdx(boardIdx);
 		jpaBoardRepository.deleteById(boardIdx);
-
+		
+		// 게시글과 함께 삭제된 첨부파일의 참조를 커밋이 끝난 후에 반납한다.
+		if(optional.isPresent() && CollectionUtils.isEmpty(optional.get().getFileList()) == false) {
+			List<String> keys = new ArrayList<>();
+			for(BoardFileEntity file : optional.get().getFileList()) {
+				keys.add(file.getStoredFilePath());
+			}
+			TransactionCallbacks.afterCommit(() -> {
+				for(String key : keys) {
+					try {
+						attachmentStore.release(key);
+					} catch (IOException e) {
+						log.warn("failed to release attachment : {}", key, e);
+					}
+				}
+			});
+		}
+		evictBoardDetail(boardIdx);
+		TransactionCallbacks.afterCommit(() -> jpaBoardSearchIndex.remove(boardIdx));
+	}
+	
+	// 검색은 DB를 사용하지 않으므로 트랜잭션을 시작하지 않는다.
+	@Override
+	@Transactional(TxType.SUPPORTS)
+	public SearchPageDto<SearchResultDto> searchBoard(String query, int page, int pageSize) throws Exception {
+		return jpaBoardSearchIndex.search(query, page, pageSize);
 	}
 
 	@Override
@@ -66,4 +197,28 @@ public class JpaBoardServiceImpl implements JpaBoardService {
 		return boardFile;
 	}
 
+	
+	private Cache boardDetailCache() {
+		return cacheManager.getCache(CacheConfiguration.JPA_BOARD_DETAIL);
+	}
+	
+	// 반영한 조회수를 캐시된 엔티티에 더한다. (BoardServiceImpl.addCachedHitCount 참고)
+	private void addCachedHitCount(Map<Integer, Long> deltas) {
+		Cache cache = boardDetailCache();
+		for(Map.Entry<Integer, Long> delta : deltas.entrySet()) {
+			BoardEntity cached = cache.get(delta.getKey(), BoardEntity.class);
+			if(cached != null) {
+				cached.setHitCnt(cached.getHitCnt() + delta.getValue().intValue());
+			}
+		}
+	}
+	
+	// 커밋 전에 다른 요청이 이전 내용을 다시 캐시에 넣을수 있으므로 커밋 후에 한번 더 지운다.
+	// 목록 버전을 올려서 렌더링한 목록과 상세 화면도 함께 사용하지 않게 한다.
+	private void evictBoardDetail(int boardIdx) {
+		Cache cache = boardDetailCache();
+		cache.evict(boardIdx);
+		TransactionCallbacks.afterCommit(() -> cache.evict(boardIdx));
+		jpaBoardRepository.increaseListVersion();
+	}
 }
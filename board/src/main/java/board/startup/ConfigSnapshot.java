@@ -0,0 +1,90 @@
+package board.startup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 설정 서버에서 받은 설정. 서버가 준 순서(우선순위)대로 property source를 저장한다.
+@Data
+@NoArgsConstructor
+public class ConfigSnapshot {
+
+	// ConfigServicePropertySourceLocator가 만드는 property source 이름
+	public static final String PROPERTY_SOURCE_NAME = "configService";
+
+	private static final String VERSION_PROPERTY = "config.client.version";
+	private static final String STATE_PROPERTY = "config.client.state";
+
+	private String name;
+	private String profiles;
+	private String label;
+	// 설정 저장소(git)의 커밋
+	private String version;
+	private String state;
+	private String savedAt;
+	// 비밀번호 같은 값(ConfigSnapshotStore.isSecret)을 암호화해서 저장했는지, 빼고 저장했는지
+	private boolean secretsEncrypted;
+	private boolean secretsRemoved;
+	private List<Source> propertySources = new ArrayList<>();
+
+	@Data
+	@NoArgsConstructor
+	public static class Source {
+		private String name;
+		private Map<String, Object> source;
+
+		Source(String name, Map<String, Object> source) {
+			this.name = name;
+			this.source = source;
+		}
+	}
+
+	public static ConfigSnapshot of(String name, String profiles, String label, PropertySource<?> propertySource) {
+		ConfigSnapshot snapshot = new ConfigSnapshot();
+		snapshot.setName(name);
+		snapshot.setProfiles(profiles);
+		snapshot.setLabel(label);
+		List<PropertySource<?>> sources = new ArrayList<>();
+		if(propertySource instanceof CompositePropertySource) {
+			sources.addAll(((CompositePropertySource) propertySource).getPropertySources());
+		} else {
+			sources.add(propertySource);
+		}
+		for(PropertySource<?> source : sources) {
+			if(source instanceof EnumerablePropertySource) {
+				Map<String, Object> values = new LinkedHashMap<>();
+				for(String key : ((EnumerablePropertySource<?>) source).getPropertyNames()) {
+					values.put(key, source.getProperty(key));
+				}
+				snapshot.getPropertySources().add(new Source(source.getName(), values));
+			}
+		}
+		Object version = propertySource.getProperty(VERSION_PROPERTY);
+		Object state = propertySource.getProperty(STATE_PROPERTY);
+		snapshot.setVersion(version == null ? null : version.toString());
+		snapshot.setState(state == null ? null : state.toString());
+		return snapshot;
+	}
+
+	// 서버에서 받았을때와 같은 모양의 property source를 만든다.
+	public PropertySource<?> toPropertySource() {
+		CompositePropertySource composite = new CompositePropertySource(PROPERTY_SOURCE_NAME);
+		for(Source source : propertySources) {
+			composite.addPropertySource(new MapPropertySource(source.getName(), source.getSource()));
+		}
+		return composite;
+	}
+
+	public boolean sameProperties(ConfigSnapshot other) {
+		return other != null && propertySources.equals(other.getPropertySources());
+	}
+}
@@ -0,0 +1,25 @@
+package board.startup;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.client.ConfigServicePropertySourceLocator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+// 부트스트랩 설정(META-INF/spring.factories). 스프링 클라우드의 ConfigServiceBootstrapConfiguration보다 먼저 처리해서
+// 설정 서버 locator를 ConfigSnapshotPropertySourceLocator로 바꾼다.
+// 이 클래스는 애플리케이션 컨텍스트에서도 컴포넌트 스캔되지만 부모(부트스트랩) 컨텍스트에 locator가 있으므로 빈을 만들지 않는다.
+@Configuration
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConfigSnapshotBootstrapConfiguration {
+
+	@Bean
+	@ConditionalOnMissingBean(ConfigServicePropertySourceLocator.class)
+	@ConditionalOnProperty(value = "spring.cloud.config.enabled", matchIfMissing = true)
+	public ConfigSnapshotPropertySourceLocator configServicePropertySource(ConfigClientProperties properties) {
+		return new ConfigSnapshotPropertySourceLocator(properties);
+	}
+}
@@ -0,0 +1,151 @@
+package board.startup;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.client.ConfigServicePropertySourceLocator;
+import org.springframework.cloud.context.encrypt.EncryptorFactory;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
+import org.springframework.security.crypto.encrypt.TextEncryptor;
+import org.springframework.util.StringUtils;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+// 설정 서버 대신 저장해 둔 설정(ConfigSnapshotStore)으로 바로 시작한다. 설정 서버가 느리거나 내려가도 시작이 늦어지지 않는다.
+// 저장된 설정이 없으면 설정 서버에서 받아서(기존과 같이 기다린다) 저장한다.
+// 서버의 최신 설정과 맞추는 일은 시작한후 ConfigSnapshotReconciler가 한다. /actuator/refresh 는 설정 서버에서 받는다.
+// 설정은 부트스트랩이 끝난 환경(application.yml 포함)에서 읽는다.
+//   board.config.snapshot.enabled : false이면 항상 설정 서버에서 받는다. (기본값 true)
+//   board.config.snapshot.directory : 저장할 디렉토리 (기본값 config-snapshot, 상대 경로는 실행한 디렉토리 기준)
+//   board.config.snapshot.history : 남겨둘 이전 설정 파일 수 (기본값 5)
+//   encrypt.key, encrypt.salt : 비밀 값을 암호화할 키. 설정 서버의 {cipher} 값을 푸는 키와 같다.
+//     키가 없으면 비밀 값을 빼고 저장하고, 그 파일로는 시작하지 않고 설정 서버에서 받는다.
+@Slf4j
+public class ConfigSnapshotPropertySourceLocator extends ConfigServicePropertySourceLocator {
+
+	private final ConfigClientProperties defaultProperties;
+
+	// 저장된 설정으로 시작했는지
+	@Getter
+	private volatile boolean loadedFromSnapshot;
+
+	@Getter
+	private volatile ConfigSnapshot snapshot;
+
+	// 시작할때 설정을 가져오는데 걸린 시간
+	@Getter
+	private volatile long locateMillis;
+
+	public ConfigSnapshotPropertySourceLocator(ConfigClientProperties defaultProperties) {
+		super(defaultProperties);
+		this.defaultProperties = defaultProperties;
+	}
+
+	@Override
+	public PropertySource<?> locate(Environment environment) {
+		boolean enabled = environment.getProperty("board.config.snapshot.enabled", Boolean.class, true);
+		if(isRefresh(environment)) {
+			return enabled ? refresh(environment, store(environment)) : super.locate(environment);
+		}
+		long start = System.nanoTime();
+		try {
+			if(enabled == false) {
+				return super.locate(environment);
+			}
+
+			ConfigSnapshotStore store = store(environment);
+			ConfigSnapshot saved = store.load();
+			// 비밀 값이 빠진 설정으로는 시작할수 없으므로 설정 서버가 내려가 있으면 시작하지 못한다.
+			if(saved != null && saved.isSecretsRemoved()) {
+				log.warn("Config snapshot {} has no secrets because encrypt.key is not set, "
+						+ "booting without the config server is disabled until encrypt.key is set", store.getFile());
+			} else if(saved != null) {
+				loadedFromSnapshot = true;
+				snapshot = saved;
+				log.info("Config loaded from snapshot {} (version {}, saved at {})", store.getFile(), saved.getVersion(), saved.getSavedAt());
+				return saved.toPropertySource();
+			}
+
+			PropertySource<?> propertySource = super.locate(environment);
+			if(propertySource != null) {
+				snapshot = toSnapshot(environment, propertySource);
+				save(store, snapshot);
+			}
+			return propertySource;
+		} finally {
+			locateMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		}
+	}
+
+	// /actuator/refresh 는 설정 서버에서 받아서 저장하고, 받지 못하면 저장된 설정을 사용한다.
+	// 저장된 설정을 사용하지 않으면 설정 서버가 내려가 있을때 설정 서버의 설정이 모두 빠진다.
+	private PropertySource<?> refresh(Environment environment, ConfigSnapshotStore store) {
+		PropertySource<?> propertySource = null;
+		try {
+			propertySource = super.locate(environment);
+		} catch (Exception e) {
+			log.warn("Config server is not available : {}", e.toString());
+		}
+		if(propertySource != null) {
+			loadedFromSnapshot = false;
+			snapshot = toSnapshot(environment, propertySource);
+			save(store, snapshot);
+			return propertySource;
+		}
+		// 파일에 비밀 값이 빠져 있으면 메모리에 있는 마지막 설정을 그대로 사용한다.
+		ConfigSnapshot saved = store.load();
+		if(saved != null && saved.isSecretsRemoved()) {
+			saved = snapshot;
+		}
+		if(saved != null) {
+			log.info("Config refreshed from snapshot {} (version {})", store.getFile(), saved.getVersion());
+			return saved.toPropertySource();
+		}
+		return null;
+	}
+
+	// ContextRefresher가 설정을 다시 읽을때 만드는 환경에는 refreshArgs가 있다.
+	private boolean isRefresh(Environment environment) {
+		return environment instanceof ConfigurableEnvironment
+				&& ((ConfigurableEnvironment) environment).getPropertySources().contains("refreshArgs");
+	}
+
+	// 설정 서버에서 받는다. 받지 못하면 null (spring.cloud.config.fail-fast=true이면 예외)
+	public ConfigSnapshot fetch(Environment environment) {
+		PropertySource<?> propertySource = super.locate(environment);
+		return propertySource == null ? null : toSnapshot(environment, propertySource);
+	}
+
+	public ConfigSnapshotStore store(Environment environment) {
+		ConfigClientProperties properties = defaultProperties.override(environment);
+		return new ConfigSnapshotStore(environment.getProperty("board.config.snapshot.directory", "config-snapshot"),
+				properties.getName(), properties.getProfile(), properties.getLabel(),
+				environment.getProperty("board.config.snapshot.history", Integer.class, 5), encryptor(environment));
+	}
+
+	private TextEncryptor encryptor(Environment environment) {
+		String key = environment.getProperty("encrypt.key");
+		if(StringUtils.hasText(key) == false) {
+			return null;
+		}
+		return new EncryptorFactory(environment.getProperty("encrypt.salt", "deadbeef")).create(key);
+	}
+
+	// 저장하지 못해도 받은 설정으로 계속 실행한다.
+	public void save(ConfigSnapshotStore store, ConfigSnapshot fetched) {
+		try {
+			store.save(fetched);
+			log.info("Config snapshot saved to {} (version {})", store.getFile(), fetched.getVersion());
+		} catch (Exception e) {
+			log.warn("Config snapshot could not be saved to {} : {}", store.getFile(), e.toString());
+		}
+	}
+
+	private ConfigSnapshot toSnapshot(Environment environment, PropertySource<?> propertySource) {
+		ConfigClientProperties properties = defaultProperties.override(environment);
+		return ConfigSnapshot.of(properties.getName(), properties.getProfile(), properties.getLabel(), propertySource);
+	}
+}
@@ -0,0 +1,80 @@
+package board.startup;
+
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 저장된 설정으로 시작했으면 시작이 끝난후 설정 서버에서 최신 설정을 받아서 비교한다.
+// 바뀌었으면 저장하고 /actuator/refresh 와 같이 다시 읽게 한다. (설정 서버에서 다시 받고, 받지 못하면 저장된 설정을 읽는다)
+// 설정 서버에 연결하지 못하면 board.config.snapshot.retry-interval(ms) 후에 다시 시도한다.
+// 설정 서버가 느리면 응답을 오래 기다리므로 스케줄러(조회수 반영 등)와 따로 데몬 스레드에서 실행한다.
+@Component
+@Slf4j
+public class ConfigSnapshotReconciler {
+
+	@Autowired(required = false)
+	private ConfigSnapshotPropertySourceLocator locator;
+
+	@Autowired(required = false)
+	private ContextRefresher contextRefresher;
+
+	@Autowired
+	private ConfigurableEnvironment environment;
+
+	@Value("${board.config.snapshot.retry-interval:30000}")
+	private long retryInterval;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		if(locator != null && locator.isLoadedFromSnapshot()) {
+			Thread thread = new Thread(this::reconcile, "config-reconcile");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	private void reconcile() {
+		ConfigSnapshot latest = fetch();
+		while(latest == null) {
+			log.info("Config reconcile will be retried in {} ms", retryInterval);
+			try {
+				Thread.sleep(retryInterval);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			latest = fetch();
+		}
+
+		ConfigSnapshotStore store = locator.store(environment);
+		ConfigSnapshot saved = store.load();
+		if(latest.sameProperties(saved)) {
+			log.info("Config snapshot is up to date (version {})", latest.getVersion());
+			return;
+		}
+
+		locator.save(store, latest);
+		if(contextRefresher != null) {
+			Set<String> keys = contextRefresher.refresh();
+			log.info("Config reconciled from version {} to {}, changed keys : {}",
+					saved == null ? null : saved.getVersion(), latest.getVersion(), keys);
+		}
+	}
+
+	private ConfigSnapshot fetch() {
+		try {
+			return locator.fetch(environment);
+		} catch (Exception e) {
+			log.warn("Config server is not available : {}", e.toString());
+			return null;
+		}
+	}
+}
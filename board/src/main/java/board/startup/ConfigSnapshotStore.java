@@ -0,0 +1,162 @@
+package board.startup;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.springframework.security.crypto.encrypt.TextEncryptor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 마지막으로 설정 서버에서 받은 설정을 {name}-{profiles}[-{label}].json 파일로 저장한다.
+// 바꾸기 전의 파일은 {name}-{profiles}[-{label}].{저장시각}.json 으로 history 개까지 남겨서 이전 설정으로 되돌릴수 있게 한다.
+// 디렉토리와 파일은 실행 계정만 읽을수 있게(rwx------, rw-------) 만든다. (POSIX 파일시스템)
+// 이름에 password, secret 이 들어간 값은 암호화 키(encrypt.key)가 있으면 {cipher}로 암호화하고 없으면 빼고 저장한다.
+@Slf4j
+public class ConfigSnapshotStore {
+
+	private static final DateTimeFormatter SAVED_AT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+	private static final Pattern SECRET_KEY = Pattern.compile("(?i).*(password|secret).*");
+
+	private static final String CIPHER_PREFIX = "{cipher}";
+
+	private static final Set<PosixFilePermission> OWNER_ONLY_DIRECTORY = PosixFilePermissions.fromString("rwx------");
+
+	private static final Set<PosixFilePermission> OWNER_ONLY_FILE = PosixFilePermissions.fromString("rw-------");
+
+	private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+	private final Path directory;
+	private final String baseName;
+	private final int history;
+	// null이면 비밀 값을 빼고 저장한다.
+	private final TextEncryptor encryptor;
+
+	public ConfigSnapshotStore(String directory, String name, String profiles, String label, int history, TextEncryptor encryptor) {
+		this.directory = Paths.get(directory);
+		this.baseName = (name + "-" + profiles + (label == null ? "" : "-" + label)).replaceAll("[^A-Za-z0-9._-]", "_");
+		this.history = history;
+		this.encryptor = encryptor;
+	}
+
+	public static boolean isSecret(String key) {
+		return SECRET_KEY.matcher(key).matches();
+	}
+
+	public Path getFile() {
+		return directory.resolve(baseName + ".json");
+	}
+
+	// 파일이 없거나 읽을수 없으면 null, 암호화한 값을 풀지 못해도(키가 없거나 바뀜) null
+	public ConfigSnapshot load() {
+		Path file = getFile();
+		if(Files.isRegularFile(file) == false) {
+			return null;
+		}
+		try {
+			ConfigSnapshot snapshot = objectMapper.readValue(file.toFile(), ConfigSnapshot.class);
+			if(snapshot.isSecretsEncrypted()) {
+				decryptSecrets(snapshot);
+			}
+			return snapshot;
+		} catch (IOException | RuntimeException e) {
+			log.warn("config snapshot {} is not readable : {}", file, e.toString());
+			return null;
+		}
+	}
+
+	// 임시파일에 쓴후 바꿔서 읽는 중에 반쯤 쓴 파일을 보지 않게 한다.
+	// 임시파일은 처음부터 rw------- 로 만들어진다.
+	public void save(ConfigSnapshot snapshot) throws IOException {
+		Files.createDirectories(directory);
+		setOwnerOnly(directory, OWNER_ONLY_DIRECTORY);
+		snapshot.setSavedAt(LocalDateTime.now().toString());
+		Path temp = Files.createTempFile(directory, baseName, ".tmp");
+		try {
+			objectMapper.writeValue(temp.toFile(), protectSecrets(snapshot));
+			Path file = getFile();
+			if(Files.exists(file) && history > 0) {
+				Path previous = directory.resolve(baseName + "." + LocalDateTime.now().format(SAVED_AT) + ".json");
+				Files.copy(file, previous, StandardCopyOption.REPLACE_EXISTING);
+				setOwnerOnly(previous, OWNER_ONLY_FILE);
+			}
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+		removeOldHistory();
+	}
+
+	// 받은 설정은 그대로 두고 저장할 복사본에서 비밀 값을 암호화하거나 뺀다.
+	// convertValue는 같은 타입이면 복사하지 않으므로 JSON으로 바꿨다가 다시 읽는다.
+	private ConfigSnapshot protectSecrets(ConfigSnapshot snapshot) throws IOException {
+		ConfigSnapshot stored = objectMapper.readValue(objectMapper.writeValueAsBytes(snapshot), ConfigSnapshot.class);
+		for(ConfigSnapshot.Source source : stored.getPropertySources()) {
+			for(Iterator<Map.Entry<String, Object>> it = source.getSource().entrySet().iterator(); it.hasNext();) {
+				Map.Entry<String, Object> property = it.next();
+				if(isSecret(property.getKey()) == false || property.getValue() == null) {
+					continue;
+				}
+				if(encryptor != null) {
+					property.setValue(CIPHER_PREFIX + encryptor.encrypt(property.getValue().toString()));
+					stored.setSecretsEncrypted(true);
+				} else {
+					it.remove();
+					stored.setSecretsRemoved(true);
+				}
+			}
+		}
+		return stored;
+	}
+
+	private void decryptSecrets(ConfigSnapshot snapshot) {
+		if(encryptor == null) {
+			throw new IllegalStateException("encrypt.key is required to decrypt secrets");
+		}
+		for(ConfigSnapshot.Source source : snapshot.getPropertySources()) {
+			for(Map.Entry<String, Object> property : source.getSource().entrySet()) {
+				Object value = property.getValue();
+				if(isSecret(property.getKey()) && value instanceof String && ((String) value).startsWith(CIPHER_PREFIX)) {
+					property.setValue(encryptor.decrypt(((String) value).substring(CIPHER_PREFIX.length())));
+				}
+			}
+		}
+	}
+
+	private static void setOwnerOnly(Path path, Set<PosixFilePermission> permissions) throws IOException {
+		if(FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+			Files.setPosixFilePermissions(path, permissions);
+		}
+	}
+
+	private void removeOldHistory() throws IOException {
+		List<Path> previous = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, baseName + ".[0-9]*.json")) {
+			files.forEach(previous::add);
+		}
+		// 이름에 저장시각이 들어 있으므로 이름순이 오래된 순서다.
+		Collections.sort(previous);
+		for(int i = 0; i < previous.size() - history; i++) {
+			Files.deleteIfExists(previous.get(i));
+		}
+	}
+}
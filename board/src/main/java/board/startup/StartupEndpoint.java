@@ -0,0 +1,47 @@
+package board.startup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+// GET /actuator/startup?limit=20 : 시작 단계별 시간(ms), 설정을 어디서 읽었는지, 오래 걸린 빈
+@Component
+@Endpoint(id = "startup")
+public class StartupEndpoint {
+
+	private static final int DEFAULT_LIMIT = 20;
+
+	@Autowired(required = false)
+	private StartupTimeline startupTimeline;
+
+	@Autowired(required = false)
+	private ConfigSnapshotPropertySourceLocator locator;
+
+	@ReadOperation
+	public Map<String, Object> report(@Nullable Integer limit) {
+		Map<String, Object> report = new LinkedHashMap<>();
+		if(startupTimeline != null) {
+			report.put("totalMillis", startupTimeline.getTotalMillis());
+			report.put("phases", startupTimeline.getPhases());
+		}
+		if(locator != null) {
+			Map<String, Object> config = new LinkedHashMap<>();
+			config.put("source", locator.isLoadedFromSnapshot() ? "snapshot" : "config server");
+			config.put("locateMillis", locator.getLocateMillis());
+			if(locator.getSnapshot() != null) {
+				config.put("version", locator.getSnapshot().getVersion());
+				config.put("savedAt", locator.getSnapshot().getSavedAt());
+			}
+			report.put("config", config);
+		}
+		if(startupTimeline != null) {
+			report.put("slowestBeans", startupTimeline.slowestBeans(limit == null ? DEFAULT_LIMIT : limit));
+		}
+		return report;
+	}
+}
@@ -0,0 +1,143 @@
+package board.startup;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 시작 단계별 시간과 빈을 만드는데 걸린 시간. StartupTimingListener가 기록한다.
+//   jvm : JVM 시작 ~ SpringApplication 시작
+//   environment : 설정 파일을 읽고 부트스트랩 컨텍스트를 만드는 시간
+//   context : 컨텍스트를 만들고 initializer를 실행하는 시간 (설정 서버나 저장된 설정을 읽는 시간 포함)
+//   load : 설정 클래스를 등록하는 시간
+//   refresh : 빈을 만들고 웹서버를 시작하는 시간
+//   runners : ApplicationRunner, CommandLineRunner 실행 시간
+// 빈은 만드는 동안 다른 빈을 만들기도 하므로 전체 시간(total)과 다른 빈을 만든 시간을 뺀 시간(self)을 함께 기록한다.
+public class StartupTimeline implements MeterBinder {
+
+	public static final String BEAN_NAME = "startupTimeline";
+
+	public static final List<String> PHASES = Arrays.asList("jvm", "environment", "context", "load", "refresh", "runners");
+
+	private final Map<String, Long> phases = new ConcurrentHashMap<>();
+
+	private final List<BeanTiming> beans = new CopyOnWriteArrayList<>();
+	private final Deque<Frame> creating = new ArrayDeque<>();
+	// 시작하는 스레드에서 만드는 빈만 기록한다. 시작이 끝나면 null
+	private volatile Thread startupThread = Thread.currentThread();
+
+	@Getter
+	@AllArgsConstructor
+	public static class BeanTiming {
+		private final String name;
+		private final String type;
+		private final long totalMillis;
+		private final long selfMillis;
+	}
+
+	private static class Frame {
+		private final String name;
+		private final long start = System.nanoTime();
+		private long childNanos;
+
+		Frame(String name) {
+			this.name = name;
+		}
+	}
+
+	public void phase(String name, long millis) {
+		phases.put(name, millis);
+	}
+
+	public Map<String, Long> getPhases() {
+		Map<String, Long> ordered = new LinkedHashMap<>();
+		for(String name : PHASES) {
+			if(phases.containsKey(name)) {
+				ordered.put(name, phases.get(name));
+			}
+		}
+		return ordered;
+	}
+
+	public long getTotalMillis() {
+		return phases.values().stream().mapToLong(Long::longValue).sum();
+	}
+
+	public List<BeanTiming> slowestBeans(int limit) {
+		return beans.stream()
+				.sorted(Comparator.comparingLong(BeanTiming::getSelfMillis).reversed())
+				.limit(limit)
+				.collect(Collectors.toList());
+	}
+
+	public void finish() {
+		startupThread = null;
+	}
+
+	// 빈을 만드는 시간을 기록하는 BeanPostProcessor.
+	// 빈으로 등록하면 BeanPostProcessor 수가 맞지 않아 BeanPostProcessorChecker가 모든 빈을 로그로 남기므로 따로 만든다.
+	public BeanPostProcessor beanTimer() {
+		return new BeanTimer();
+	}
+
+	private class BeanTimer implements InstantiationAwareBeanPostProcessor {
+
+		// FactoryBean은 타입을 확인할때도 호출되지만 postProcessAfterInitialization은 호출되지 않으므로
+		// 같은 이름의 기록이 남아 있으면 버리고 다시 시작한다.
+		@Override
+		public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) {
+			if(Thread.currentThread() == startupThread) {
+				creating.removeIf(frame -> frame.name.equals(beanName));
+				creating.push(new Frame(beanName));
+			}
+			return null;
+		}
+
+		// FactoryBean이 만든 객체처럼 postProcessBeforeInstantiation 없이 호출되면 무시한다.
+		// 만들다 실패한 빈이나 타입만 확인한 FactoryBean은 postProcessAfterInitialization이 호출되지 않으므로 그 위에 남은 기록은 버린다.
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			if(Thread.currentThread() == startupThread && creating.stream().anyMatch(frame -> frame.name.equals(beanName))) {
+				while(creating.peek().name.equals(beanName) == false) {
+					creating.pop();
+				}
+				Frame frame = creating.pop();
+				long total = System.nanoTime() - frame.start;
+				if(creating.isEmpty() == false) {
+					creating.peek().childNanos += total;
+				}
+				beans.add(new BeanTiming(beanName, bean.getClass().getName(),
+						TimeUnit.NANOSECONDS.toMillis(total), TimeUnit.NANOSECONDS.toMillis(total - frame.childNanos)));
+			}
+			return bean;
+		}
+	}
+
+	// 단계별 시간은 시작이 끝나야 정해지므로 값이 없으면 NaN
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		for(String name : PHASES) {
+			TimeGauge.builder("board.startup.time", phases, TimeUnit.MILLISECONDS,
+					values -> values.containsKey(name) ? values.get(name) : Double.NaN)
+					.tag("phase", name)
+					.description("Time spent in each startup phase")
+					.register(registry);
+		}
+	}
+}
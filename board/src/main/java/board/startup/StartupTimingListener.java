@@ -0,0 +1,114 @@
+package board.startup;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringApplicationRunListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 시작 단계별 시간을 StartupTimeline에 기록하고 시작이 끝나면 로그로 남긴다. (META-INF/spring.factories)
+// 부트스트랩 컨텍스트와 설정을 다시 읽을때(ContextRefresher) 실행하는 SpringApplication은 기록하지 않는다.
+// GET /actuator/startup 으로도 볼수 있다.
+@Slf4j
+public class StartupTimingListener implements SpringApplicationRunListener, Ordered {
+
+	// 로그에 남길 오래 걸린 빈 수
+	private static final int SLOWEST_BEANS = 10;
+
+	private final StartupTimeline timeline = new StartupTimeline();
+
+	private boolean active = true;
+	private long last;
+
+	public StartupTimingListener(SpringApplication application, String[] args) {
+	}
+
+	// 부트스트랩 컨텍스트를 만드는 EventPublishingRunListener(0) 다음에 실행해서 environment에 포함시킨다.
+	@Override
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE;
+	}
+
+	@Override
+	public void starting() {
+		last = System.nanoTime();
+		long sinceJvmStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+		timeline.phase("jvm", Math.max(0, sinceJvmStart));
+	}
+
+	@Override
+	public void environmentPrepared(ConfigurableEnvironment environment) {
+		if(environment.getPropertySources().contains("bootstrap") || environment.getPropertySources().contains("refreshArgs")) {
+			active = false;
+			timeline.finish();
+			return;
+		}
+		phase("environment");
+	}
+
+	@Override
+	public void contextPrepared(ConfigurableApplicationContext context) {
+		if(active) {
+			phase("context");
+			context.getBeanFactory().registerSingleton(StartupTimeline.BEAN_NAME, timeline);
+			context.getBeanFactory().addBeanPostProcessor(timeline.beanTimer());
+		}
+	}
+
+	@Override
+	public void contextLoaded(ConfigurableApplicationContext context) {
+		if(active) {
+			phase("load");
+		}
+	}
+
+	@Override
+	public void started(ConfigurableApplicationContext context) {
+		if(active) {
+			phase("refresh");
+		}
+	}
+
+	@Override
+	public void running(ConfigurableApplicationContext context) {
+		if(active) {
+			phase("runners");
+			timeline.finish();
+			report(context);
+		}
+	}
+
+	@Override
+	public void failed(ConfigurableApplicationContext context, Throwable exception) {
+		if(active) {
+			timeline.finish();
+			log.warn("Startup failed after {}", timeline.getPhases());
+		}
+	}
+
+	private void phase(String name) {
+		long now = System.nanoTime();
+		timeline.phase(name, TimeUnit.NANOSECONDS.toMillis(now - last));
+		last = now;
+	}
+
+	private void report(ConfigurableApplicationContext context) {
+		StringBuilder report = new StringBuilder();
+		report.append(String.format("Started in %d ms %s", timeline.getTotalMillis(), timeline.getPhases()));
+		ConfigSnapshotPropertySourceLocator locator = context.getBeanProvider(ConfigSnapshotPropertySourceLocator.class).getIfAvailable();
+		if(locator != null) {
+			report.append(String.format(", config %d ms from %s", locator.getLocateMillis(),
+					locator.isLoadedFromSnapshot() ? "snapshot" : "config server"));
+		}
+		report.append(", slowest beans (self/total ms) :");
+		for(StartupTimeline.BeanTiming bean : timeline.slowestBeans(SLOWEST_BEANS)) {
+			report.append(String.format("%n  %6d %6d  %s", bean.getSelfMillis(), bean.getTotalMillis(), bean.getName()));
+		}
+		log.info(report.toString());
+	}
+}
@@ -0,0 +1,30 @@
+-- 삭제된 게시글과 첨부파일을 옮기는 보관 테이블 (board.archive, ArchiveScheduler)
+-- 만든후 board.archive.dry-run을 false로 바꾼다. 첨부파일의 실제 파일은 옮기지 않는다.
+CREATE TABLE IF NOT EXISTS T_BOARD_ARCHIVE (
+	BOARD_IDX INT NOT NULL,
+	TITLE VARCHAR(300) NOT NULL,
+	CONTENTS TEXT NOT NULL,
+	HIT_CNT SMALLINT NOT NULL DEFAULT 0,
+	CREATED_DATETIME DATETIME NOT NULL,
+	CREATOR_ID VARCHAR(50) NOT NULL,
+	UPDATED_DATETIME DATETIME,
+	UPDATOR_ID VARCHAR(50),
+	ARCHIVED_DATETIME DATETIME NOT NULL,
+	PRIMARY KEY (BOARD_IDX)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS T_FILE_ARCHIVE (
+	IDX INT NOT NULL,
+	BOARD_IDX INT NOT NULL,
+	ORIGINAL_FILE_NAME VARCHAR(255) NOT NULL,
+	STORED_FILE_PATH VARCHAR(500) NOT NULL,
+	FILE_SIZE INT NOT NULL,
+	CREATOR_ID VARCHAR(50) NOT NULL,
+	CREATED_DATETIME DATETIME NOT NULL,
+	UPDATOR_ID VARCHAR(50),
+	UPDATED_DATETIME DATETIME,
+	DELETED_YN CHAR(1) NOT NULL,
+	ARCHIVED_DATETIME DATETIME NOT NULL,
+	PRIMARY KEY (IDX),
+	KEY IDX_FILE_ARCHIVE_BOARD (BOARD_IDX)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,13 @@
+-- 목록 버전 (GET /api/board 의 ETag, Last-Modified, 렌더링한 화면 캐시의 키)
+-- 조건부 요청마다 T_BOARD 전체를 집계하지 않도록 등록/수정/삭제/보관할때 같은 트랜잭션에서 VERSION을 올린다.
+-- 행이 없으면 버전을 확인하지 않고 매번 목록을 조회한다.
+-- board : T_BOARD(마이바티스, 리액티브), jpaBoard : T_JPA_BOARD(JPA)
+CREATE TABLE IF NOT EXISTS T_BOARD_VERSION (
+	NAME VARCHAR(50) NOT NULL,
+	VERSION BIGINT NOT NULL DEFAULT 0,
+	UPDATED_DATETIME DATETIME NOT NULL,
+	PRIMARY KEY (NAME)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+INSERT IGNORE INTO T_BOARD_VERSION (NAME, VERSION, UPDATED_DATETIME) VALUES ('board', 0, NOW());
+INSERT IGNORE INTO T_BOARD_VERSION (NAME, VERSION, UPDATED_DATETIME) VALUES ('jpaBoard', 0, NOW());
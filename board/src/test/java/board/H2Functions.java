@@ -0,0 +1,35 @@
+package board;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
+
+// sql-board.xml에서 사용하는 MySQL 함수를 H2에서 사용할수 있게 만든 함수. (db/schema-h2.sql 에서 등록)
+public class H2Functions {
+	
+	// DATE_FORMAT(date, '%Y.%m.%d %H:%i:%s')
+	public static String dateFormat(Timestamp date, String pattern) {
+		if(date == null) {
+			return null;
+		}
+		String javaPattern = pattern.replace("%Y", "yyyy").replace("%m", "MM").replace("%d", "dd")
+				.replace("%H", "HH").replace("%i", "mm").replace("%s", "ss");
+		return new SimpleDateFormat(javaPattern).format(date);
+	}
+	
+	// FORMAT(number, decimals) : 천단위 구분자를 넣은 문자열
+	public static String format(BigDecimal number, int decimals) {
+		if(number == null) {
+			return null;
+		}
+		StringBuilder pattern = new StringBuilder("#,##0");
+		if(decimals > 0) {
+			pattern.append('.');
+			for(int i = 0; i < decimals; i++) {
+				pattern.append('0');
+			}
+		}
+		return new DecimalFormat(pattern.toString()).format(number);
+	}
+}
@@ -0,0 +1,89 @@
+package board.aop;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.interceptor.BeanFactoryTransactionAttributeSourceAdvisor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import board.dto.BoardDto;
+import board.service.BoardService;
+
+// 서비스 메서드 이름에 따라 읽기 전용 트랜잭션으로 실행되는지 매퍼를 호출하는 시점에 확인한다.
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("h2")
+public class TransactionAspectTests {
+
+	@Autowired
+	private BoardService boardService;
+
+	@Autowired
+	private MapperTransactionRecorder recorder;
+
+	@Autowired
+	private DefaultPointcutAdvisor transactionAdviceAdvisor;
+
+	@Autowired
+	private BeanFactoryTransactionAttributeSourceAdvisor annotationTransactionAdvisor;
+
+	// 같은 순서이면 등록 순서에 따라 @Transactional 처리가 바깥이 될수 있다.
+	@Test
+	public void nameMatchAdvisorRunsBeforeAnnotation() {
+		assertThat(transactionAdviceAdvisor.getOrder()).isLessThan(annotationTransactionAdvisor.getOrder());
+	}
+
+	@Test
+	public void selectRunsInReadOnlyTransaction() throws Exception {
+		boardService.selectBoardList(null, 10);
+		assertThat(recorder.readOnly.get("selectBoardList")).isTrue();
+	}
+
+	@Test
+	public void updateRunsInReadWriteTransaction() throws Exception {
+		BoardDto board = new BoardDto();
+		board.setBoardIdx(1);
+		board.setTitle("transaction");
+		board.setContents("transaction");
+		boardService.updateBoard(board);
+		assertThat(recorder.readOnly.get("updateBoard")).isFalse();
+	}
+
+	@TestConfiguration
+	static class RecorderConfiguration {
+
+		@Bean
+		public MapperTransactionRecorder mapperTransactionRecorder() {
+			return new MapperTransactionRecorder();
+		}
+	}
+
+	// 트랜잭션이 없으면 기록하지 않는다.
+	@Aspect
+	static class MapperTransactionRecorder {
+
+		private final Map<String, Boolean> readOnly = new ConcurrentHashMap<>();
+
+		@Around("execution(* board.mapper.BoardMapper.*(..))")
+		public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+			if(TransactionSynchronizationManager.isActualTransactionActive()) {
+				readOnly.put(joinPoint.getSignature().getName(), TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+			}
+			return joinPoint.proceed();
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package board.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import board.dto.BoardDto;
+import board.dto.BoardFileDto;
+
+// CSV 내보내기 : 특수문자는 따옴표로 감싸고, 수식으로 시작하는 값은 엑셀이 실행하지 않게 '를 붙인다.
+public class BoardExportWriterTests {
+
+	@Test
+	public void fieldsAreQuoted() throws Exception {
+		String csv = csv(board("제목, \"인용\"", "첫줄\r\n둘째줄"), false);
+		assertThat(csv).startsWith("\uFEFFboard_idx,title,contents,hit_cnt,");
+		assertThat(csv).contains("\r\n1,\"제목, \"\"인용\"\"\",\"첫줄\r\n둘째줄\",3,admin,");
+	}
+
+	@Test
+	public void formulaIsEscaped() throws Exception {
+		assertThat(row("=HYPERLINK(\"http://evil\")")).startsWith("1,\"'=HYPERLINK(\"\"http://evil\"\")\",");
+		assertThat(row("+1+1")).startsWith("1,'+1+1,");
+		assertThat(row("-2+3")).startsWith("1,'-2+3,");
+		assertThat(row("@SUM(A1)")).startsWith("1,'@SUM(A1),");
+		assertThat(row("\tcmd")).startsWith("1,'\tcmd,");
+		assertThat(row("\rcmd")).startsWith("1,\"'\rcmd\",");
+		// 중간에 있는 기호는 그대로 쓴다.
+		assertThat(row("a=b-c")).startsWith("1,a=b-c,");
+		assertThat(row("")).startsWith("1,,");
+	}
+
+	@Test
+	public void fileNamesAreEscaped() throws Exception {
+		BoardDto board = board("제목", "내용");
+		BoardFileDto file = new BoardFileDto();
+		file.setOriginalFileName("=cmd.png");
+		file.setFileSize(10);
+		board.setFileList(Collections.singletonList(file));
+
+		assertThat(csv(board, true)).endsWith(",1,'=cmd.png,10\r\n");
+	}
+
+	private static String row(String title) throws Exception {
+		String csv = csv(board(title, "내용"), false);
+		return csv.substring(csv.indexOf("\r\n") + 2);
+	}
+
+	private static String csv(BoardDto board, boolean withFiles) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (BoardExportWriter writer = BoardExportWriter.of("csv", out, new ObjectMapper(), withFiles)) {
+			writer.write(board);
+		}
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static BoardDto board(String title, String contents) {
+		BoardDto board = new BoardDto();
+		board.setBoardIdx(1);
+		board.setTitle(title);
+		board.setContents(contents);
+		board.setHitCnt(3);
+		board.setCreatorId("admin");
+		board.setCreatedDatetime("2019.07.01 10:00:00");
+		return board;
+	}
+}
@@ -0,0 +1,50 @@
+package board.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+// Range 헤더 해석 : null이면 416, 빈 배열이면 전체(200), 그 외에는 {start, end}(206)
+public class FileDownloaderTests {
+
+	private static final long LENGTH = 1000;
+
+	@Test
+	public void closedRange() {
+		assertThat(FileDownloader.parseRange("bytes=0-99", LENGTH)).containsExactly(0, 99);
+		assertThat(FileDownloader.parseRange("bytes=100-100", LENGTH)).containsExactly(100, 100);
+		// 끝이 파일보다 크면 파일 끝까지
+		assertThat(FileDownloader.parseRange("bytes=900-5000", LENGTH)).containsExactly(900, 999);
+	}
+
+	@Test
+	public void openEndedRange() {
+		assertThat(FileDownloader.parseRange("bytes=500-", LENGTH)).containsExactly(500, 999);
+		assertThat(FileDownloader.parseRange("bytes=999-", LENGTH)).containsExactly(999, 999);
+	}
+
+	@Test
+	public void suffixRange() {
+		assertThat(FileDownloader.parseRange("bytes=-100", LENGTH)).containsExactly(900, 999);
+		// 파일보다 길면 전체
+		assertThat(FileDownloader.parseRange("bytes=-5000", LENGTH)).containsExactly(0, 999);
+	}
+
+	@Test
+	public void unsatisfiableRange() {
+		assertThat(FileDownloader.parseRange("bytes=1000-", LENGTH)).isNull();
+		assertThat(FileDownloader.parseRange("bytes=2000-3000", LENGTH)).isNull();
+		assertThat(FileDownloader.parseRange("bytes=500-100", LENGTH)).isNull();
+		assertThat(FileDownloader.parseRange("bytes=-0", LENGTH)).isNull();
+		assertThat(FileDownloader.parseRange("bytes=0-", 0)).isNull();
+	}
+
+	// 여러 범위와 잘못된 형식은 무시하고 전체를 보낸다.
+	@Test
+	public void multiRangeAndInvalidSendWholeFile() {
+		assertThat(FileDownloader.parseRange("bytes=0-99,200-299", LENGTH)).isEmpty();
+		assertThat(FileDownloader.parseRange("items=0-99", LENGTH)).isEmpty();
+		assertThat(FileDownloader.parseRange("bytes=abc-", LENGTH)).isEmpty();
+		assertThat(FileDownloader.parseRange("bytes=100", LENGTH)).isEmpty();
+	}
+}
@@ -0,0 +1,91 @@
+package board.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+// 모아둔 조회수를 한번에 넘기고, 저장에 실패하면 다음 flush에서 다시 넘긴다.
+public class HitCounterTests {
+
+	private final HitCounter hitCounter = new HitCounter();
+
+	private final List<Map<Integer, Long>> written = new ArrayList<>();
+
+	@Test
+	public void flushWritesPendingCountsOnce() throws Exception {
+		hitCounter.increment(1);
+		hitCounter.increment(1);
+		hitCounter.increment(2);
+		assertThat(hitCounter.pending(1)).isEqualTo(2);
+
+		hitCounter.flush(this::write);
+		assertThat(written).hasSize(1);
+		assertThat(written.get(0)).containsOnly(entry(1, 2L), entry(2, 1L));
+		assertThat(hitCounter.pending(1)).isZero();
+		assertThat(hitCounter.pending(2)).isZero();
+
+		// 새 조회가 없으면 writer를 부르지 않는다.
+		hitCounter.flush(this::write);
+		assertThat(written).hasSize(1);
+
+		hitCounter.increment(2);
+		hitCounter.flush(this::write);
+		assertThat(written.get(1)).containsOnly(entry(2, 1L));
+	}
+
+	@Test
+	public void failedFlushIsRetried() throws Exception {
+		hitCounter.increment(1);
+		hitCounter.increment(1);
+
+		assertThatThrownBy(() -> hitCounter.flush(deltas -> {
+			throw new IllegalStateException("db is down");
+		})).isInstanceOf(IllegalStateException.class);
+		assertThat(hitCounter.pending(1)).isEqualTo(2);
+
+		// 실패한 조회수와 그 사이에 들어온 조회수를 함께 넘긴다.
+		hitCounter.increment(1);
+		hitCounter.flush(this::write);
+		assertThat(written).hasSize(1);
+		assertThat(written.get(0)).containsOnly(entry(1, 3L));
+		assertThat(hitCounter.pending(1)).isZero();
+	}
+
+	// 조회가 없어서 맵에서 제거된 글도 다시 조회하면 처음부터 센다.
+	@Test
+	public void idleBoardIsCountedAgain() throws Exception {
+		hitCounter.increment(1);
+		hitCounter.flush(this::write);
+		hitCounter.flush(this::write);
+		hitCounter.flush(this::write);
+
+		hitCounter.increment(1);
+		assertThat(hitCounter.pending(1)).isEqualTo(1);
+		hitCounter.flush(this::write);
+		assertThat(written).hasSize(2);
+		assertThat(written.get(1)).containsOnly(entry(1, 1L));
+	}
+
+	// 화면의 조회수는 DB에 반영된 조회수 + 아직 반영되지 않은 조회수이다.
+	@Test
+	public void incrementReturnsFlushedPlusPending() throws Exception {
+		int[] flushed = {10};
+		assertThat(hitCounter.increment(1, () -> flushed[0])).isEqualTo(11);
+		assertThat(hitCounter.increment(1, () -> flushed[0])).isEqualTo(12);
+
+		// writer가 캐시된 조회수를 올린 다음 pending에서 빠진다.
+		hitCounter.flush(deltas -> flushed[0] += deltas.get(1));
+		assertThat(hitCounter.increment(1, () -> flushed[0])).isEqualTo(13);
+	}
+
+	private void write(Map<Integer, Long> deltas) {
+		written.add(new HashMap<>(deltas));
+	}
+}
@@ -0,0 +1,73 @@
+package board.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+// 같은 내용의 파일은 한번만 저장하고 참조수가 0이 되면 지운다.
+public class LocalAttachmentStoreTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private LocalAttachmentStore store;
+
+	@Before
+	public void setUp() {
+		store = new LocalAttachmentStore(folder.getRoot().getPath());
+	}
+
+	@Test
+	public void releaseDeletesAfterLastReference() throws Exception {
+		String key = put("same");
+		assertThat(put("same")).isEqualTo(key);
+		Path blob = store.resolve(key);
+		assertThat(refFile(blob)).hasContent("2");
+
+		store.release(key);
+		assertThat(blob).exists();
+		assertThat(refFile(blob)).hasContent("1");
+
+		store.release(key);
+		assertThat(blob).doesNotExist();
+		assertThat(refFile(blob)).doesNotExist();
+		// 임시 파일이 남지 않는다.
+		assertThat(blob.getParent().toFile().list()).isEmpty();
+	}
+
+	// 덮어쓰다가 멈춰서 비어 있는 참조수는 고쳐서 사용하고 파일은 지우지 않는다.
+	@Test
+	public void unreadableRefCountIsRepaired() throws Exception {
+		String key = put("broken");
+		Path blob = store.resolve(key);
+
+		Files.write(refFile(blob), new byte[0]);
+		assertThat(put("broken")).isEqualTo(key);
+		assertThat(refFile(blob)).hasContent("2");
+
+		Files.write(refFile(blob), "x".getBytes(StandardCharsets.US_ASCII));
+		store.release(key);
+		assertThat(blob).exists();
+		assertThat(refFile(blob)).hasContent("1");
+
+		store.release(key);
+		assertThat(blob).doesNotExist();
+	}
+
+	private String put(String contents) throws Exception {
+		Path staging = store.newStagingFile();
+		Files.write(staging, contents.getBytes(StandardCharsets.UTF_8));
+		return store.put(staging, null, ".txt");
+	}
+
+	private static Path refFile(Path blob) {
+		return blob.resolveSibling(blob.getFileName() + ".ref");
+	}
+}
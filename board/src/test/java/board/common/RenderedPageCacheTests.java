@@ -0,0 +1,131 @@
+package board.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.View;
+import org.thymeleaf.spring5.view.ThymeleafViewResolver;
+
+import board.mapper.BoardMapper;
+
+// 렌더링한 화면을 hole 자리에서 나눠 저장하고, 보낼때마다 hole 값을 채운다.
+// DB의 목록 버전이 바뀌면 다시 렌더링한다.
+public class RenderedPageCacheTests {
+
+	private static final String TEMPLATE = "/board/boardDetail";
+
+	private final RenderedPageCache cache = new RenderedPageCache(1024 * 1024, 600);
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private final AtomicLong version = new AtomicLong();
+
+	private final BoardMapper boardMapper = mock(BoardMapper.class);
+
+	@Before
+	public void setUp() throws Exception {
+		// 템플릿 대신 모델 값을 그대로 쓰는 View
+		View view = (model, request, response) -> response.getWriter()
+				.write("<h1>" + model.get("title") + "</h1><span>" + model.get("hitCnt") + "</span><em>" + model.get("likes") + "</em>");
+		ThymeleafViewResolver viewResolver = mock(ThymeleafViewResolver.class);
+		when(viewResolver.resolveViewName(eq(TEMPLATE), any())).thenReturn(view);
+		ReflectionTestUtils.setField(cache, "thymeleafViewResolver", viewResolver);
+		ReflectionTestUtils.setField(cache, "boardMapper", boardMapper);
+		ReflectionTestUtils.setField(cache, "enabled", true);
+		when(boardMapper.selectVersion(RenderedPageCache.BOARD)).thenAnswer(invocation -> version.get());
+	}
+
+	@Test
+	public void cachedPageFillsHoles() throws Exception {
+		assertThat(render(1, holes(10, 1))).isEqualTo("<h1>제목</h1><span>10</span><em>1</em>");
+		assertThat(render(1, holes(11, 2))).isEqualTo("<h1>제목</h1><span>11</span><em>2</em>");
+		assertThat(render(1, holes(123456, 3))).isEqualTo("<h1>제목</h1><span>123456</span><em>3</em>");
+		assertThat(loads.get()).isEqualTo(1);
+	}
+
+	// 한글(UTF-8 3바이트)과 hole 값의 길이가 달라져도 Content-Length가 맞아야 한다.
+	@Test
+	public void contentLengthMatchesFilledPage() throws Exception {
+		render(1, holes(1, 1));
+		MockHttpServletResponse response = response(1, holes(1000, 1));
+		byte[] body = response.getContentAsByteArray();
+		assertThat(response.getContentLength()).isEqualTo(body.length);
+		assertThat(new String(body, StandardCharsets.UTF_8)).contains("<span>1000</span>");
+	}
+
+	// 다른 서버나 리액티브 서비스에서 고쳐도 DB의 버전이 올라가므로 다시 렌더링한다.
+	@Test
+	public void versionChangeRendersAgain() throws Exception {
+		render(1, holes(1, 1));
+		render(2, holes(1, 1));
+		assertThat(loads.get()).isEqualTo(2);
+
+		version.incrementAndGet();
+		render(1, holes(1, 1));
+		render(2, holes(1, 1));
+		assertThat(loads.get()).isEqualTo(4);
+
+		render(1, holes(1, 1));
+		assertThat(loads.get()).isEqualTo(4);
+	}
+
+	// 버전 행이 없으면 캐시하지 않고 템플릿으로 렌더링한다.
+	@Test
+	public void withoutVersionRowIsNotCached() throws Exception {
+		when(boardMapper.selectVersion(RenderedPageCache.BOARD)).thenReturn(null);
+		for(int i = 1; i <= 2; i++) {
+			ModelAndView mv = cache.modelAndView(RenderedPageCache.BOARD, TEMPLATE, 1, () -> {
+				loads.incrementAndGet();
+				return Collections.singletonMap("title", "제목");
+			}, holes(i, 1));
+			assertThat(mv.getViewName()).isEqualTo(TEMPLATE);
+			assertThat(mv.getModel()).containsEntry("title", "제목").containsEntry("hitCnt", i);
+		}
+		assertThat(loads.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void pageWithoutHoles() throws Exception {
+		assertThat(render(1, Collections.emptyMap())).isEqualTo("<h1>제목</h1><span>null</span><em>null</em>");
+		assertThat(render(1, Collections.emptyMap())).isEqualTo("<h1>제목</h1><span>null</span><em>null</em>");
+		assertThat(loads.get()).isEqualTo(1);
+	}
+
+	private String render(int boardIdx, Map<String, ?> holes) throws Exception {
+		return response(boardIdx, holes).getContentAsString();
+	}
+
+	private MockHttpServletResponse response(int boardIdx, Map<String, ?> holes) throws Exception {
+		ModelAndView mv = cache.modelAndView(RenderedPageCache.BOARD, TEMPLATE, boardIdx, () -> {
+			loads.incrementAndGet();
+			return Collections.singletonMap("title", "제목");
+		}, holes);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.setCharacterEncoding("UTF-8");
+		mv.getView().render(mv.getModel(), new MockHttpServletRequest(), response);
+		return response;
+	}
+
+	private static Map<String, Object> holes(int hitCnt, int likes) {
+		Map<String, Object> holes = new LinkedHashMap<>();
+		holes.put("hitCnt", hitCnt);
+		holes.put("likes", likes);
+		return holes;
+	}
+}
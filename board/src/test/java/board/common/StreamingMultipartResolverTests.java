@@ -0,0 +1,154 @@
+package board.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+
+// 이미지가 아닌 파일은 저장하지 않고, 크기 제한을 넘으면 저장한 파일을 모두 지운다.
+public class StreamingMultipartResolverTests {
+
+	private static final String BOUNDARY = "----board-test-boundary";
+
+	private static final byte[] PNG_HEADER = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private StreamingMultipartResolver resolver;
+
+	@Before
+	public void setUp() {
+		resolver = new StreamingMultipartResolver(new LocalAttachmentStore(folder.getRoot().getPath()));
+	}
+
+	@Test
+	public void imageIsStoredWithDetectedTypeAndChecksum() throws Exception {
+		byte[] png = image(PNG_HEADER, 20000);
+		MultipartHttpServletRequest request = resolver.resolveMultipart(request(body(
+				field("title", "제목"), file("files", "photo.txt", "text/plain", png))));
+
+		assertThat(request.getParameter("title")).isEqualTo("제목");
+		MultipartFile file = request.getFile("files");
+		// 클라이언트가 보낸 Content-Type이 아니라 내용으로 정한다.
+		assertThat(file.getContentType()).isEqualTo("image/png");
+		assertThat(file.getSize()).isEqualTo(png.length);
+		StoredMultipartFile stored = (StoredMultipartFile) file;
+		assertThat(Files.readAllBytes(Paths.get(stored.getStagingFile()))).isEqualTo(png);
+		assertThat(stored.getChecksum()).isEqualTo(sha256(png));
+	}
+
+	@Test
+	public void nonImageIsSkipped() throws Exception {
+		byte[] script = "<script>alert(1)</script>".getBytes(StandardCharsets.UTF_8);
+		MultipartHttpServletRequest request = resolver.resolveMultipart(request(body(
+				file("files", "photo.png", "image/png", script))));
+
+		assertThat(request.getFiles("files")).isEmpty();
+		assertThat(stagingFiles()).isEmpty();
+	}
+
+	@Test
+	public void gifAndJpegAreDetected() throws Exception {
+		MultipartHttpServletRequest request = resolver.resolveMultipart(request(body(
+				file("gif", "a.gif", "application/octet-stream", image("GIF89a".getBytes(StandardCharsets.US_ASCII), 100)),
+				file("jpeg", "a.jpg", "application/octet-stream", image(new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}, 100)))));
+
+		assertThat(request.getFile("gif").getContentType()).isEqualTo("image/gif");
+		assertThat(request.getFile("jpeg").getContentType()).isEqualTo("image/jpeg");
+	}
+
+	@Test
+	public void fileLargerThanLimitIsRejected() throws Exception {
+		resolver.setMaxUploadSizePerFile(10000);
+		byte[] body = body(file("files", "big.png", "image/png", image(PNG_HEADER, 20000)));
+
+		assertThatThrownBy(() -> resolver.resolveMultipart(request(body)))
+				.isInstanceOf(MaxUploadSizeExceededException.class);
+		assertThat(stagingFiles()).isEmpty();
+	}
+
+	// 먼저 저장한 파일도 지운다.
+	@Test
+	public void requestLargerThanLimitIsRejected() throws Exception {
+		resolver.setMaxUploadSize(15000);
+		byte[] body = body(
+				file("files", "a.png", "image/png", image(PNG_HEADER, 10000)),
+				file("files", "b.png", "image/png", image(PNG_HEADER, 10000)));
+
+		assertThatThrownBy(() -> resolver.resolveMultipart(request(body)))
+				.isInstanceOf(MaxUploadSizeExceededException.class);
+		assertThat(stagingFiles()).isEmpty();
+	}
+
+	private String[] stagingFiles() {
+		String[] files = new File(folder.getRoot(), ".staging").list();
+		return files == null ? new String[0] : files;
+	}
+
+	private static MockHttpServletRequest request(byte[] body) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/board/insertBoard.do");
+		request.setContentType("multipart/form-data; boundary=" + BOUNDARY);
+		request.setCharacterEncoding("UTF-8");
+		request.setContent(body);
+		return request;
+	}
+
+	private static byte[] body(byte[]... parts) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for(byte[] part : parts) {
+			out.write(part);
+		}
+		out.write(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+		return out.toByteArray();
+	}
+
+	private static byte[] field(String name, String value) throws Exception {
+		return part("Content-Disposition: form-data; name=\"" + name + "\"\r\n", value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static byte[] file(String name, String fileName, String contentType, byte[] contents) throws Exception {
+		return part("Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + fileName + "\"\r\n"
+				+ "Content-Type: " + contentType + "\r\n", contents);
+	}
+
+	private static byte[] part(String headers, byte[] contents) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(("--" + BOUNDARY + "\r\n" + headers + "\r\n").getBytes(StandardCharsets.UTF_8));
+		out.write(contents);
+		out.write("\r\n".getBytes(StandardCharsets.UTF_8));
+		return out.toByteArray();
+	}
+
+	// 시그니처 뒤에 size 바이트까지 채운다.
+	private static byte[] image(byte[] header, int size) {
+		byte[] image = Arrays.copyOf(header, size);
+		for(int i = header.length; i < size; i++) {
+			image[i] = (byte) i;
+		}
+		return image;
+	}
+
+	private static String sha256(byte[] bytes) throws Exception {
+		StringBuilder builder = new StringBuilder();
+		for(byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+			builder.append(String.format("%02x", b));
+		}
+		return builder.toString();
+	}
+}
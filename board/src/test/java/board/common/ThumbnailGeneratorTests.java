@@ -0,0 +1,133 @@
+package board.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// 썸네일을 만들수 없는 이미지는 실패 표시를 남기고, 이후 요청에서는 다시 만들지 않고 원본을 캐시하게 보낸다.
+public class ThumbnailGeneratorTests {
+
+	private static final byte[] PNG_HEADER = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private LocalAttachmentStore store;
+
+	private ThumbnailGenerator generator;
+
+	private FileDownloader downloader;
+
+	@Before
+	public void setUp() {
+		store = new LocalAttachmentStore(folder.getRoot().getPath());
+		generator = new ThumbnailGenerator();
+		ReflectionTestUtils.setField(generator, "attachmentStore", store);
+		ReflectionTestUtils.setField(generator, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(generator, "size", 200);
+		ReflectionTestUtils.setField(generator, "queueCapacity", 10);
+		ReflectionTestUtils.setField(generator, "maxPixels", 100 * 100);
+		generator.init();
+
+		downloader = new FileDownloader();
+		ReflectionTestUtils.setField(downloader, "attachmentStore", store);
+		ReflectionTestUtils.setField(downloader, "thumbnailGenerator", generator);
+	}
+
+	@After
+	public void tearDown() {
+		generator.destroy();
+	}
+
+	@Test
+	public void thumbnailIsGenerated() throws Exception {
+		String key = put(image(50, 50), ".png");
+		generator.generate(key);
+		assertThat(await(key, ThumbnailGenerator.THUMBNAIL)).isTrue();
+
+		MockHttpServletResponse response = thumbnail(key);
+		assertThat(response.getContentType()).isEqualTo("image/jpeg");
+		assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).contains("immutable");
+	}
+
+	@Test
+	public void tooLargeImageIsNotRetried() throws Exception {
+		String key = put(image(200, 200), ".png");
+		assertFailedOnce(key);
+		assertThat(meterRegistry.counter("board.thumbnail.too-large").count()).isEqualTo(1);
+	}
+
+	@Test
+	public void undecodableImageIsNotRetried() throws Exception {
+		byte[] broken = new byte[1000];
+		System.arraycopy(PNG_HEADER, 0, broken, 0, PNG_HEADER.length);
+		String key = put(broken, ".png");
+		assertFailedOnce(key);
+	}
+
+	private void assertFailedOnce(String key) throws Exception {
+		// 처음 요청은 원본을 캐시하지 않게 보내고 썸네일을 만들도록 요청한다.
+		assertThat(thumbnail(key).getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-cache");
+		assertThat(await(key, ThumbnailGenerator.THUMBNAIL_FAILED)).isTrue();
+		assertThat(generator.isUnavailable(key)).isTrue();
+
+		// 실패 표시를 지우지 않으면 다시 만들지 않는다.
+		Path marker = store.resolveDerivative(key, ThumbnailGenerator.THUMBNAIL_FAILED);
+		long modified = Files.getLastModifiedTime(marker).toMillis();
+		MockHttpServletResponse response = thumbnail(key);
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getContentType()).isEqualTo("image/png");
+		assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).contains("immutable");
+		Thread.sleep(100);
+		assertThat(Files.getLastModifiedTime(marker).toMillis()).isEqualTo(modified);
+		assertThat(Files.exists(store.resolveDerivative(key, ThumbnailGenerator.THUMBNAIL))).isFalse();
+
+		// 원본이 삭제되면 실패 표시도 삭제된다.
+		store.release(key);
+		assertThat(marker).doesNotExist();
+	}
+
+	private MockHttpServletResponse thumbnail(String key) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		downloader.thumbnail(new MockHttpServletRequest("GET", "/board/thumbnail.do"), response, key);
+		return response;
+	}
+
+	private boolean await(String key, String name) throws InterruptedException {
+		Path path = store.resolveDerivative(key, name);
+		for(int i = 0; i < 100 && Files.exists(path) == false; i++) {
+			Thread.sleep(50);
+		}
+		return Files.exists(path);
+	}
+
+	private String put(byte[] contents, String extension) throws Exception {
+		Path staging = store.newStagingFile();
+		Files.write(staging, contents);
+		return store.put(staging, null, extension);
+	}
+
+	private byte[] image(int width, int height) throws Exception {
+		Path file = folder.newFile().toPath();
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", file.toFile());
+		return Files.readAllBytes(file);
+	}
+}
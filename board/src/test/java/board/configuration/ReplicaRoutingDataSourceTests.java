@@ -0,0 +1,62 @@
+package board.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// 읽기 전용 트랜잭션은 복제 DB를 사용하고, 캐시에 넣을 값은 원본 DB에서 읽는다.
+public class ReplicaRoutingDataSourceTests {
+
+	private final Connection primaryConnection = mock(Connection.class);
+
+	private final Connection replicaConnection = mock(Connection.class);
+
+	private ReplicaRoutingDataSource routing;
+
+	@Before
+	public void setUp() throws SQLException {
+		DataSource primary = mock(DataSource.class);
+		DataSource replica = mock(DataSource.class);
+		when(primary.getConnection()).thenReturn(primaryConnection);
+		when(replica.getConnection()).thenReturn(replicaConnection);
+		routing = new ReplicaRoutingDataSource(primary, replica);
+	}
+
+	@After
+	public void tearDown() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+	}
+
+	@Test
+	public void readOnlyTransactionUsesReplica() throws Exception {
+		assertThat(routing.getConnection()).isSameAs(primaryConnection);
+
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertThat(routing.getConnection()).isSameAs(replicaConnection);
+	}
+
+	@Test
+	public void usePrimaryInReadOnlyTransaction() throws Exception {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		Connection connection = ReplicaRoutingDataSource.usePrimary(routing::getConnection);
+		assertThat(connection).isSameAs(primaryConnection);
+		// 중첩해서 사용해도 바깥이 끝날때까지 원본 DB를 사용한다.
+		connection = ReplicaRoutingDataSource.usePrimary(() -> {
+			ReplicaRoutingDataSource.usePrimary(() -> null);
+			return routing.getConnection();
+		});
+		assertThat(connection).isSameAs(primaryConnection);
+		assertThat(routing.getConnection()).isSameAs(replicaConnection);
+	}
+}
@@ -0,0 +1,127 @@
+package board.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import board.dto.SearchPageDto;
+import board.dto.SearchResultDto;
+
+// 검색어의 모든 단어가 있는 글만 BM25 점수 순서로 찾는다.
+public class SearchIndexTests {
+
+	private final SearchIndex index = new SearchIndex("test", (afterIdx, size) -> Arrays.asList());
+
+	// 제목에 나온 단어는 두번 나온것으로 센다.
+	@Test
+	public void titleMatchRanksFirst() {
+		index.index(1, "guide", "spring boot");
+		index.index(2, "spring boot", "guide");
+
+		assertThat(search("spring")).containsExactly(2, 1);
+	}
+
+	@Test
+	public void moreOccurrencesRankFirst() {
+		index.index(1, "x", "cache miss hit rate");
+		index.index(2, "y", "cache cache cache miss");
+
+		assertThat(search("cache")).containsExactly(2, 1);
+	}
+
+	// 같은 횟수이면 짧은 글이 먼저 나온다.
+	@Test
+	public void shorterDocumentRanksFirst() {
+		index.index(1, "a", "redis and a lot of other words about caching");
+		index.index(2, "b", "redis");
+
+		assertThat(search("redis")).containsExactly(2, 1);
+	}
+
+	// 적게 나오는 단어가 들어있는 글이 더 높은 점수를 받는다.
+	@Test
+	public void rareTermWeighsMore() {
+		index.index(1, "a", "common common rare");
+		index.index(2, "b", "common common common");
+		index.index(3, "c", "common rare rare");
+		index.index(4, "d", "common other");
+
+		List<SearchResultDto> results = index.search("common rare", 0, 10).getList();
+		assertThat(results).extracting(SearchResultDto::getBoardIdx).containsExactly(3, 1);
+		assertThat(results.get(0).getScore()).isGreaterThan(results.get(1).getScore());
+	}
+
+	@Test
+	public void allTermsMustMatch() {
+		index.index(1, "스프링 게시판", "게시판을 만들면서 배우는 스프링");
+		index.index(2, "스프링 부트", "설정 서버");
+		index.index(3, "공지", "게시판 점검");
+
+		assertThat(search("게시판 스프링")).containsExactlyInAnyOrder(1);
+		assertThat(search("게시판")).containsExactlyInAnyOrder(1, 3);
+		assertThat(search("없는단어")).isEmpty();
+	}
+
+	@Test
+	public void updateAndRemoveChangeResults() {
+		index.index(1, "old title", "contents");
+		index.index(1, "new title", "contents");
+		assertThat(search("old")).isEmpty();
+		assertThat(search("new")).containsExactly(1);
+
+		index.remove(1);
+		assertThat(search("title")).isEmpty();
+	}
+
+	@Test
+	public void rebuildLoadsFromLoader() throws Exception {
+		List<SearchDocument> documents = Arrays.asList(
+				new SearchDocument(1, "첫번째 글", "내용"),
+				new SearchDocument(2, "두번째 글", "내용"));
+		SearchIndex loaded = new SearchIndex("test", (afterIdx, size) -> documents.stream()
+				.filter(document -> document.getBoardIdx() > afterIdx).limit(size).collect(Collectors.toList()));
+		loaded.rebuild();
+
+		assertThat(loaded.search("내용", 0, 10).getTotalCount()).isEqualTo(2);
+		assertThat(loaded.search("두번째", 0, 10).getList()).extracting(SearchResultDto::getBoardIdx).containsExactly(2);
+	}
+
+	@Test
+	public void resultsArePaged() {
+		for(int i = 1; i <= 5; i++) {
+			index.index(i, "page", "contents");
+		}
+		SearchPageDto<SearchResultDto> page = index.search("page", 1, 2);
+		assertThat(page.getTotalCount()).isEqualTo(5);
+		// 점수가 같으면 최근 글부터
+		assertThat(page.getList()).extracting(SearchResultDto::getBoardIdx).containsExactly(3, 2);
+	}
+
+	// 단어가 많은 검색어는 앞에서부터 서로 다른 32개 단어로 검색한다.
+	@Test
+	public void longQueryUsesFirstTerms() {
+		index.index(1, "long", terms(1, 32));
+		index.index(2, "short", terms(1, 31));
+
+		// 중복된 단어는 한번만 센다.
+		assertThat(search("term1 term1 " + terms(1, 40))).containsExactly(1);
+		assertThat(search(terms(1, 40))).containsExactly(1);
+		assertThat(search(terms(1, 31) + " " + terms(41, 50))).isEmpty();
+	}
+
+	private static String terms(int from, int to) {
+		StringBuilder builder = new StringBuilder();
+		for(int i = from; i <= to; i++) {
+			builder.append(" term").append(i);
+		}
+		return builder.toString().trim();
+	}
+
+	private List<Integer> search(String query) {
+		return index.search(query, 0, 10).getList().stream().map(SearchResultDto::getBoardIdx).collect(Collectors.toList());
+	}
+}
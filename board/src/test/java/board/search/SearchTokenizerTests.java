@@ -0,0 +1,35 @@
+package board.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class SearchTokenizerTests {
+
+	// 조사가 붙어도 같은 두글자 단어가 나온다.
+	@Test
+	public void koreanIsSplitIntoBigrams() {
+		assertThat(SearchTokenizer.tokenize("게시판에서")).containsExactly("게시", "시판", "판에", "에서");
+		assertThat(SearchTokenizer.tokenize("게시판")).containsExactly("게시", "시판");
+		assertThat(SearchTokenizer.tokenize("글 하나")).containsExactly("글", "하나");
+	}
+
+	@Test
+	public void hanAndKanaAreSplitIntoBigrams() {
+		assertThat(SearchTokenizer.tokenize("掲示板")).containsExactly("掲示", "示板");
+		assertThat(SearchTokenizer.tokenize("カタカナ")).containsExactly("カタ", "タカ", "カナ");
+	}
+
+	// 영문과 숫자는 소문자 단어 그대로, 글자 종류가 바뀌는 곳과 기호에서 나눈다.
+	@Test
+	public void latinWordsAreLowercased() {
+		assertThat(SearchTokenizer.tokenize("Spring Boot 2.1")).containsExactly("spring", "boot", "2", "1");
+		assertThat(SearchTokenizer.tokenize("Spring게시판, JPA!")).containsExactly("spring", "게시", "시판", "jpa");
+	}
+
+	@Test
+	public void emptyTextHasNoTokens() {
+		assertThat(SearchTokenizer.tokenize(null)).isEmpty();
+		assertThat(SearchTokenizer.tokenize("  -- !! ")).isEmpty();
+	}
+}
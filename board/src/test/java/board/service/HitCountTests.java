@@ -0,0 +1,110 @@
+package board.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import board.dto.BoardDto;
+import board.entity.BoardEntity;
+import board.mapper.BoardMapper;
+import board.repository.JpaBoardRepository;
+
+// 조회수를 DB에 반영(flushHitCount)해도 상세 화면의 조회수가 줄어들지 않는지 확인한다.
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "board.hit-count.flush-delay=3600000")
+@ActiveProfiles("h2")
+public class HitCountTests {
+
+	@Autowired
+	private BoardService boardService;
+
+	@Autowired
+	private JpaBoardService jpaBoardService;
+
+	@Autowired
+	private BoardMapper boardMapper;
+
+	@Autowired
+	private JpaBoardRepository jpaBoardRepository;
+
+	@Test
+	public void hitCountDoesNotDropAfterFlush() throws Exception {
+		int boardIdx = insertBoard();
+		int hitCnt = boardService.selectBoardDetail(boardIdx).getHitCnt();
+		for(int i = 0; i < 5; i++) {
+			boardService.flushHitCount();
+			int next = boardService.selectBoardDetail(boardIdx).getHitCnt();
+			assertThat(next).isEqualTo(hitCnt + 1);
+			hitCnt = next;
+		}
+		assertThat(boardMapper.selectBoardDetail(boardIdx).getHitCnt()).isEqualTo(hitCnt - 1);
+	}
+
+	@Test
+	public void jpaHitCountDoesNotDropAfterFlush() throws Exception {
+		int boardIdx = saveJpaBoard();
+		int hitCnt = jpaBoardService.selectBoardDetail(boardIdx).getHitCnt();
+		for(int i = 0; i < 5; i++) {
+			jpaBoardService.flushHitCount();
+			int next = jpaBoardService.selectBoardDetail(boardIdx).getHitCnt();
+			assertThat(next).isEqualTo(hitCnt + 1);
+			hitCnt = next;
+		}
+		assertThat(jpaBoardRepository.findById(boardIdx).get().getHitCnt()).isEqualTo(hitCnt - 1);
+	}
+
+	// 다른 스레드가 계속 flush하는 동안 조회해도 조회수가 줄어들지 않아야 한다.
+	// 지워지는 Cell에 더해진 조회는 다음 flush까지 보이지 않을수 있으므로 같은 값은 허용한다.
+	@Test
+	public void hitCountDoesNotDropWhileFlushing() throws Exception {
+		int boardIdx = insertBoard();
+		AtomicBoolean stop = new AtomicBoolean();
+		CompletableFuture<Void> flusher = CompletableFuture.runAsync(() -> {
+			while(stop.get() == false) {
+				try {
+					boardService.flushHitCount();
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		});
+		try {
+			int hitCnt = -1;
+			for(int i = 0; i < 500; i++) {
+				int next = boardService.selectBoardDetail(boardIdx).getHitCnt();
+				assertThat(next).isGreaterThanOrEqualTo(hitCnt);
+				hitCnt = next;
+			}
+		} finally {
+			stop.set(true);
+			flusher.get();
+		}
+		boardService.flushHitCount();
+		assertThat(boardMapper.selectBoardDetail(boardIdx).getHitCnt()).isEqualTo(500);
+		assertThat(boardService.selectBoardDetail(boardIdx).getHitCnt()).isEqualTo(501);
+	}
+
+	private int insertBoard() throws Exception {
+		BoardDto board = new BoardDto();
+		board.setTitle("hit count");
+		board.setContents("hit count");
+		boardMapper.insertBoard(board);
+		return board.getBoardIdx();
+	}
+
+	private int saveJpaBoard() {
+		BoardEntity board = new BoardEntity();
+		board.setTitle("hit count");
+		board.setContents("hit count");
+		board.setCreatorId("admin");
+		return jpaBoardRepository.save(board).getBoardIdx();
+	}
+}
@@ -0,0 +1,83 @@
+package board.startup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.cloud.context.encrypt.EncryptorFactory;
+import org.springframework.core.env.MapPropertySource;
+
+// 저장한 설정 파일은 실행 계정만 읽을수 있고 비밀 값은 그대로 남지 않는다.
+public class ConfigSnapshotStoreTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void secretsAreRemovedWithoutKey() throws Exception {
+		ConfigSnapshotStore store = store(null);
+		store.save(snapshot());
+		store.save(snapshot());
+
+		String saved = new String(Files.readAllBytes(store.getFile()), "UTF-8");
+		assertThat(saved).doesNotContain("db-password").doesNotContain("oauth-secret").contains("jdbc:mysql");
+		ConfigSnapshot loaded = store.load();
+		assertThat(loaded.isSecretsRemoved()).isTrue();
+		assertThat(loaded.toPropertySource().getProperty("spring.datasource.password")).isNull();
+		assertThat(loaded.toPropertySource().getProperty("spring.datasource.url")).isEqualTo("jdbc:mysql://db/board");
+
+		Path directory = store.getFile().getParent();
+		assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(directory))).isEqualTo("rwx------");
+		try (Stream<Path> files = Files.list(directory)) {
+			// 현재 파일과 이전 파일
+			files.forEach(file -> assertThat(permissions(file)).isEqualTo("rw-------"));
+		}
+	}
+
+	@Test
+	public void secretsAreEncryptedWithKey() throws Exception {
+		ConfigSnapshotStore store = store("snapshot-test-key");
+		ConfigSnapshot snapshot = snapshot();
+		store.save(snapshot);
+
+		String saved = new String(Files.readAllBytes(store.getFile()), "UTF-8");
+		assertThat(saved).doesNotContain("db-password").doesNotContain("oauth-secret").contains("{cipher}");
+		ConfigSnapshot loaded = store.load();
+		assertThat(loaded.isSecretsEncrypted()).isTrue();
+		assertThat(loaded.sameProperties(snapshot)).isTrue();
+
+		// 다른 키로는 읽지 않는다.
+		assertThat(store("other-key").load()).isNull();
+		assertThat(store(null).load()).isNull();
+	}
+
+	private ConfigSnapshotStore store(String key) {
+		return new ConfigSnapshotStore(folder.getRoot().toPath().resolve("config-snapshot").toString(), "board", "default", null, 5,
+				key == null ? null : new EncryptorFactory().create(key));
+	}
+
+	private static ConfigSnapshot snapshot() {
+		Map<String, Object> source = new LinkedHashMap<>();
+		source.put("spring.datasource.url", "jdbc:mysql://db/board");
+		source.put("spring.datasource.password", "db-password");
+		source.put("board.oauth.client-secret", "oauth-secret");
+		return ConfigSnapshot.of("board", "default", null, new MapPropertySource("board.yml", source));
+	}
+
+	private static String permissions(Path file) {
+		try {
+			return PosixFilePermissions.toString(Files.getPosixFilePermissions(file));
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,71 @@
+-- MySQL의 T_BOARD, T_FILE 과 같은 구조 
+CREATE TABLE IF NOT EXISTS T_BOARD (
+	BOARD_IDX INT NOT NULL AUTO_INCREMENT,
+	TITLE VARCHAR(300) NOT NULL,
+	CONTENTS TEXT NOT NULL,
+	HIT_CNT SMALLINT NOT NULL DEFAULT 0,
+	CREATED_DATETIME DATETIME NOT NULL,
+	CREATOR_ID VARCHAR(50) NOT NULL,
+	UPDATED_DATETIME DATETIME,
+	UPDATOR_ID VARCHAR(50),
+	DELETE_YN CHAR(1) DEFAULT 'N',
+	PRIMARY KEY (BOARD_IDX)
+);
+
+CREATE TABLE IF NOT EXISTS T_FILE (
+	IDX INT NOT NULL AUTO_INCREMENT,
+	BOARD_IDX INT NOT NULL,
+	ORIGINAL_FILE_NAME VARCHAR(255) NOT NULL,
+	STORED_FILE_PATH VARCHAR(500) NOT NULL,
+	FILE_SIZE INT NOT NULL,
+	CREATOR_ID VARCHAR(50) NOT NULL,
+	CREATED_DATETIME DATETIME NOT NULL,
+	UPDATOR_ID VARCHAR(50),
+	UPDATED_DATETIME DATETIME,
+	DELETED_YN CHAR(1) NOT NULL DEFAULT 'N',
+	PRIMARY KEY (IDX)
+);
+
+-- 목록 버전 (main/resources/db/schema-version-mysql.sql)
+CREATE TABLE IF NOT EXISTS T_BOARD_VERSION (
+	NAME VARCHAR(50) NOT NULL,
+	VERSION BIGINT NOT NULL DEFAULT 0,
+	UPDATED_DATETIME DATETIME NOT NULL,
+	PRIMARY KEY (NAME)
+);
+
+MERGE INTO T_BOARD_VERSION (NAME, VERSION, UPDATED_DATETIME) KEY (NAME) VALUES ('board', 0, NOW());
+MERGE INTO T_BOARD_VERSION (NAME, VERSION, UPDATED_DATETIME) KEY (NAME) VALUES ('jpaBoard', 0, NOW());
+
+-- H2에 없는 MySQL 함수
+CREATE ALIAS IF NOT EXISTS DATE_FORMAT FOR "board.H2Functions.dateFormat";
+CREATE ALIAS IF NOT EXISTS FORMAT FOR "board.H2Functions.format";
+
+-- 삭제된 게시글과 첨부파일을 옮기는 보관 테이블 (main/resources/db/schema-archive-mysql.sql)
+CREATE TABLE IF NOT EXISTS T_BOARD_ARCHIVE (
+	BOARD_IDX INT NOT NULL,
+	TITLE VARCHAR(300) NOT NULL,
+	CONTENTS TEXT NOT NULL,
+	HIT_CNT SMALLINT NOT NULL DEFAULT 0,
+	CREATED_DATETIME DATETIME NOT NULL,
+	CREATOR_ID VARCHAR(50) NOT NULL,
+	UPDATED_DATETIME DATETIME,
+	UPDATOR_ID VARCHAR(50),
+	ARCHIVED_DATETIME DATETIME NOT NULL,
+	PRIMARY KEY (BOARD_IDX)
+);
+
+CREATE TABLE IF NOT EXISTS T_FILE_ARCHIVE (
+	IDX INT NOT NULL,
+	BOARD_IDX INT NOT NULL,
+	ORIGINAL_FILE_NAME VARCHAR(255) NOT NULL,
+	STORED_FILE_PATH VARCHAR(500) NOT NULL,
+	FILE_SIZE INT NOT NULL,
+	CREATOR_ID VARCHAR(50) NOT NULL,
+	CREATED_DATETIME DATETIME NOT NULL,
+	UPDATOR_ID VARCHAR(50),
+	UPDATED_DATETIME DATETIME,
+	DELETED_YN CHAR(1) NOT NULL,
+	ARCHIVED_DATETIME DATETIME NOT NULL,
+	PRIMARY KEY (IDX)
+);
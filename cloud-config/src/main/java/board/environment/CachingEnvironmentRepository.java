@@ -0,0 +1,31 @@
+package board.environment;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+import org.springframework.cloud.config.server.environment.SearchPathLocator;
+
+// 설정 서버가 사용하는 EnvironmentRepository(CompositeEnvironmentRepository) 대신 EnvironmentCache에서 읽는다.
+// 파일(/{application}/{profile}/{label}/{path})을 찾을때 사용하는 SearchPathLocator는 원래 저장소에 그대로 맡긴다.
+public class CachingEnvironmentRepository implements EnvironmentRepository, SearchPathLocator {
+
+	private final EnvironmentCache cache;
+	private final EnvironmentRepository delegate;
+
+	public CachingEnvironmentRepository(EnvironmentCache cache, EnvironmentRepository delegate) {
+		this.cache = cache;
+		this.delegate = delegate;
+	}
+
+	@Override
+	public Environment findOne(String application, String profile, String label) {
+		return cache.findOne(application, profile, label);
+	}
+
+	@Override
+	public Locations getLocations(String application, String profile, String label) {
+		if(delegate instanceof SearchPathLocator) {
+			return ((SearchPathLocator) delegate).getLocations(application, profile, label);
+		}
+		throw new UnsupportedOperationException("Search path is not supported by " + delegate.getClass().getName());
+	}
+}
@@ -0,0 +1,161 @@
+package board.environment;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+
+// 설정 저장소(git)에서 읽은 Environment를 application/profile/label 별로 메모리에 보관한다.
+// 요청마다 git fetch/checkout을 하지 않으므로 여러 서버가 한꺼번에 시작해도 저장소에 부담을 주지 않는다.
+// 처음 요청만 저장소에서 읽고(같은 키를 동시에 요청하면 한번만 읽는다) 이후에는 poll-interval 마다 백그라운드에서 다시 읽어서 바꾼다.
+//   board.config.cache.poll-interval : 저장소를 다시 읽는 간격(ms) (기본값 30000)
+//   board.config.cache.idle-timeout : 이 시간(ms) 동안 요청이 없으면 캐시에서 지운다 (기본값 3600000)
+public class EnvironmentCache {
+
+	private static final Logger log = LoggerFactory.getLogger(EnvironmentCache.class);
+	private static final int LOCK_STRIPES = 64;
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	// 같은 키를 동시에 읽지 않도록 키의 해시값으로 락을 나눈다.
+	// 키마다 락을 만들면 없는 label 처럼 캐시되지 않는 요청으로 락이 계속 늘어나므로 개수를 정해둔다.
+	private final Object[] locks = new Object[LOCK_STRIPES];
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	private volatile EnvironmentRepository repository;
+
+	@Value("${board.config.cache.idle-timeout:3600000}")
+	private long idleTimeout;
+
+	public EnvironmentCache() {
+		for(int i = 0; i < LOCK_STRIPES; i++) {
+			locks[i] = new Object();
+		}
+	}
+
+	private static class Entry {
+		private final String application;
+		private final String profile;
+		private final String label;
+		private final Environment environment;
+		private volatile long lastAccess = System.currentTimeMillis();
+
+		Entry(String application, String profile, String label, Environment environment) {
+			this.application = application;
+			this.profile = profile;
+			this.label = label;
+			this.environment = environment;
+		}
+	}
+
+	// 캐시에 없을때와 poll 할때 읽는 저장소 (EnvironmentCachePostProcessor가 설정한다)
+	public void setRepository(EnvironmentRepository repository) {
+		this.repository = repository;
+	}
+
+	// 저장소에서 읽지 못하면(없는 label 등) 예외를 그대로 던지고 캐시하지 않는다.
+	public Environment findOne(String application, String profile, String label) {
+		String key = key(application, profile, label);
+		Entry entry = entries.get(key);
+		if(entry == null) {
+			synchronized (lockFor(key)) {
+				entry = entries.get(key);
+				if(entry == null) {
+					misses.incrementAndGet();
+					entry = new Entry(application, profile, label, repository.findOne(application, profile, label));
+					entries.put(key, entry);
+					return entry.environment;
+				}
+			}
+		}
+		hits.incrementAndGet();
+		entry.lastAccess = System.currentTimeMillis();
+		return entry.environment;
+	}
+
+	// 캐시된 Environment를 저장소에서 다시 읽는다. 읽지 못하면 이전 값을 계속 사용한다.
+	@Scheduled(fixedDelayString = "${board.config.cache.poll-interval:30000}", initialDelayString = "${board.config.cache.poll-interval:30000}")
+	public void refresh() {
+		long idleSince = System.currentTimeMillis() - idleTimeout;
+		int changed = 0;
+		for(Map.Entry<String, Entry> cached : entries.entrySet()) {
+			String key = cached.getKey();
+			Entry entry = cached.getValue();
+			if(entry.lastAccess < idleSince) {
+				entries.remove(key, entry);
+				log.info("Evicted idle environment {}", key);
+				continue;
+			}
+
+			Environment latest;
+			try {
+				latest = repository.findOne(entry.application, entry.profile, entry.label);
+			} catch (Exception e) {
+				log.warn("Could not refresh environment {}, keeping version {} : {}", key, entry.environment.getVersion(), e.toString());
+				continue;
+			}
+			if(sameEnvironment(entry.environment, latest) == false) {
+				Entry refreshed = new Entry(entry.application, entry.profile, entry.label, latest);
+				refreshed.lastAccess = entry.lastAccess;
+				entries.replace(key, entry, refreshed);
+				changed++;
+				log.info("Refreshed environment {} from version {} to {}", key, entry.environment.getVersion(), latest.getVersion());
+			}
+		}
+		log.debug("Environment cache refreshed : {} entries, {} changed, {} hits, {} misses", entries.size(), changed, hits.get(), misses.get());
+	}
+
+	public void clear() {
+		entries.clear();
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	private Object lockFor(String key) {
+		return locks[(key.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+	}
+
+	private static String key(String application, String profile, String label) {
+		return application + "/" + profile + "/" + (label == null ? "" : label);
+	}
+
+	// git 저장소는 커밋이 같으면 내용도 같지만 version이 없는 저장소(native 등)도 있으므로 내용까지 비교한다.
+	private static boolean sameEnvironment(Environment cached, Environment latest) {
+		if(Objects.equals(cached.getVersion(), latest.getVersion()) == false
+				|| Objects.equals(cached.getState(), latest.getState()) == false) {
+			return false;
+		}
+		List<PropertySource> cachedSources = cached.getPropertySources();
+		List<PropertySource> latestSources = latest.getPropertySources();
+		if(cachedSources.size() != latestSources.size()) {
+			return false;
+		}
+		for(int i = 0; i < cachedSources.size(); i++) {
+			if(cachedSources.get(i).getName().equals(latestSources.get(i).getName()) == false
+					|| cachedSources.get(i).getSource().equals(latestSources.get(i).getSource()) == false) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
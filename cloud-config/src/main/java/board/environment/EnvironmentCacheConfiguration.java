@@ -0,0 +1,49 @@
+package board.environment;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cloud.config.server.environment.CompositeEnvironmentRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+// 설정 서버 응답 캐시. board.config.cache.enabled=false 이면 요청마다 저장소에서 읽는다.
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(value = "board.config.cache.enabled", matchIfMissing = true)
+public class EnvironmentCacheConfiguration {
+
+	@Bean
+	public EnvironmentCache environmentCache() {
+		return new EnvironmentCache();
+	}
+
+	// 설정 서버가 만드는 EnvironmentRepository(@Primary)를 CachingEnvironmentRepository로 감싼다.
+	// 저장소 목록에 캐시가 들어가지 않도록 EnvironmentRepository 빈을 따로 만들지 않고 감싸기만 한다.
+	@Bean
+	public static BeanPostProcessor environmentCachePostProcessor(ObjectProvider<EnvironmentCache> environmentCache) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if(bean instanceof CompositeEnvironmentRepository) {
+					EnvironmentCache cache = environmentCache.getObject();
+					cache.setRepository((CompositeEnvironmentRepository) bean);
+					return new CachingEnvironmentRepository(cache, (CompositeEnvironmentRepository) bean);
+				}
+				return bean;
+			}
+		};
+	}
+
+	// 응답 내용으로 ETag를 만들고 If-None-Match가 같으면 304로 응답한다.
+	// 캐시된 Environment로 응답하므로 설정이 바뀌지 않으면 ETag도 같다.
+	@Bean
+	public FilterRegistrationBean<ShallowEtagHeaderFilter> etagFilter() {
+		FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+		registration.addUrlPatterns("/*");
+		return registration;
+	}
+}
@@ -0,0 +1,108 @@
+package board.environment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.eclipse.jgit.api.Git;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.FileSystemUtils;
+
+// 로컬 git 저장소(file:)로 설정 서버를 실행해서 캐시와 ETag를 확인한다.
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+		"spring.cloud.config.server.git.uri=file:${java.io.tmpdir}/cloud-config-test-repo",
+		"board.config.cache.poll-interval=3600000"
+})
+@AutoConfigureMockMvc
+public class EnvironmentCacheTests {
+
+	private static final File REPOSITORY = new File(System.getProperty("java.io.tmpdir"), "cloud-config-test-repo");
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EnvironmentCache environmentCache;
+
+	@BeforeClass
+	public static void createRepository() throws Exception {
+		FileSystemUtils.deleteRecursively(REPOSITORY);
+		Git.init().setDirectory(REPOSITORY).call().close();
+	}
+
+	@AfterClass
+	public static void deleteRepository() {
+		FileSystemUtils.deleteRecursively(REPOSITORY);
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		commit("info.marker: one");
+		environmentCache.clear();
+	}
+
+	@Test
+	public void servesCachedEnvironmentUntilRefreshed() throws Exception {
+		mockMvc.perform(get("/board/default"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.propertySources[0].source['info.marker']").value("one"));
+		long misses = environmentCache.getMisses();
+
+		commit("info.marker: two");
+		mockMvc.perform(get("/board/default"))
+				.andExpect(jsonPath("$.propertySources[0].source['info.marker']").value("one"));
+		assertThat(environmentCache.getMisses()).isEqualTo(misses);
+
+		environmentCache.refresh();
+		mockMvc.perform(get("/board/default"))
+				.andExpect(jsonPath("$.propertySources[0].source['info.marker']").value("two"));
+		assertThat(environmentCache.getMisses()).isEqualTo(misses);
+	}
+
+	@Test
+	public void returnsNotModifiedForSameEtag() throws Exception {
+		String etag = mockMvc.perform(get("/board/default"))
+				.andExpect(status().isOk())
+				.andExpect(header().exists("ETag"))
+				.andReturn().getResponse().getHeader("ETag");
+
+		mockMvc.perform(get("/board/default").header("If-None-Match", etag))
+				.andExpect(status().isNotModified());
+
+		commit("info.marker: three");
+		environmentCache.refresh();
+		mockMvc.perform(get("/board/default").header("If-None-Match", etag))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	public void doesNotCacheMissingLabel() throws Exception {
+		mockMvc.perform(get("/board/default/no-such-label"))
+				.andExpect(status().isNotFound());
+		assertThat(environmentCache.size()).isZero();
+	}
+
+	private static void commit(String content) throws Exception {
+		Files.write(new File(REPOSITORY, "board.yml").toPath(), content.getBytes(StandardCharsets.UTF_8));
+		try (Git git = Git.open(REPOSITORY)) {
+			git.add().addFilepattern("board.yml").call();
+			git.commit().setMessage(content).call();
+		}
+	}
+}